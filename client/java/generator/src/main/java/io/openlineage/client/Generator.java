@@ -136,8 +136,29 @@ public class Generator {
 
       String javaPath = CONTAINER_CLASS_NAME + JAVA_EXT;
       File output = new File(outputBase, javaPath);
+      JavaPoetGenerator modelGenerator = new JavaPoetGenerator(typeResolver, packageName, CONTAINER_CLASS_NAME, server, containerToID);
       try (PrintWriter printWriter = new PrintWriter(output)) {
-        new JavaPoetGenerator(typeResolver, packageName, CONTAINER_CLASS_NAME, server, containerToID).generate(printWriter);
+        modelGenerator.generate(printWriter);
+      }
+
+      JavaPoetModuleGenerator moduleGenerator = new JavaPoetModuleGenerator(typeResolver, modelGenerator, packageName, CONTAINER_CLASS_NAME);
+      File moduleOutput = new File(outputBase, moduleGenerator.getModuleClassName() + JAVA_EXT);
+      try (PrintWriter printWriter = new PrintWriter(moduleOutput)) {
+        moduleGenerator.generate(printWriter);
+      }
+
+      if (!server) {
+        JavaPoetBinaryCodecGenerator codecGenerator = new JavaPoetBinaryCodecGenerator(typeResolver, modelGenerator, packageName, CONTAINER_CLASS_NAME);
+        File codecOutput = new File(outputBase, codecGenerator.getCodecClassName() + JAVA_EXT);
+        try (PrintWriter printWriter = new PrintWriter(codecOutput)) {
+          codecGenerator.generate(printWriter);
+        }
+
+        JavaPoetValidatorGenerator validatorGenerator = new JavaPoetValidatorGenerator(typeResolver, modelGenerator, packageName, CONTAINER_CLASS_NAME);
+        File validatorOutput = new File(outputBase, validatorGenerator.getValidatorClassName() + JAVA_EXT);
+        try (PrintWriter printWriter = new PrintWriter(validatorOutput)) {
+          validatorGenerator.generate(printWriter);
+        }
       }
 
     } catch (RuntimeException e) {
@@ -0,0 +1,916 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.client;
+
+import static javax.lang.model.element.Modifier.ABSTRACT;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+
+import io.openlineage.client.TypeResolver.ArrayResolvedType;
+import io.openlineage.client.TypeResolver.EnumResolvedType;
+import io.openlineage.client.TypeResolver.ObjectResolvedType;
+import io.openlineage.client.TypeResolver.PrimitiveResolvedType;
+import io.openlineage.client.TypeResolver.ResolvedField;
+import io.openlineage.client.TypeResolver.ResolvedType;
+import io.openlineage.client.TypeResolver.ResolvedTypeVisitor;
+
+/**
+ * Generates a compact binary codec for the run events of the client model generated by {@link JavaPoetGenerator}.
+ * It has an encode and a decode method for each model class.
+ *
+ * An object is a list of fields: the field name, a type tag and the value, terminated by an end marker.
+ * Integers are zigzag varints, and the values of each type can be read without knowing the model.
+ * Strings, including field names, are written once per event and then referenced by their index in the event's string dictionary.
+ * Values the generated code does not know, like custom facets extending a default facet, are converted to a Jackson tree first.
+ * They are read back the way the JSON is read: as default facets, or as maps and lists.
+ */
+public class JavaPoetBinaryCodecGenerator {
+
+  private static final String ROOT_TYPE = "RunEvent";
+  private static final int MAX_DEPTH = 256;
+
+  private final TypeResolver typeResolver;
+  private final JavaPoetGenerator modelGenerator;
+  private final String containerPackage;
+  private final String containerClassName;
+  private final String codecClassName;
+  private final ClassName container;
+
+  public JavaPoetBinaryCodecGenerator(TypeResolver typeResolver, JavaPoetGenerator modelGenerator, String containerPackage, String containerClassName) {
+    this.typeResolver = typeResolver;
+    this.modelGenerator = modelGenerator;
+    this.containerPackage = containerPackage;
+    this.containerClassName = containerClassName;
+    this.codecClassName = containerClassName + "BinaryCodec";
+    this.container = ClassName.get(containerPackage, containerClassName);
+  }
+
+  public String getCodecClassName() {
+    return codecClassName;
+  }
+
+  public void generate(PrintWriter printWriter) throws IOException {
+    ClassName root = ClassName.get(containerPackage, containerClassName, ROOT_TYPE);
+    TypeSpec.Builder codecBuilder = TypeSpec.classBuilder(codecClassName)
+        .addModifiers(PUBLIC, FINAL)
+        .addJavadoc("Compact binary encoding of {@link $T}s: self describing, field tagged and varint encoded,\n", root)
+        .addJavadoc("with a dictionary of the strings repeated in an event, like namespaces, producers and field names.\n")
+        .addJavadoc("Decoding an event gives the same model as reading its JSON.\n");
+
+    String[] valueTypes = {"END", "NULL", "TRUE", "FALSE", "LONG", "DOUBLE", "STRING", "UUID", "TIME", "OBJECT", "ARRAY"};
+    codecBuilder.addField(FieldSpec.builder(byte.class, "VERSION", PRIVATE, STATIC, FINAL).initializer("1").build());
+    // objects and arrays are decoded recursively, so malicious input must not nest them without limit
+    codecBuilder.addField(FieldSpec.builder(int.class, "MAX_DEPTH", PRIVATE, STATIC, FINAL).initializer("$L", MAX_DEPTH).build());
+    for (int i = 1; i < valueTypes.length; i++) {
+      codecBuilder.addField(FieldSpec.builder(int.class, valueTypes[i] + "_VALUE", PRIVATE, STATIC, FINAL).initializer("$L", i).build());
+    }
+    codecBuilder.addField(ObjectMapper.class, "mapper", PRIVATE, FINAL);
+
+    codecBuilder.addMethod(MethodSpec.constructorBuilder()
+        .addModifiers(PUBLIC)
+        .addStatement("this(new $T())", ObjectMapper.class)
+        .addStatement("mapper.registerModule(new $T())", JavaTimeModule.class)
+        .addStatement("mapper.setSerializationInclusion($T.NON_NULL)", Include.class)
+        .addStatement("mapper.disable($T.WRITE_DATES_AS_TIMESTAMPS)", SerializationFeature.class)
+        .build());
+    codecBuilder.addMethod(MethodSpec.constructorBuilder()
+        .addModifiers(PUBLIC)
+        .addJavadoc("@param mapper converts the values the codec has no encoder for to a tree\n")
+        .addParameter(ObjectMapper.class, "mapper")
+        .addStatement("this.mapper = mapper")
+        .build());
+    codecBuilder.addMethod(MethodSpec.methodBuilder("encode")
+        .addModifiers(PUBLIC)
+        .addJavadoc("@param event the event to encode\n")
+        .addJavadoc("@return the encoded event\n")
+        .addParameter(root, "event")
+        .returns(byte[].class)
+        .addStatement("Output out = new Output()")
+        .addStatement("out.writeByte(VERSION)")
+        .addStatement("encode$N(out, event)", ROOT_TYPE)
+        .addStatement("return out.toByteArray()")
+        .build());
+    codecBuilder.addMethod(MethodSpec.methodBuilder("decode")
+        .addModifiers(PUBLIC)
+        .addJavadoc("@param bytes an event encoded by {@link #encode($T)}\n", root)
+        .addJavadoc("@return the decoded event\n")
+        .addJavadoc("@throws IllegalArgumentException if the bytes are not a valid encoding or nest objects and arrays\n")
+        .addJavadoc("more than $L levels deep\n", MAX_DEPTH)
+        .addParameter(byte[].class, "bytes")
+        .returns(root)
+        .addStatement("Input in = new Input(bytes)")
+        .addStatement("int version = in.readByte()")
+        .beginControlFlow("if (version != VERSION)")
+        .addStatement("throw new $T($S + version)", IllegalArgumentException.class, "Unsupported version: ")
+        .endControlFlow()
+        .addStatement("return decode$N(in, in.readByte())", ROOT_TYPE)
+        .build());
+
+    for (ObjectResolvedType type : typeResolver.getTypes()) {
+      if (type.getName().length() == 0) {
+        continue;
+      }
+      if (typeResolver.getBaseTypes().contains(type.getName())) {
+        codecBuilder.addMethod(interfaceEncoder(type));
+        codecBuilder.addMethod(interfaceDecoder(type));
+        if (hasDefaultImplementation(type)) {
+          codecBuilder.addMethod(encoder("Default" + type.getName(), type));
+          codecBuilder.addMethod(decoder("Default" + type.getName(), type, true));
+        }
+      } else {
+        codecBuilder.addMethod(encoder(type.getName(), type));
+        codecBuilder.addMethod(decoder(type.getName(), type, false));
+      }
+    }
+    codecBuilder.addMethod(anyEncoder());
+    codecBuilder.addMethod(treeEncoder());
+    codecBuilder.addType(valueReader());
+    codecBuilder.addType(output());
+    codecBuilder.addType(input());
+
+    JavaFile.builder(containerPackage, codecBuilder.build())
+        .build()
+        .writeTo(printWriter);
+  }
+
+  private boolean hasDefaultImplementation(ObjectResolvedType type) {
+    return type.getName().endsWith("Facet") && !type.getName().equals("BaseFacet");
+  }
+
+  private MethodSpec encoder(String className, ObjectResolvedType type) {
+    ClassName modelClass = ClassName.get(containerPackage, containerClassName, className);
+    MethodSpec.Builder encode = MethodSpec.methodBuilder("encode" + className)
+        .addModifiers(PRIVATE)
+        .addParameter(ClassName.get("", "Output"), "out")
+        .addParameter(modelClass, "value")
+        .addStatement("out.writeByte(OBJECT_VALUE)");
+    for (ResolvedField f : type.getProperties()) {
+      if (modelGenerator.isASchemaUrlField(f)) {
+        // constant of the generated class
+        continue;
+      }
+      String local = local(f);
+      encode.addStatement("$T $N = value.get$N()", modelGenerator.getQualifiedTypeName(f.getType()), local, TypeResolver.titleCase(f.getName()));
+      encode.beginControlFlow("if ($N != null)", local);
+      encode.addStatement("out.writeString($S)", f.getName());
+      encode.addCode(writeValue(local, f.getType(), 0));
+      encode.endControlFlow();
+    }
+    if (type.hasAdditionalProperties()) {
+      TypeName entryType = ParameterizedTypeName.get(ClassName.get(Map.Entry.class), ClassName.get(String.class), additionalPropertiesValueType(type));
+      encode.beginControlFlow("for ($T __entry : value.additionalProperties().entrySet())", entryType);
+      encode.beginControlFlow("if (__entry.getValue() != null)");
+      encode.addStatement("out.writeString(__entry.getKey())");
+      if (type.getAdditionalPropertiesType() == null) {
+        encode.addStatement("encodeAny(out, __entry.getValue())");
+      } else {
+        encode.addStatement("$T __additionalValue = __entry.getValue()", additionalPropertiesValueType(type));
+        encode.addCode(writeValue("__additionalValue", type.getAdditionalPropertiesType(), 0));
+      }
+      encode.endControlFlow();
+      encode.endControlFlow();
+    }
+    encode.addStatement("out.writeEnd()");
+    return encode.build();
+  }
+
+  private MethodSpec decoder(String className, ObjectResolvedType type, boolean defaultImplementation) {
+    ClassName modelClass = ClassName.get(containerPackage, containerClassName, className);
+    MethodSpec.Builder decode = MethodSpec.methodBuilder("decode" + className)
+        .addModifiers(PRIVATE)
+        .addParameter(ClassName.get("", "Input"), "in")
+        .addParameter(int.class, "type")
+        .returns(modelClass)
+        .beginControlFlow("if (type == NULL_VALUE)")
+        .addStatement("return null")
+        .endControlFlow()
+        .addStatement("in.expect(type, OBJECT_VALUE)")
+        .addStatement("in.enter()");
+    for (ResolvedField f : type.getProperties()) {
+      if (!modelGenerator.isASchemaUrlField(f)) {
+        decode.addStatement("$T $N = null", modelGenerator.getQualifiedTypeName(f.getType()), local(f));
+      }
+    }
+    TypeName valueType = additionalPropertiesValueType(type);
+    TypeName mapType = ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class), valueType);
+    if (type.hasAdditionalProperties()) {
+      decode.addStatement("$T __additionalProperties = null", mapType);
+    }
+    decode.beginControlFlow("for (String __key = in.readString(); __key != null; __key = in.readString())");
+    decode.addStatement("int __valueType = in.readByte()");
+    decode.beginControlFlow("switch (__key)");
+    for (ResolvedField f : type.getProperties()) {
+      decode.addCode("case $S:\n", f.getName());
+      if (modelGenerator.isASchemaUrlField(f)) {
+        decode.addStatement("$>in.readAny(__valueType)");
+      } else {
+        decode.addStatement("$>$N = $L", local(f), readValue("__valueType", f.getType(), 0));
+      }
+      decode.addStatement("break$<");
+    }
+    decode.addCode("default:\n$>");
+    if (type.hasAdditionalProperties()) {
+      decode.beginControlFlow("if (__additionalProperties == null)");
+      decode.addStatement("__additionalProperties = new $T<>()", LinkedHashMap.class);
+      decode.endControlFlow();
+      if (type.getAdditionalPropertiesType() == null) {
+        decode.addStatement("__additionalProperties.put(__key, in.readAny(__valueType))");
+      } else {
+        decode.addStatement("__additionalProperties.put(__key, $L)", readValue("__valueType", type.getAdditionalPropertiesType(), 0));
+      }
+    } else {
+      decode.addStatement("in.readAny(__valueType)");
+    }
+    decode.addCode("$<");
+    decode.endControlFlow();
+    decode.endControlFlow();
+    decode.addStatement("in.exit()");
+
+    List<ResolvedField> arguments = type.getProperties().stream()
+        .filter(f -> !modelGenerator.isASchemaUrlField(f))
+        .collect(Collectors.toList());
+    if (defaultImplementation) {
+      decode.addStatement("$T __result = new $T($L)", modelClass, modelClass,
+          arguments.stream().map(f -> CodeBlock.of("$N", local(f))).collect(CodeBlock.joining(", ")));
+      if (type.hasAdditionalProperties()) {
+        decode.beginControlFlow("if (__additionalProperties != null)");
+        decode.addStatement("__result.getAdditionalProperties().putAll(__additionalProperties)");
+        decode.endControlFlow();
+      }
+      decode.addStatement("return __result");
+    } else {
+      // the builders take the producer from the OpenLineage instance
+      String producer = arguments.stream().filter(modelGenerator::isAProducerField).findFirst().map(this::local).orElse(null);
+      CodeBlock.Builder builder = CodeBlock.builder()
+          .add("in.openLineage($L).new$NBuilder()", producer == null ? "null" : producer, className);
+      for (ResolvedField f : arguments) {
+        if (!modelGenerator.isAProducerField(f)) {
+          builder.add("\n.$N($N)", f.getName(), local(f));
+        }
+      }
+      decode.addStatement("$T __builder = $L", ClassName.get(containerPackage, containerClassName, className + "Builder"), builder.build());
+      if (type.hasAdditionalProperties()) {
+        decode.beginControlFlow("if (__additionalProperties != null)");
+        decode.addStatement("__additionalProperties.forEach(__builder::put)");
+        decode.endControlFlow();
+      }
+      decode.addStatement("return __builder.build()");
+    }
+    return decode.build();
+  }
+
+  private MethodSpec interfaceEncoder(ObjectResolvedType type) {
+    ClassName interfaceClass = ClassName.get(containerPackage, containerClassName, type.getName());
+    MethodSpec.Builder encode = MethodSpec.methodBuilder("encode" + type.getName())
+        .addModifiers(PRIVATE)
+        .addParameter(ClassName.get("", "Output"), "out")
+        .addParameter(interfaceClass, "value")
+        .addStatement("Class<?> __class = value.getClass()");
+    List<String> implementations = new ArrayList<>();
+    for (ObjectResolvedType implementation : typeResolver.getTypes()) {
+      if (!typeResolver.getBaseTypes().contains(implementation.getName())
+          && implementation.getParents().stream().anyMatch(p -> p.getName().equals(type.getName()))) {
+        implementations.add(implementation.getName());
+      }
+    }
+    if (hasDefaultImplementation(type)) {
+      implementations.add("Default" + type.getName());
+    }
+    // exact match only: subclasses may add properties
+    boolean first = true;
+    for (String implementation : implementations) {
+      ClassName implementationClass = ClassName.get(containerPackage, containerClassName, implementation);
+      if (first) {
+        encode.beginControlFlow("if (__class == $T.class)", implementationClass);
+        first = false;
+      } else {
+        encode.nextControlFlow("else if (__class == $T.class)", implementationClass);
+      }
+      encode.addStatement("encode$N(out, ($T) value)", implementation, implementationClass);
+    }
+    if (first) {
+      encode.addStatement("encodeAny(out, value)");
+    } else {
+      encode.nextControlFlow("else");
+      encode.addStatement("encodeAny(out, value)");
+      encode.endControlFlow();
+    }
+    return encode.build();
+  }
+
+  private MethodSpec interfaceDecoder(ObjectResolvedType type) {
+    ClassName interfaceClass = ClassName.get(containerPackage, containerClassName, type.getName());
+    MethodSpec.Builder decode = MethodSpec.methodBuilder("decode" + type.getName())
+        .addModifiers(PRIVATE)
+        .addParameter(ClassName.get("", "Input"), "in")
+        .addParameter(int.class, "type")
+        .returns(interfaceClass);
+    if (hasDefaultImplementation(type)) {
+      // like the @JsonDeserialize annotation of the interface
+      decode.addStatement("return decodeDefault$N(in, type)", type.getName());
+    } else {
+      decode.addStatement("return mapper.convertValue(in.readAny(type), $T.class)", interfaceClass);
+    }
+    return decode.build();
+  }
+
+  private TypeName additionalPropertiesValueType(ObjectResolvedType type) {
+    return type.getAdditionalPropertiesType() == null ? ClassName.get(Object.class) : modelGenerator.getQualifiedTypeName(type.getAdditionalPropertiesType());
+  }
+
+  private String local(ResolvedField f) {
+    return "__" + f.getName().replaceAll("[^A-Za-z0-9]", "");
+  }
+
+  /**
+   * @param variable a local variable holding a non null value
+   * @param type the type of the value
+   * @param depth nesting level of arrays, to name the loop variables
+   * @return the code writing the value
+   */
+  private CodeBlock writeValue(String variable, ResolvedType type, int depth) {
+    return type.accept(new ResolvedTypeVisitor<CodeBlock>() {
+
+      @Override
+      public CodeBlock visit(PrimitiveResolvedType primitiveType) {
+        switch (primitiveType.getName()) {
+          case "integer":
+            return CodeBlock.of("out.writeLong($N);\n", variable);
+          case "number":
+            return CodeBlock.of("out.writeDouble($N);\n", variable);
+          case "boolean":
+            return CodeBlock.of("out.writeByte($N ? TRUE_VALUE : FALSE_VALUE);\n", variable);
+          case "string":
+            String format = primitiveType.getFormat();
+            if (format == null) {
+              return CodeBlock.of("out.writeStringValue($N);\n", variable);
+            } else if (format.equals("uri")) {
+              return CodeBlock.of("out.writeStringValue($N.toString());\n", variable);
+            } else if (format.equals("uuid")) {
+              return CodeBlock.of("out.writeUuid($N);\n", variable);
+            } else if (format.equals("date-time")) {
+              return CodeBlock.of("out.writeTime($N);\n", variable);
+            }
+            throw new RuntimeException("Unknown format: " + format);
+          default:
+            throw new RuntimeException("Unknown primitive: " + primitiveType.getName());
+        }
+      }
+
+      @Override
+      public CodeBlock visit(ObjectResolvedType objectType) {
+        return CodeBlock.of("encode$N(out, $N);\n", objectType.getName(), variable);
+      }
+
+      @Override
+      public CodeBlock visit(ArrayResolvedType arrayType) {
+        String item = "__item" + depth;
+        return CodeBlock.builder()
+            .addStatement("out.writeByte(ARRAY_VALUE)")
+            .addStatement("out.writeVarint($N.size())", variable)
+            .beginControlFlow("for ($T $N : $N)", modelGenerator.getQualifiedTypeName(arrayType.getItems()), item, variable)
+            .beginControlFlow("if ($N == null)", item)
+            .addStatement("out.writeByte(NULL_VALUE)")
+            .nextControlFlow("else")
+            .add(writeValue(item, arrayType.getItems(), depth + 1))
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+      }
+
+      @Override
+      public CodeBlock visit(EnumResolvedType enumType) {
+        return CodeBlock.of("out.writeStringValue($N.name());\n", variable);
+      }
+    });
+  }
+
+  /**
+   * @param typeVariable a local variable holding the type tag of the value
+   * @param type the type of the value
+   * @param depth nesting level of arrays, to name the lambda parameters
+   * @return an expression reading the value
+   */
+  private CodeBlock readValue(String typeVariable, ResolvedType type, int depth) {
+    return type.accept(new ResolvedTypeVisitor<CodeBlock>() {
+
+      @Override
+      public CodeBlock visit(PrimitiveResolvedType primitiveType) {
+        switch (primitiveType.getName()) {
+          case "integer":
+            return CodeBlock.of("in.readLong($N)", typeVariable);
+          case "number":
+            return CodeBlock.of("in.readDouble($N)", typeVariable);
+          case "boolean":
+            return CodeBlock.of("in.readBoolean($N)", typeVariable);
+          case "string":
+            String format = primitiveType.getFormat();
+            if (format == null) {
+              return CodeBlock.of("in.readString($N)", typeVariable);
+            } else if (format.equals("uri")) {
+              return CodeBlock.of("in.readUri($N)", typeVariable);
+            } else if (format.equals("uuid")) {
+              return CodeBlock.of("in.readUuid($N)", typeVariable);
+            } else if (format.equals("date-time")) {
+              return CodeBlock.of("in.readTime($N)", typeVariable);
+            }
+            throw new RuntimeException("Unknown format: " + format);
+          default:
+            throw new RuntimeException("Unknown primitive: " + primitiveType.getName());
+        }
+      }
+
+      @Override
+      public CodeBlock visit(ObjectResolvedType objectType) {
+        return CodeBlock.of("decode$N(in, $N)", objectType.getName(), typeVariable);
+      }
+
+      @Override
+      public CodeBlock visit(ArrayResolvedType arrayType) {
+        String itemType = "__itemType" + depth;
+        return CodeBlock.of("in.readList($N, $N -> $L)", typeVariable, itemType, readValue(itemType, arrayType.getItems(), depth + 1));
+      }
+
+      @Override
+      public CodeBlock visit(EnumResolvedType enumType) {
+        return CodeBlock.of("in.readEnum($N, $T.class)", typeVariable, modelGenerator.getQualifiedTypeName(enumType));
+      }
+    });
+  }
+
+  private MethodSpec anyEncoder() {
+    return MethodSpec.methodBuilder("encodeAny")
+        .addModifiers(PRIVATE)
+        .addParameter(ClassName.get("", "Output"), "out")
+        .addParameter(Object.class, "value")
+        .beginControlFlow("if (value == null)")
+        .addStatement("out.writeByte(NULL_VALUE)")
+        .nextControlFlow("else if (value instanceof String)")
+        .addStatement("out.writeStringValue((String) value)")
+        .nextControlFlow("else if (value instanceof Boolean)")
+        .addStatement("out.writeByte((Boolean) value ? TRUE_VALUE : FALSE_VALUE)")
+        .nextControlFlow("else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)")
+        .addStatement("out.writeLong(((Number) value).longValue())")
+        .nextControlFlow("else if (value instanceof Double || value instanceof Float)")
+        .addStatement("out.writeDouble(((Number) value).doubleValue())")
+        .nextControlFlow("else if (value instanceof Map)")
+        .addStatement("out.writeByte(OBJECT_VALUE)")
+        .beginControlFlow("for ($T<?, ?> entry : (($T<?, ?>) value).entrySet())", Map.Entry.class, Map.class)
+        .addStatement("out.writeString(String.valueOf(entry.getKey()))")
+        .addStatement("encodeAny(out, entry.getValue())")
+        .endControlFlow()
+        .addStatement("out.writeEnd()")
+        .nextControlFlow("else if (value instanceof $T)", Collection.class)
+        .addStatement("out.writeByte(ARRAY_VALUE)")
+        .addStatement("out.writeVarint((($T<?>) value).size())", Collection.class)
+        .beginControlFlow("for (Object item : ($T<?>) value)", Collection.class)
+        .addStatement("encodeAny(out, item)")
+        .endControlFlow()
+        .nextControlFlow("else if (value instanceof $T)", JsonNode.class)
+        .addStatement("encodeTree(out, ($T) value)", JsonNode.class)
+        .nextControlFlow("else")
+        .addStatement("encodeTree(out, mapper.valueToTree(value))")
+        .endControlFlow()
+        .build();
+  }
+
+  private MethodSpec treeEncoder() {
+    TypeName fieldType = ParameterizedTypeName.get(ClassName.get(Map.Entry.class), ClassName.get(String.class), ClassName.get(JsonNode.class));
+    return MethodSpec.methodBuilder("encodeTree")
+        .addModifiers(PRIVATE)
+        .addParameter(ClassName.get("", "Output"), "out")
+        .addParameter(JsonNode.class, "node")
+        .beginControlFlow("switch (node.getNodeType())")
+        .addCode("case OBJECT:\n$>")
+        .addStatement("out.writeByte(OBJECT_VALUE)")
+        .beginControlFlow("for ($T<$T> fields = node.fields(); fields.hasNext();)", Iterator.class, fieldType)
+        .addStatement("$T field = fields.next()", fieldType)
+        .addStatement("out.writeString(field.getKey())")
+        .addStatement("encodeTree(out, field.getValue())")
+        .endControlFlow()
+        .addStatement("out.writeEnd()")
+        .addStatement("break$<")
+        .addCode("case ARRAY:\n$>")
+        .addStatement("out.writeByte(ARRAY_VALUE)")
+        .addStatement("out.writeVarint(node.size())")
+        .beginControlFlow("for ($T item : node)", JsonNode.class)
+        .addStatement("encodeTree(out, item)")
+        .endControlFlow()
+        .addStatement("break$<")
+        .addCode("case BOOLEAN:\n$>")
+        .addStatement("out.writeByte(node.booleanValue() ? TRUE_VALUE : FALSE_VALUE)")
+        .addStatement("break$<")
+        .addCode("case NUMBER:\n$>")
+        .beginControlFlow("if (node.isIntegralNumber() && node.canConvertToLong())")
+        .addStatement("out.writeLong(node.longValue())")
+        .nextControlFlow("else")
+        .addStatement("out.writeDouble(node.doubleValue())")
+        .endControlFlow()
+        .addStatement("break$<")
+        .addCode("case NULL:\n")
+        .addCode("case MISSING:\n$>")
+        .addStatement("out.writeByte(NULL_VALUE)")
+        .addStatement("break$<")
+        .addCode("default:\n$>")
+        .addStatement("out.writeStringValue(node.asText())")
+        .addCode("$<")
+        .endControlFlow()
+        .build();
+  }
+
+  private TypeSpec valueReader() {
+    TypeVariableName t = TypeVariableName.get("T");
+    return TypeSpec.interfaceBuilder("ValueReader")
+        .addModifiers(PRIVATE)
+        .addTypeVariable(t)
+        .addMethod(MethodSpec.methodBuilder("read")
+            .addModifiers(PUBLIC, ABSTRACT)
+            .addParameter(int.class, "type")
+            .returns(t)
+            .build())
+        .build();
+  }
+
+  private TypeSpec output() {
+    return TypeSpec.classBuilder("Output")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .addField(FieldSpec.builder(byte[].class, "buffer", PRIVATE).initializer("new byte[1024]").build())
+        .addField(int.class, "size", PRIVATE)
+        .addField(FieldSpec.builder(ParameterizedTypeName.get(Map.class, String.class, Integer.class), "strings", PRIVATE, FINAL)
+            .initializer("new $T<>()", HashMap.class)
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeByte")
+            .addParameter(int.class, "b")
+            .addStatement("ensureCapacity(1)")
+            .addStatement("buffer[size++] = (byte) b")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeVarint")
+            .addParameter(long.class, "value")
+            .addStatement("ensureCapacity(10)")
+            .beginControlFlow("while ((value & ~0x7FL) != 0)")
+            .addStatement("buffer[size++] = (byte) ((value & 0x7F) | 0x80)")
+            .addStatement("value >>>= 7")
+            .endControlFlow()
+            .addStatement("buffer[size++] = (byte) value")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeFixed64")
+            .addParameter(long.class, "value")
+            .addStatement("ensureCapacity(8)")
+            .beginControlFlow("for (int shift = 56; shift >= 0; shift -= 8)")
+            .addStatement("buffer[size++] = (byte) (value >>> shift)")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeLong")
+            .addParameter(long.class, "value")
+            .addStatement("writeByte(LONG_VALUE)")
+            .addStatement("writeVarint((value << 1) ^ (value >> 63))")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeDouble")
+            .addParameter(double.class, "value")
+            .addStatement("writeByte(DOUBLE_VALUE)")
+            .addStatement("writeFixed64(Double.doubleToLongBits(value))")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeUuid")
+            .addParameter(UUID.class, "value")
+            .addStatement("writeByte(UUID_VALUE)")
+            .addStatement("writeFixed64(value.getMostSignificantBits())")
+            .addStatement("writeFixed64(value.getLeastSignificantBits())")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeTime")
+            .addParameter(ZonedDateTime.class, "value")
+            .addStatement("writeByte(TIME_VALUE)")
+            .addStatement("long seconds = value.toEpochSecond()")
+            .addStatement("writeVarint((seconds << 1) ^ (seconds >> 63))")
+            .addStatement("writeVarint(value.getNano())")
+            .addStatement("writeString(value.getZone().getId())")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeStringValue")
+            .addParameter(String.class, "value")
+            .addStatement("writeByte(STRING_VALUE)")
+            .addStatement("writeString(value)")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeString")
+            .addJavadoc("Writes the index of the string in the dictionary plus 2, or 1 followed by the string the first time.\n")
+            .addParameter(String.class, "value")
+            .addStatement("Integer index = strings.get(value)")
+            .beginControlFlow("if (index != null)")
+            .addStatement("writeVarint(index + 2)")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("strings.put(value, strings.size())")
+            .addStatement("byte[] bytes = value.getBytes($T.UTF_8)", StandardCharsets.class)
+            .addStatement("writeVarint(1)")
+            .addStatement("writeVarint(bytes.length)")
+            .addStatement("ensureCapacity(bytes.length)")
+            .addStatement("System.arraycopy(bytes, 0, buffer, size, bytes.length)")
+            .addStatement("size += bytes.length")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeEnd")
+            .addJavadoc("Ends an object, in place of the next field name.\n")
+            .addStatement("writeVarint(0)")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("toByteArray")
+            .returns(byte[].class)
+            .addStatement("return $T.copyOf(buffer, size)", Arrays.class)
+            .build())
+        .addMethod(MethodSpec.methodBuilder("ensureCapacity")
+            .addModifiers(PRIVATE)
+            .addParameter(int.class, "length")
+            .beginControlFlow("if (size + length > buffer.length)")
+            .addStatement("buffer = $T.copyOf(buffer, Math.max(buffer.length * 2, size + length))", Arrays.class)
+            .endControlFlow()
+            .build())
+        .build();
+  }
+
+  private TypeSpec input() {
+    TypeVariableName t = TypeVariableName.get("T");
+    TypeVariableName e = TypeVariableName.get("E", ParameterizedTypeName.get(ClassName.get(Enum.class), TypeVariableName.get("E")));
+    TypeName objectMap = ParameterizedTypeName.get(Map.class, String.class, Object.class);
+    return TypeSpec.classBuilder("Input")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .addField(byte[].class, "buffer", PRIVATE, FINAL)
+        .addField(int.class, "position", PRIVATE)
+        .addField(int.class, "depth", PRIVATE)
+        .addField(FieldSpec.builder(ParameterizedTypeName.get(List.class, String.class), "strings", PRIVATE, FINAL)
+            .initializer("new $T<>()", ArrayList.class)
+            .build())
+        .addField(FieldSpec.builder(ParameterizedTypeName.get(Map.class, String.class, URI.class), "uris", PRIVATE, FINAL)
+            .initializer("new $T<>()", HashMap.class)
+            .build())
+        .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(URI.class), container), "openLineages", PRIVATE, FINAL)
+            .initializer("new $T<>()", HashMap.class)
+            .build())
+        .addMethod(MethodSpec.constructorBuilder()
+            .addParameter(byte[].class, "buffer")
+            .addStatement("this.buffer = buffer")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("openLineage")
+            .addJavadoc("@return the factory of the builders of the model classes produced by the given producer\n")
+            .addParameter(URI.class, "producer")
+            .returns(container)
+            .addStatement("return openLineages.computeIfAbsent(producer, $T::new)", container)
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readByte")
+            .returns(int.class)
+            .beginControlFlow("if (position >= buffer.length)")
+            .addStatement("throw new $T($S)", IllegalArgumentException.class, "Unexpected end of input")
+            .endControlFlow()
+            .addStatement("return buffer[position++] & 0xFF")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readVarint")
+            .returns(long.class)
+            .addStatement("long value = 0")
+            .beginControlFlow("for (int shift = 0; shift < 64; shift += 7)")
+            .addStatement("int b = readByte()")
+            .addStatement("value |= (long) (b & 0x7F) << shift")
+            .beginControlFlow("if ((b & 0x80) == 0)")
+            .addStatement("return value")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("throw new $T($S)", IllegalArgumentException.class, "Malformed varint")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readSize")
+            .addJavadoc("@return the next length, size or reference, which must fit an int\n")
+            .returns(int.class)
+            .addStatement("long value = readVarint()")
+            .beginControlFlow("if (value < 0 || value > Integer.MAX_VALUE)")
+            .addStatement("throw new $T($S + Long.toUnsignedString(value))", IllegalArgumentException.class, "Invalid size: ")
+            .endControlFlow()
+            .addStatement("return (int) value")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readZigzag")
+            .returns(long.class)
+            .addStatement("long value = readVarint()")
+            .addStatement("return (value >>> 1) ^ -(value & 1)")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readFixed64")
+            .returns(long.class)
+            .addStatement("long value = 0")
+            .beginControlFlow("for (int i = 0; i < 8; i++)")
+            .addStatement("value = (value << 8) | readByte()")
+            .endControlFlow()
+            .addStatement("return value")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readString")
+            .addJavadoc("@return the next string, null at the end of an object\n")
+            .returns(String.class)
+            .addStatement("int reference = readSize()")
+            .beginControlFlow("if (reference == 0)")
+            .addStatement("return null")
+            .nextControlFlow("else if (reference == 1)")
+            .addStatement("int length = readSize()")
+            .beginControlFlow("if (length > buffer.length - position)")
+            .addStatement("throw new $T($S)", IllegalArgumentException.class, "Unexpected end of input")
+            .endControlFlow()
+            .addStatement("String value = new String(buffer, position, length, $T.UTF_8)", StandardCharsets.class)
+            .addStatement("position += length")
+            .addStatement("strings.add(value)")
+            .addStatement("return value")
+            .nextControlFlow("else if (reference - 2 < strings.size())")
+            .addStatement("return strings.get(reference - 2)")
+            .endControlFlow()
+            .addStatement("throw new $T($S + reference)", IllegalArgumentException.class, "Unknown string reference: ")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("enter")
+            .addJavadoc("Called before reading the content of an object or array.\n")
+            .beginControlFlow("if (++depth > MAX_DEPTH)")
+            .addStatement("throw new $T($S + MAX_DEPTH + $S + position)", IllegalArgumentException.class, "Nesting deeper than ", " levels at ")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("exit")
+            .addStatement("depth--")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("expect")
+            .addParameter(int.class, "type")
+            .addParameter(int.class, "expected")
+            .beginControlFlow("if (type != expected)")
+            .addStatement("throw unexpected(type)")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("unexpected")
+            .addParameter(int.class, "type")
+            .returns(IllegalArgumentException.class)
+            .addStatement("return new $T($S + type + $S + position)", IllegalArgumentException.class, "Unexpected value type ", " at ")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readLong")
+            .addParameter(int.class, "type")
+            .returns(Long.class)
+            .beginControlFlow("switch (type)")
+            .addCode("case NULL_VALUE:\n$>").addStatement("return null$<")
+            .addCode("case LONG_VALUE:\n$>").addStatement("return readZigzag()$<")
+            .addCode("case DOUBLE_VALUE:\n$>").addStatement("return (long) Double.longBitsToDouble(readFixed64())$<")
+            .addCode("default:\n$>").addStatement("throw unexpected(type)$<")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readDouble")
+            .addParameter(int.class, "type")
+            .returns(Double.class)
+            .beginControlFlow("switch (type)")
+            .addCode("case NULL_VALUE:\n$>").addStatement("return null$<")
+            .addCode("case LONG_VALUE:\n$>").addStatement("return (double) readZigzag()$<")
+            .addCode("case DOUBLE_VALUE:\n$>").addStatement("return Double.longBitsToDouble(readFixed64())$<")
+            .addCode("default:\n$>").addStatement("throw unexpected(type)$<")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readBoolean")
+            .addParameter(int.class, "type")
+            .returns(Boolean.class)
+            .beginControlFlow("switch (type)")
+            .addCode("case NULL_VALUE:\n$>").addStatement("return null$<")
+            .addCode("case TRUE_VALUE:\n$>").addStatement("return true$<")
+            .addCode("case FALSE_VALUE:\n$>").addStatement("return false$<")
+            .addCode("default:\n$>").addStatement("throw unexpected(type)$<")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readString")
+            .addParameter(int.class, "type")
+            .returns(String.class)
+            .beginControlFlow("if (type == NULL_VALUE)")
+            .addStatement("return null")
+            .endControlFlow()
+            .addStatement("expect(type, STRING_VALUE)")
+            .addStatement("return readString()")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readUri")
+            .addParameter(int.class, "type")
+            .returns(URI.class)
+            .addStatement("String value = readString(type)")
+            .addStatement("return value == null ? null : uris.computeIfAbsent(value, $T::create)", URI.class)
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readUuid")
+            .addParameter(int.class, "type")
+            .returns(UUID.class)
+            .beginControlFlow("switch (type)")
+            .addCode("case NULL_VALUE:\n$>").addStatement("return null$<")
+            .addCode("case UUID_VALUE:\n$>").addStatement("return new $T(readFixed64(), readFixed64())$<", UUID.class)
+            .addCode("case STRING_VALUE:\n$>").addStatement("return $T.fromString(readString())$<", UUID.class)
+            .addCode("default:\n$>").addStatement("throw unexpected(type)$<")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readTime")
+            .addParameter(int.class, "type")
+            .returns(ZonedDateTime.class)
+            .beginControlFlow("switch (type)")
+            .addCode("case NULL_VALUE:\n$>").addStatement("return null$<")
+            .addCode("case TIME_VALUE:\n$>")
+            .addStatement("long seconds = readZigzag()")
+            .addStatement("long nanos = readVarint()")
+            .addStatement("String zone = readString()")
+            .beginControlFlow("if (zone == null)")
+            .addStatement("throw new $T($S + position)", IllegalArgumentException.class, "Missing time zone at ")
+            .endControlFlow()
+            .beginControlFlow("try")
+            .addStatement("return $T.ofInstant($T.ofEpochSecond(seconds, nanos), $T.of(zone))", ZonedDateTime.class, Instant.class, ZoneId.class)
+            .nextControlFlow("catch ($T | $T e)", DateTimeException.class, ArithmeticException.class)
+            .addStatement("throw new $T($S + position, e)", IllegalArgumentException.class, "Invalid time at ")
+            .endControlFlow()
+            .addCode("$<")
+            .addCode("case STRING_VALUE:\n$>")
+            .addStatement("String text = readString()")
+            .beginControlFlow("if (text == null)")
+            .addStatement("throw new $T($S + position)", IllegalArgumentException.class, "Invalid time at ")
+            .endControlFlow()
+            .beginControlFlow("try")
+            .addStatement("return $T.parse(text)", ZonedDateTime.class)
+            .nextControlFlow("catch ($T e)", DateTimeException.class)
+            .addStatement("throw new $T($S + position, e)", IllegalArgumentException.class, "Invalid time at ")
+            .endControlFlow()
+            .addCode("$<")
+            .addCode("default:\n$>").addStatement("throw unexpected(type)$<")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readEnum")
+            .addTypeVariable(e)
+            .addParameter(int.class, "type")
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), e), "enumType")
+            .returns(e)
+            .addStatement("String value = readString(type)")
+            .addStatement("return value == null ? null : Enum.valueOf(enumType, value)")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readList")
+            .addTypeVariable(t)
+            .addParameter(int.class, "type")
+            .addParameter(ParameterizedTypeName.get(ClassName.get("", "ValueReader"), t), "reader")
+            .returns(ParameterizedTypeName.get(ClassName.get(List.class), t))
+            .beginControlFlow("if (type == NULL_VALUE)")
+            .addStatement("return null")
+            .endControlFlow()
+            .addStatement("expect(type, ARRAY_VALUE)")
+            .addStatement("enter()")
+            .addStatement("int size = readSize()")
+            .addStatement("$T<$T> values = new $T<>(Math.min(size, buffer.length - position))", List.class, t, ArrayList.class)
+            .beginControlFlow("for (int i = 0; i < size; i++)")
+            .addStatement("values.add(reader.read(readByte()))")
+            .endControlFlow()
+            .addStatement("exit()")
+            .addStatement("return values")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readAny")
+            .addJavadoc("@return the value as the mapper reads it from JSON into an Object\n")
+            .addParameter(int.class, "type")
+            .returns(Object.class)
+            .beginControlFlow("switch (type)")
+            .addCode("case NULL_VALUE:\n$>").addStatement("return null$<")
+            .addCode("case TRUE_VALUE:\n$>").addStatement("return true$<")
+            .addCode("case FALSE_VALUE:\n$>").addStatement("return false$<")
+            .addCode("case LONG_VALUE:\n$>")
+            .addStatement("long value = readZigzag()")
+            .addStatement("return value == (int) value ? Integer.valueOf((int) value) : Long.valueOf(value)$<")
+            .addCode("case DOUBLE_VALUE:\n$>").addStatement("return Double.longBitsToDouble(readFixed64())$<")
+            .addCode("case STRING_VALUE:\n$>").addStatement("return readString()$<")
+            .addCode("case UUID_VALUE:\n$>").addStatement("return readUuid(type).toString()$<")
+            .addCode("case TIME_VALUE:\n$>").addStatement("return $T.ISO_OFFSET_DATE_TIME.format(readTime(type))$<", DateTimeFormatter.class)
+            .addCode("case OBJECT_VALUE:\n$>")
+            .addStatement("$T map = new $T<>()", objectMap, LinkedHashMap.class)
+            .addStatement("enter()")
+            .beginControlFlow("for (String key = readString(); key != null; key = readString())")
+            .addStatement("map.put(key, readAny(readByte()))")
+            .endControlFlow()
+            .addStatement("exit()")
+            .addStatement("return map$<")
+            .addCode("case ARRAY_VALUE:\n$>")
+            .addStatement("return readList(type, this::readAny)$<")
+            .addCode("default:\n$>").addStatement("throw unexpected(type)$<")
+            .endControlFlow()
+            .build())
+        .build();
+  }
+}
@@ -16,6 +16,7 @@ import java.net.URL;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +25,7 @@ import java.util.UUID;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -165,9 +167,6 @@ public class JavaPoetGenerator {
         constructor.addCode("this.$N = $N;\n", f.getName(), f.getName());
       }
     }
-    if (type.hasAdditionalProperties()) {
-      constructor.addCode(CodeBlock.builder().addStatement("this.$N = new $T<>()", "additionalProperties", LinkedHashMap.class).build());
-    }
     return constructor.build();
   }
 
@@ -205,21 +204,7 @@ public class JavaPoetGenerator {
     }
 
     if (type.hasAdditionalProperties()) {
-      String fieldName = "additionalProperties";
-      TypeName additionalPropertiesValueType = type.getAdditionalPropertiesType() == null ? ClassName.get(Object.class) : getTypeName(type.getAdditionalPropertiesType());
-      TypeName additionalPropertiesType = ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class), additionalPropertiesValueType);
-      modelClassBuilder.addMethod(MethodSpec
-          .methodBuilder("get" + titleCase(fieldName))
-          .addJavadoc("@return additional properties")
-          .returns(additionalPropertiesType)
-          .addModifiers(PUBLIC)
-          .addCode("return $N;", fieldName)
-          .addAnnotation(AnnotationSpec.builder(JsonAnyGetter.class).build())
-          .build());
-      modelClassBuilder.addField(
-          FieldSpec.builder(additionalPropertiesType, fieldName, PRIVATE, FINAL)
-              .addAnnotation(JsonAnySetter.class)
-              .build());
+      addAdditionalProperties(type, modelClassBuilder);
     }
     modelClassBuilder.addAnnotation(jsonPropertyOrder.build());
     MethodSpec modelConstructor = modelConstructor(type);
@@ -262,13 +247,13 @@ public class JavaPoetGenerator {
     });
     if (type.hasAdditionalProperties()) {
       String fieldName = "additionalProperties";
-      TypeName additionalPropertiesValueType = type.getAdditionalPropertiesType() == null ? ClassName.get(Object.class) : getTypeName(type.getAdditionalPropertiesType());
-      TypeName additionalPropertiesType = ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class), additionalPropertiesValueType);
-
+      TypeName additionalPropertiesValueType = getAdditionalPropertiesValueType(type);
+      TypeName additionalPropertiesType = getAdditionalPropertiesType(additionalPropertiesValueType);
 
+      // stays the shared empty map until the first put
       builderClassBuilder.addField(
-          FieldSpec.builder(additionalPropertiesType, fieldName, PRIVATE, FINAL)
-              .initializer("new $T<>()", LinkedHashMap.class)
+          FieldSpec.builder(additionalPropertiesType, fieldName, PRIVATE)
+              .initializer("$T.emptyMap()", Collections.class)
               .build());
       builderClassBuilder.addMethod(MethodSpec
           .methodBuilder("put")
@@ -279,7 +264,10 @@ public class JavaPoetGenerator {
           .addJavadoc("@param key the additional property name\n")
           .addParameter(additionalPropertiesValueType, "value")
           .addJavadoc("@param value the additional property value\n")
-          .addCode("this.$N.put(key, value);", fieldName)
+          .beginControlFlow("if (this.$N.isEmpty())", fieldName)
+          .addStatement("this.$N = new $T<>()", fieldName, LinkedHashMap.class)
+          .endControlFlow()
+          .addCode("this.$N.put(key, value);\n", fieldName)
           .addCode("return this;", fieldName)
           .addJavadoc("@return this\n")
           .build());
@@ -309,7 +297,11 @@ public class JavaPoetGenerator {
         .addCode(");\n");
 
     if (type.hasAdditionalProperties()) {
-      build.addCode("__result.getAdditionalProperties().putAll(additionalProperties);\n");
+      // the result gets its own copy, so that neither the builder nor the result sees later changes
+      // of the other; without properties the result keeps the shared empty map
+      build.beginControlFlow("if (!additionalProperties.isEmpty())");
+      build.addStatement("__result.additionalProperties = new $T<>(additionalProperties)", LinkedHashMap.class);
+      build.endControlFlow();
     }
     build.addCode("return __result;\n");
     return build;
@@ -338,11 +330,11 @@ public class JavaPoetGenerator {
     return factory.build();
   }
 
-  private boolean isAProducerField(ResolvedField f) {
+  boolean isAProducerField(ResolvedField f) {
     return f.getName().equals("_producer") || f.getName().equals("producer");
   }
 
-  private boolean isASchemaUrlField(ResolvedField f) {
+  boolean isASchemaUrlField(ResolvedField f) {
     return !server && (f.getName().equals("_schemaURL") || f.getName().equals("schemaURL"));
   }
 
@@ -412,7 +404,7 @@ public class JavaPoetGenerator {
 
       // additionalFields
       if (type.hasAdditionalProperties()) {
-        addAdditionalProperties(type, classBuilder, constructor);
+        addAdditionalProperties(type, classBuilder);
       }
       classBuilder.addMethod(constructor.build());
       containerTypeBuilder.addType(classBuilder.build());
@@ -461,25 +453,47 @@ public class JavaPoetGenerator {
     return type.getAdditionalPropertiesType() == null ? ClassName.get(Object.class) : getTypeName(type.getAdditionalPropertiesType());
   }
 
-  private void addAdditionalProperties(
-      ObjectResolvedType type, TypeSpec.Builder classBuilder, MethodSpec.Builder constructor) {
+  /**
+   * Instances share the immutable empty map until a property is added or getAdditionalProperties()
+   * asks for the mutable map. The any getter does not allocate.
+   * As the field is neither final nor volatile, instances must be published safely (e.g. through a
+   * volatile field or a concurrent collection) before another thread reads their additional properties.
+   */
+  private void addAdditionalProperties(ObjectResolvedType type, TypeSpec.Builder classBuilder) {
     String fieldName = "additionalProperties";
     TypeName additionalPropertiesValueType = getAdditionalPropertiesValueType(type);
     TypeName additionalPropertiesType = getAdditionalPropertiesType(additionalPropertiesValueType);
+    classBuilder.addField(
+        FieldSpec.builder(additionalPropertiesType, fieldName, PRIVATE)
+        .initializer("$T.emptyMap()", Collections.class)
+        .build());
     classBuilder.addMethod(MethodSpec
         .methodBuilder("get" + titleCase(fieldName))
+        .addJavadoc("The map is allocated on first use, so instances shared between threads must be\n")
+        .addJavadoc("published safely, e.g. through a volatile field or a concurrent collection.\n")
         .addJavadoc("@return additional properties")
         .returns(additionalPropertiesType)
         .addModifiers(PUBLIC)
-        .addCode("return $N;", fieldName)
-        .addAnnotation(AnnotationSpec.builder(JsonAnyGetter.class).build())
+        .addAnnotation(JsonIgnore.class)
+        .beginControlFlow("if ($N == $T.<$T, $T>emptyMap())", fieldName, Collections.class, String.class, additionalPropertiesValueType)
+        .addStatement("$N = new $T<>()", fieldName, LinkedHashMap.class)
+        .endControlFlow()
+        .addCode("return $N;\n", fieldName)
         .build());
-    classBuilder.addField(
-        FieldSpec.builder(additionalPropertiesType, fieldName, PRIVATE, FINAL)
+    classBuilder.addMethod(MethodSpec
+        .methodBuilder(fieldName)
+        .returns(additionalPropertiesType)
+        .addAnnotation(JsonAnyGetter.class)
+        .addCode("return $N;\n", fieldName)
+        .build());
+    classBuilder.addMethod(MethodSpec
+        .methodBuilder("putAdditionalProperty")
+        .addModifiers(PRIVATE)
+        .addParameter(String.class, "key")
+        .addParameter(additionalPropertiesValueType, "value")
         .addAnnotation(JsonAnySetter.class)
+        .addStatement("get$N().put(key, value)", titleCase(fieldName))
         .build());
-
-    constructor.addCode(CodeBlock.builder().addStatement("this.$N = new $T<>()", fieldName, LinkedHashMap.class).build());
   }
 
   private void addConstructorParameter(MethodSpec.Builder constructor, ResolvedField f) {
@@ -549,4 +563,33 @@ public class JavaPoetGenerator {
       }
     });
   }
+
+  /**
+   * Same as {@link #getTypeName(ResolvedType)}, but with the model classes nested in the container class,
+   * so they can be referenced from outside of it.
+   */
+  public TypeName getQualifiedTypeName(ResolvedType type) {
+    return type.accept(new ResolvedTypeVisitor<TypeName>() {
+
+      @Override
+      public TypeName visit(PrimitiveResolvedType primitiveType) {
+        return getTypeName(primitiveType);
+      }
+
+      @Override
+      public TypeName visit(ObjectResolvedType objectType) {
+        return ClassName.get(containerPackage, containerClassName, objectType.getName());
+      }
+
+      @Override
+      public TypeName visit(ArrayResolvedType arrayType) {
+        return ParameterizedTypeName.get(ClassName.get(List.class), getQualifiedTypeName(arrayType.getItems()));
+      }
+
+      @Override
+      public TypeName visit(TypeResolver.EnumResolvedType enumType) {
+        return ClassName.get(containerPackage, containerClassName, enumType.getParentName(), enumType.getName());
+      }
+    });
+  }
 }
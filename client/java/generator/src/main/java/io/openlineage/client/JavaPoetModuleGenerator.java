@@ -0,0 +1,262 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.client;
+
+import static io.openlineage.client.TypeResolver.titleCase;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import io.openlineage.client.TypeResolver.ArrayResolvedType;
+import io.openlineage.client.TypeResolver.EnumResolvedType;
+import io.openlineage.client.TypeResolver.ObjectResolvedType;
+import io.openlineage.client.TypeResolver.PrimitiveResolvedType;
+import io.openlineage.client.TypeResolver.ResolvedField;
+import io.openlineage.client.TypeResolver.ResolvedType;
+import io.openlineage.client.TypeResolver.ResolvedTypeVisitor;
+
+/**
+ * Generates a Jackson {@link Module} with a serializer for each model class generated by {@link JavaPoetGenerator}.
+ * The serializers write the fields with the {@link JsonGenerator} directly instead of going through bean introspection,
+ * which is slow to set up on first use and dispatches each property reflectively.
+ *
+ * The serializers only apply to the generated classes themselves: subclasses, e.g. custom facets extending a default
+ * facet, keep the bean serializer so that their own properties are written.
+ * Like the mappers of the OpenLineage clients, which use {@code Include.NON_NULL}, they skip null fields.
+ */
+public class JavaPoetModuleGenerator {
+
+  private final TypeResolver typeResolver;
+  private final JavaPoetGenerator modelGenerator;
+  private final String containerPackage;
+  private final String containerClassName;
+  private final String moduleClassName;
+
+  public JavaPoetModuleGenerator(TypeResolver typeResolver, JavaPoetGenerator modelGenerator, String containerPackage, String containerClassName) {
+    this.typeResolver = typeResolver;
+    this.modelGenerator = modelGenerator;
+    this.containerPackage = containerPackage;
+    this.containerClassName = containerClassName;
+    this.moduleClassName = containerClassName + "Module";
+  }
+
+  public String getModuleClassName() {
+    return moduleClassName;
+  }
+
+  public void generate(PrintWriter printWriter) throws IOException {
+    TypeSpec.Builder moduleBuilder = TypeSpec.classBuilder(moduleClassName)
+        .addModifiers(PUBLIC, FINAL)
+        .superclass(Module.class)
+        .addJavadoc("Serializes the classes of {@link $T} without bean introspection.\n", ClassName.get(containerPackage, containerClassName))
+        .addJavadoc("Subclasses of those classes are serialized as beans.\n");
+
+    moduleBuilder.addMethod(MethodSpec.methodBuilder("getModuleName")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(String.class)
+        .addCode("return $S;\n", moduleClassName)
+        .build());
+    moduleBuilder.addMethod(MethodSpec.methodBuilder("version")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(Version.class)
+        .addCode("return $T.unknownVersion();\n", Version.class)
+        .build());
+    moduleBuilder.addMethod(MethodSpec.methodBuilder("setupModule")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(ClassName.get(Module.SetupContext.class), "context")
+        .addCode("context.addSerializers(new ModelSerializers());\n")
+        .build());
+
+    List<TypeSpec> serializers = new ArrayList<>();
+    Map<ClassName, String> serializerByModel = new LinkedHashMap<>();
+    for (ObjectResolvedType type : typeResolver.getTypes()) {
+      if (type.getName().length() == 0) {
+        continue;
+      }
+      if (typeResolver.getBaseTypes().contains(type.getName())) {
+        if (type.getName().endsWith("Facet") && !type.getName().equals("BaseFacet")) {
+          // default implementation of the facet interface
+          String className = "Default" + type.getName();
+          serializers.add(serializerClass(className, type));
+          serializerByModel.put(ClassName.get(containerPackage, containerClassName, className), className + "Serializer");
+        }
+      } else {
+        serializers.add(serializerClass(type.getName(), type));
+        serializerByModel.put(ClassName.get(containerPackage, containerClassName, type.getName()), type.getName() + "Serializer");
+      }
+    }
+
+    moduleBuilder.addType(modelSerializers(serializerByModel));
+    serializers.forEach(moduleBuilder::addType);
+
+    JavaFile.builder(containerPackage, moduleBuilder.build())
+        .build()
+        .writeTo(printWriter);
+  }
+
+  private TypeSpec modelSerializers(Map<ClassName, String> serializerByModel) {
+    TypeName serializerType = ParameterizedTypeName.get(ClassName.get(JsonSerializer.class), WildcardTypeName.subtypeOf(Object.class));
+    TypeName mapType = ParameterizedTypeName.get(
+        ClassName.get(Map.class),
+        ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)),
+        serializerType);
+
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder();
+    serializerByModel.forEach((model, serializer) ->
+        constructor.addCode("serializers.put($T.class, new $N());\n", model, serializer));
+
+    return TypeSpec.classBuilder("ModelSerializers")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .superclass(Serializers.Base.class)
+        .addField(FieldSpec.builder(mapType, "serializers", PRIVATE, FINAL)
+            .initializer("new $T<>()", HashMap.class)
+            .build())
+        .addMethod(constructor.build())
+        .addMethod(MethodSpec.methodBuilder("findSerializer")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .returns(serializerType)
+            .addParameter(SerializationConfig.class, "config")
+            .addParameter(JavaType.class, "type")
+            .addParameter(BeanDescription.class, "beanDesc")
+            .addCode("// exact match only: subclasses may add properties\n")
+            .addCode("return serializers.get(type.getRawClass());\n")
+            .build())
+        .build();
+  }
+
+  private TypeSpec serializerClass(String className, ObjectResolvedType type) {
+    ClassName modelClass = ClassName.get(containerPackage, containerClassName, className);
+    MethodSpec.Builder serialize = MethodSpec.methodBuilder("serialize")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(modelClass, "value")
+        .addParameter(JsonGenerator.class, "gen")
+        .addParameter(SerializerProvider.class, "provider")
+        .addException(IOException.class)
+        .addCode("gen.writeStartObject(value);\n");
+
+    for (ResolvedField f : type.getProperties()) {
+      String local = "__" + f.getName().replaceAll("[^A-Za-z0-9]", "");
+      serialize.addStatement("$T $N = value.get$N()", modelGenerator.getQualifiedTypeName(f.getType()), local, titleCase(f.getName()));
+      serialize.beginControlFlow("if ($N != null)", local);
+      serialize.addStatement("gen.writeFieldName($S)", f.getName());
+      serialize.addCode(writeValue(local, f.getType(), 0));
+      serialize.endControlFlow();
+    }
+
+    if (type.hasAdditionalProperties()) {
+      TypeName valueType = type.getAdditionalPropertiesType() == null ? ClassName.get(Object.class) : modelGenerator.getQualifiedTypeName(type.getAdditionalPropertiesType());
+      TypeName entryType = ParameterizedTypeName.get(ClassName.get(Map.Entry.class), ClassName.get(String.class), valueType);
+      serialize.beginControlFlow("for ($T __entry : value.additionalProperties().entrySet())", entryType);
+      serialize.beginControlFlow("if (__entry.getValue() != null)");
+      serialize.addStatement("provider.defaultSerializeField(__entry.getKey(), __entry.getValue(), gen)");
+      serialize.endControlFlow();
+      serialize.endControlFlow();
+    }
+    serialize.addCode("gen.writeEndObject();\n");
+
+    return TypeSpec.classBuilder(className + "Serializer")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .superclass(ParameterizedTypeName.get(ClassName.get(StdSerializer.class), modelClass))
+        .addField(FieldSpec.builder(long.class, "serialVersionUID", PRIVATE, STATIC, FINAL).initializer("1L").build())
+        .addMethod(MethodSpec.constructorBuilder()
+            .addCode("super($T.class);\n", modelClass)
+            .build())
+        .addMethod(serialize.build())
+        .build();
+  }
+
+  /**
+   * @param variable a local variable holding a non null value
+   * @param type the type of the value
+   * @param depth nesting level of arrays, to name the loop variables
+   * @return the code writing the value
+   */
+  private CodeBlock writeValue(String variable, ResolvedType type, int depth) {
+    return type.accept(new ResolvedTypeVisitor<CodeBlock>() {
+
+      @Override
+      public CodeBlock visit(PrimitiveResolvedType primitiveType) {
+        switch (primitiveType.getName()) {
+          case "integer":
+            return CodeBlock.of("gen.writeNumber($N.longValue());\n", variable);
+          case "number":
+            return CodeBlock.of("gen.writeNumber($N.doubleValue());\n", variable);
+          case "boolean":
+            return CodeBlock.of("gen.writeBoolean($N);\n", variable);
+          case "string":
+            String format = primitiveType.getFormat();
+            if (format == null) {
+              return CodeBlock.of("gen.writeString($N);\n", variable);
+            } else if (format.equals("uri") || format.equals("uuid")) {
+              return CodeBlock.of("gen.writeString($N.toString());\n", variable);
+            } else {
+              // dates are written by the mapper's date serializer, which depends on its configuration
+              return CodeBlock.of("provider.defaultSerializeValue($N, gen);\n", variable);
+            }
+          default:
+            throw new RuntimeException("Unknown primitive: " + primitiveType.getName());
+        }
+      }
+
+      @Override
+      public CodeBlock visit(ObjectResolvedType objectType) {
+        return CodeBlock.of("provider.defaultSerializeValue($N, gen);\n", variable);
+      }
+
+      @Override
+      public CodeBlock visit(ArrayResolvedType arrayType) {
+        String item = "__item" + depth;
+        return CodeBlock.builder()
+            .addStatement("gen.writeStartArray()")
+            .beginControlFlow("for ($T $N : $N)", modelGenerator.getQualifiedTypeName(arrayType.getItems()), item, variable)
+            .beginControlFlow("if ($N == null)", item)
+            .addStatement("gen.writeNull()")
+            .nextControlFlow("else")
+            .add(writeValue(item, arrayType.getItems(), depth + 1))
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("gen.writeEndArray()")
+            .build();
+      }
+
+      @Override
+      public CodeBlock visit(EnumResolvedType enumType) {
+        return CodeBlock.of("gen.writeString($N.name());\n", variable);
+      }
+    });
+  }
+}
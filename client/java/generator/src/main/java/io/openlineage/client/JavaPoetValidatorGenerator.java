@@ -0,0 +1,457 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.client;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PROTECTED;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import io.openlineage.client.TypeResolver.ArrayResolvedType;
+import io.openlineage.client.TypeResolver.EnumResolvedType;
+import io.openlineage.client.TypeResolver.ObjectResolvedType;
+import io.openlineage.client.TypeResolver.PrimitiveResolvedType;
+import io.openlineage.client.TypeResolver.ResolvedField;
+import io.openlineage.client.TypeResolver.ResolvedType;
+import io.openlineage.client.TypeResolver.ResolvedTypeVisitor;
+
+/**
+ * Generates a validator of run events from the schemas resolved by {@link TypeResolver}.
+ * There is one method per type of the schema, which checks the tokens of a streaming {@link JsonParser} in one pass,
+ * without building a tree or the model.
+ *
+ * It checks required properties, the JSON types of the values, enums and the formats the model parses: uri, uuid and date-time.
+ * The schemaURL and _schemaURL properties are not required: the model sets them itself and ignores them when reading.
+ * Like the model, it reads null values as absent and skips the properties it does not know.
+ * The values of facet containers are checked against the facet schemas.
+ */
+public class JavaPoetValidatorGenerator {
+
+  private static final String ROOT_TYPE = "RunEvent";
+
+  private final TypeResolver typeResolver;
+  private final JavaPoetGenerator modelGenerator;
+  private final String containerPackage;
+  private final String validatorClassName;
+
+  public JavaPoetValidatorGenerator(TypeResolver typeResolver, JavaPoetGenerator modelGenerator, String containerPackage, String containerClassName) {
+    this.typeResolver = typeResolver;
+    this.modelGenerator = modelGenerator;
+    this.containerPackage = containerPackage;
+    this.validatorClassName = containerClassName + "Validator";
+  }
+
+  public String getValidatorClassName() {
+    return validatorClassName;
+  }
+
+  public void generate(PrintWriter printWriter) throws IOException {
+    ClassName errors = ClassName.get("", "Errors");
+    TypeSpec.Builder validatorBuilder = TypeSpec.classBuilder(validatorClassName)
+        .addModifiers(PUBLIC, FINAL)
+        .addJavadoc("Validates run events against the OpenLineage schema while streaming through their JSON.\n")
+        .addJavadoc("Null values are read as absent and unknown properties are skipped, like the model does.\n");
+
+    validatorBuilder.addField(FieldSpec.builder(int.class, "MAX_ERRORS", PRIVATE, STATIC, FINAL).initializer("20").build());
+    validatorBuilder.addField(FieldSpec.builder(int.class, "MAX_VALID_URIS", PRIVATE, STATIC, FINAL).initializer("1024").build());
+    TypeName uriCacheType = ParameterizedTypeName.get(Map.class, String.class, Boolean.class);
+    TypeSpec lruMap = TypeSpec.anonymousClassBuilder("16, 0.75f, true")
+        .superclass(ParameterizedTypeName.get(LinkedHashMap.class, String.class, Boolean.class))
+        .addMethod(MethodSpec.methodBuilder("removeEldestEntry")
+            .addAnnotation(Override.class)
+            .addModifiers(PROTECTED)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Map.Entry.class), ClassName.get(String.class), ClassName.get(Boolean.class)), "eldest")
+            .returns(boolean.class)
+            .addStatement("return size() > MAX_VALID_URIS")
+            .build())
+        .build();
+    validatorBuilder.addField(FieldSpec.builder(uriCacheType, "validUris", PRIVATE, FINAL)
+        .addJavadoc("LRU of the valid URIs seen by this validator: producers and schema URLs repeat in every event,\n")
+        .addJavadoc("parsing them is most of the validation otherwise\n")
+        .initializer("$T.synchronizedMap($L)", Collections.class, lruMap)
+        .build());
+    validatorBuilder.addField(JsonFactory.class, "factory", PRIVATE, FINAL);
+    validatorBuilder.addMethod(MethodSpec.constructorBuilder()
+        .addModifiers(PUBLIC)
+        .addStatement("this(new $T())", JsonFactory.class)
+        .build());
+    validatorBuilder.addMethod(MethodSpec.constructorBuilder()
+        .addModifiers(PUBLIC)
+        .addJavadoc("@param factory creates the parsers of the events\n")
+        .addParameter(JsonFactory.class, "factory")
+        .addStatement("this.factory = factory")
+        .build());
+
+    validatorBuilder.addMethod(MethodSpec.methodBuilder("validate")
+        .addModifiers(PUBLIC)
+        .addJavadoc("@param event a run event as JSON\n")
+        .addJavadoc("@return the errors, with the JSON pointer of the invalid value, empty if the event is valid\n")
+        .addParameter(String.class, "event")
+        .returns(ParameterizedTypeName.get(List.class, String.class))
+        .beginControlFlow("try ($T parser = factory.createParser(event))", JsonParser.class)
+        .addStatement("return validate(parser)")
+        .nextControlFlow("catch ($T e)", IOException.class)
+        .addStatement("throw new $T(e)", UncheckedIOException.class)
+        .endControlFlow()
+        .build());
+    validatorBuilder.addMethod(MethodSpec.methodBuilder("validate")
+        .addModifiers(PUBLIC)
+        .addJavadoc("@param parser a parser positioned before a run event\n")
+        .addJavadoc("@return the errors, with the JSON pointer of the invalid value, empty if the event is valid\n")
+        .addJavadoc("@throws IOException if the parser can not read its input\n")
+        .addParameter(JsonParser.class, "parser")
+        .returns(ParameterizedTypeName.get(List.class, String.class))
+        .addException(IOException.class)
+        .addStatement("$T errors = new $T(parser, validUris)", errors, errors)
+        .beginControlFlow("try")
+        .beginControlFlow("if (check(parser, errors, parser.nextToken() == $T.START_OBJECT, $S))", JsonToken.class, "an object")
+        .addStatement("validate$N(parser, errors)", ROOT_TYPE)
+        .endControlFlow()
+        .beginControlFlow("if (parser.nextToken() != null)")
+        .addStatement("errors.add($S)", "unexpected content after the event")
+        .endControlFlow()
+        .nextControlFlow("catch ($T e)", JsonProcessingException.class)
+        .addStatement("errors.add($S + e.getOriginalMessage())", "malformed JSON: ")
+        .endControlFlow()
+        .addStatement("return errors.messages")
+        .build());
+
+    for (ObjectResolvedType type : typeResolver.getTypes()) {
+      if (type.getName().length() == 0) {
+        continue;
+      }
+      validatorBuilder.addMethod(objectValidator(type));
+    }
+
+    validatorBuilder.addMethod(MethodSpec.methodBuilder("check")
+        .addModifiers(PRIVATE, STATIC)
+        .addJavadoc("Skips the value if it does not have the expected JSON type.\n")
+        .addParameter(JsonParser.class, "p")
+        .addParameter(errors, "errors")
+        .addParameter(boolean.class, "valid")
+        .addParameter(String.class, "expected")
+        .returns(boolean.class)
+        .addException(IOException.class)
+        .beginControlFlow("if (!valid)")
+        .addStatement("errors.add($S + expected + $S + p.currentToken())", "expected ", ", got ")
+        .addStatement("p.skipChildren()")
+        .endControlFlow()
+        .addStatement("return valid")
+        .build());
+    validatorBuilder.addMethod(MethodSpec.methodBuilder("checkUri")
+        .addModifiers(PRIVATE, STATIC)
+        .addParameter(JsonParser.class, "p")
+        .addParameter(errors, "errors")
+        .addException(IOException.class)
+        .beginControlFlow("try")
+        .addStatement("String value = p.getText()")
+        .beginControlFlow("if (errors.validUris.get(value) == null)")
+        .addStatement("new $T(value)", URI.class)
+        .addStatement("errors.validUris.put(value, Boolean.TRUE)")
+        .endControlFlow()
+        .nextControlFlow("catch ($T e)", URISyntaxException.class)
+        .addStatement("errors.add($S + e.getMessage())", "invalid uri: ")
+        .endControlFlow()
+        .build());
+    validatorBuilder.addMethod(MethodSpec.methodBuilder("checkUuid")
+        .addModifiers(PRIVATE, STATIC)
+        .addParameter(JsonParser.class, "p")
+        .addParameter(errors, "errors")
+        .addException(IOException.class)
+        .addStatement("String value = p.getText()")
+        .addStatement("boolean valid = value.length() == 36")
+        .beginControlFlow("for (int i = 0; valid && i < 36; i++)")
+        .addStatement("char c = value.charAt(i)")
+        .beginControlFlow("if (i == 8 || i == 13 || i == 18 || i == 23)")
+        .addStatement("valid = c == '-'")
+        .nextControlFlow("else")
+        .addStatement("valid = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')")
+        .endControlFlow()
+        .endControlFlow()
+        .beginControlFlow("if (!valid)")
+        .addStatement("errors.add($S + value)", "invalid uuid: ")
+        .endControlFlow()
+        .build());
+    validatorBuilder.addMethod(MethodSpec.methodBuilder("checkDateTime")
+        .addModifiers(PRIVATE, STATIC)
+        .addParameter(JsonParser.class, "p")
+        .addParameter(errors, "errors")
+        .addException(IOException.class)
+        .addStatement("String value = p.getText()")
+        .beginControlFlow("if (isSimpleDateTime(value))")
+        .addStatement("return")
+        .endControlFlow()
+        .beginControlFlow("try")
+        .addStatement("$T.ISO_ZONED_DATE_TIME.parse(value)", DateTimeFormatter.class)
+        .nextControlFlow("catch ($T e)", DateTimeParseException.class)
+        .addStatement("errors.add($S + e.getMessage())", "invalid date-time: ")
+        .endControlFlow()
+        .build());
+    validatorBuilder.addMethod(MethodSpec.methodBuilder("isSimpleDateTime")
+        .addModifiers(PRIVATE, STATIC)
+        .addJavadoc("Accepts the usual yyyy-MM-ddTHH:mm:ss[.S](Z|+HH:MM) without a formatter.\n")
+        .addJavadoc("Anything else is left to {@link $T#ISO_ZONED_DATE_TIME}, which the model parses dates with.\n", DateTimeFormatter.class)
+        .addParameter(String.class, "value")
+        .returns(boolean.class)
+        .addStatement("int length = value.length()")
+        .beginControlFlow("if (length < 20 || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T' || value.charAt(13) != ':' || value.charAt(16) != ':')")
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("int year = digits(value, 0, 4)")
+        .addStatement("int month = digits(value, 5, 2)")
+        .addStatement("int day = digits(value, 8, 2)")
+        .beginControlFlow("if (year < 0 || month < 1 || month > 12 || day < 1 || day > $T.of(month).length($T.isLeap(year)))", Month.class, Year.class)
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("int hour = digits(value, 11, 2)")
+        .addStatement("int minute = digits(value, 14, 2)")
+        .addStatement("int second = digits(value, 17, 2)")
+        .beginControlFlow("if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)")
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("int i = 19")
+        .beginControlFlow("if (value.charAt(i) == '.')")
+        .addStatement("int start = ++i")
+        .beginControlFlow("while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9')")
+        .addStatement("i++")
+        .endControlFlow()
+        .beginControlFlow("if (i == start || i - start > 9)")
+        .addStatement("return false")
+        .endControlFlow()
+        .endControlFlow()
+        .beginControlFlow("if (i == length - 1)")
+        .addStatement("return value.charAt(i) == 'Z'")
+        .endControlFlow()
+        .beginControlFlow("if (i != length - 6 || (value.charAt(i) != '+' && value.charAt(i) != '-') || value.charAt(i + 3) != ':')")
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("int offsetHours = digits(value, i + 1, 2)")
+        .addStatement("int offsetMinutes = digits(value, i + 4, 2)")
+        .addStatement("return offsetHours >= 0 && offsetMinutes >= 0 && offsetMinutes < 60 && (offsetHours < 18 || (offsetHours == 18 && offsetMinutes == 0))")
+        .build());
+    validatorBuilder.addMethod(MethodSpec.methodBuilder("digits")
+        .addModifiers(PRIVATE, STATIC)
+        .addJavadoc("@return the decimal number of count digits at start in value, -1 if they are not all digits\n")
+        .addParameter(String.class, "value")
+        .addParameter(int.class, "start")
+        .addParameter(int.class, "count")
+        .returns(int.class)
+        .addStatement("int result = 0")
+        .beginControlFlow("for (int i = start; i < start + count; i++)")
+        .addStatement("char c = value.charAt(i)")
+        .beginControlFlow("if (c < '0' || c > '9')")
+        .addStatement("return -1")
+        .endControlFlow()
+        .addStatement("result = result * 10 + (c - '0')")
+        .endControlFlow()
+        .addStatement("return result")
+        .build());
+
+    validatorBuilder.addType(TypeSpec.classBuilder("Errors")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .addField(JsonParser.class, "parser", PRIVATE, FINAL)
+        .addField(uriCacheType, "validUris", PRIVATE, FINAL)
+        .addField(FieldSpec.builder(ParameterizedTypeName.get(List.class, String.class), "messages", PRIVATE)
+            .initializer("$T.emptyList()", Collections.class)
+            .build())
+        .addMethod(MethodSpec.constructorBuilder()
+            .addParameter(JsonParser.class, "parser")
+            .addParameter(uriCacheType, "validUris")
+            .addStatement("this.parser = parser")
+            .addStatement("this.validUris = validUris")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("add")
+            .addJavadoc("Adds an error about the current value of the parser.\n")
+            .addParameter(String.class, "message")
+            .beginControlFlow("if (messages.isEmpty())")
+            .addStatement("messages = new $T<>()", ArrayList.class)
+            .endControlFlow()
+            .beginControlFlow("if (messages.size() < MAX_ERRORS)")
+            .addStatement("String path = parser.getParsingContext().pathAsPointer().toString()")
+            .addStatement("messages.add((path.isEmpty() ? \"/\" : path) + $S + message)", ": ")
+            .endControlFlow()
+            .build())
+        .build());
+
+    JavaFile.builder(containerPackage, validatorBuilder.build())
+        .build()
+        .writeTo(printWriter);
+  }
+
+  private MethodSpec objectValidator(ObjectResolvedType type) {
+    MethodSpec.Builder validate = MethodSpec.methodBuilder("validate" + type.getName())
+        .addModifiers(PRIVATE, STATIC)
+        .addJavadoc("Validates the properties of a $N, the parser being on the start of the object.\n", type.getName())
+        .addParameter(JsonParser.class, "p")
+        .addParameter(ClassName.get("", "Errors"), "errors")
+        .addException(IOException.class);
+    for (ResolvedField f : type.getProperties()) {
+      if (isRequired(f)) {
+        validate.addStatement("boolean $N = false", present(f));
+      }
+    }
+    validate.beginControlFlow("for ($T __field = p.nextToken(); __field == $T.FIELD_NAME; __field = p.nextToken())", JsonToken.class, JsonToken.class);
+    validate.addStatement("String __key = p.getCurrentName()");
+    validate.addStatement("$T __token = p.nextToken()", JsonToken.class);
+    validate.beginControlFlow("if (__token == $T.VALUE_NULL)", JsonToken.class);
+    validate.addStatement("continue");
+    validate.endControlFlow();
+    validate.beginControlFlow("switch (__key)");
+    for (ResolvedField f : type.getProperties()) {
+      validate.addCode("case $S:\n$>", f.getName());
+      if (isRequired(f)) {
+        validate.addStatement("$N = true", present(f));
+      }
+      validate.addCode(validateValue("__token", f.getType(), 0));
+      validate.addStatement("break");
+      validate.addCode("$<");
+    }
+    validate.addCode("default:\n$>");
+    if (type.hasAdditionalProperties() && type.getAdditionalPropertiesType() != null) {
+      validate.addCode(validateValue("__token", type.getAdditionalPropertiesType(), 0));
+    } else {
+      validate.addStatement("p.skipChildren()");
+    }
+    validate.addCode("$<");
+    validate.endControlFlow();
+    validate.endControlFlow();
+    for (ResolvedField f : type.getProperties()) {
+      if (isRequired(f)) {
+        validate.beginControlFlow("if (!$N)", present(f));
+        validate.addStatement("errors.add($S)", "missing required property " + f.getName());
+        validate.endControlFlow();
+      }
+    }
+    return validate.build();
+  }
+
+  private boolean isRequired(ResolvedField f) {
+    return f.isRequired() && !modelGenerator.isASchemaUrlField(f);
+  }
+
+  private String present(ResolvedField f) {
+    return "__has" + TypeResolver.titleCase(f.getName().replaceAll("[^A-Za-z0-9]", ""));
+  }
+
+  /**
+   * @param token a local variable holding the token of the value, which is not null
+   * @param type the type of the value
+   * @param depth nesting level of arrays, to name the loop variables
+   * @return the code validating the value and leaving the parser on its last token
+   */
+  private CodeBlock validateValue(String token, ResolvedType type, int depth) {
+    return type.accept(new ResolvedTypeVisitor<CodeBlock>() {
+
+      @Override
+      public CodeBlock visit(PrimitiveResolvedType primitiveType) {
+        switch (primitiveType.getName()) {
+          case "integer":
+            return CodeBlock.of("check(p, errors, $N == $T.VALUE_NUMBER_INT, $S);\n", token, JsonToken.class, "an integer");
+          case "number":
+            return CodeBlock.of("check(p, errors, $N == $T.VALUE_NUMBER_INT || $N == $T.VALUE_NUMBER_FLOAT, $S);\n",
+                token, JsonToken.class, token, JsonToken.class, "a number");
+          case "boolean":
+            return CodeBlock.of("check(p, errors, $N == $T.VALUE_TRUE || $N == $T.VALUE_FALSE, $S);\n",
+                token, JsonToken.class, token, JsonToken.class, "a boolean");
+          case "string":
+            String format = primitiveType.getFormat();
+            CodeBlock check = CodeBlock.of("check(p, errors, $N == $T.VALUE_STRING, $S)", token, JsonToken.class, "a string");
+            if (format == null) {
+              return CodeBlock.of("$L;\n", check);
+            }
+            String formatCheck;
+            if (format.equals("uri")) {
+              formatCheck = "checkUri";
+            } else if (format.equals("uuid")) {
+              formatCheck = "checkUuid";
+            } else if (format.equals("date-time")) {
+              formatCheck = "checkDateTime";
+            } else {
+              throw new RuntimeException("Unknown format: " + format);
+            }
+            return CodeBlock.builder()
+                .beginControlFlow("if ($L)", check)
+                .addStatement("$N(p, errors)", formatCheck)
+                .endControlFlow()
+                .build();
+          default:
+            throw new RuntimeException("Unknown primitive: " + primitiveType.getName());
+        }
+      }
+
+      @Override
+      public CodeBlock visit(ObjectResolvedType objectType) {
+        return CodeBlock.builder()
+            .beginControlFlow("if (check(p, errors, $N == $T.START_OBJECT, $S))", token, JsonToken.class, "an object")
+            .addStatement("validate$N(p, errors)", objectType.getName())
+            .endControlFlow()
+            .build();
+      }
+
+      @Override
+      public CodeBlock visit(ArrayResolvedType arrayType) {
+        String item = "__item" + depth;
+        return CodeBlock.builder()
+            .beginControlFlow("if (check(p, errors, $N == $T.START_ARRAY, $S))", token, JsonToken.class, "an array")
+            .beginControlFlow("for ($T $N = p.nextToken(); $N != $T.END_ARRAY; $N = p.nextToken())",
+                JsonToken.class, item, item, JsonToken.class, item)
+            .beginControlFlow("if ($N != $T.VALUE_NULL)", item, JsonToken.class)
+            .add(validateValue(item, arrayType.getItems(), depth + 1))
+            .endControlFlow()
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+      }
+
+      @Override
+      public CodeBlock visit(EnumResolvedType enumType) {
+        CodeBlock.Builder code = CodeBlock.builder()
+            .beginControlFlow("if (check(p, errors, $N == $T.VALUE_STRING, $S))", token, JsonToken.class, "a string")
+            .beginControlFlow("switch (p.getText())");
+        for (String value : enumType.getValues()) {
+          code.add("case $S:\n", value);
+        }
+        return code
+            .indent()
+            .addStatement("break")
+            .unindent()
+            .add("default:\n")
+            .indent()
+            .addStatement("errors.add($S)", "expected one of " + enumType.getValues())
+            .unindent()
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+      }
+    });
+  }
+}
@@ -3,9 +3,11 @@
 package io.openlineage.client;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -38,13 +40,17 @@ public class SchemaParser {
           List<Field> fields = new ArrayList<Field>();
           boolean hasAdditionalProperties = false;
           Type additionalPropertiesType = null;
+          Set<String> required = new HashSet<>();
+          if (typeJson.has("required")) {
+            typeJson.get("required").forEach(name -> required.add(name.asText()));
+          }
           if (typeJson.has("properties")) {
             JsonNode properties = typeJson.get("properties");
             for (Iterator<Entry<String, JsonNode>> fieldsJson = properties.fields(); fieldsJson.hasNext(); ) {
               Entry<String, JsonNode> field = fieldsJson.next();
               Type fieldType = parse(field.getValue());
               String description = field.getValue().has("description") ? field.getValue().get("description").asText() : null;
-              fields.add(new Field(field.getKey(), fieldType, description));
+              fields.add(new Field(field.getKey(), fieldType, description, required.contains(field.getKey())));
             }
           }
           if (typeJson.has("additionalProperties")) {
@@ -234,12 +240,14 @@ public class SchemaParser {
     private String name;
     private Type type;
     private String description;
+    private boolean required;
 
-    public Field(String name, Type type, String description) {
+    public Field(String name, Type type, String description, boolean required) {
       super();
       this.name = name;
       this.type = type;
       this.description = description;
+      this.required = required;
     }
 
     public String getName() {
@@ -254,6 +262,10 @@ public class SchemaParser {
       return description;
     }
 
+    public boolean isRequired() {
+      return required;
+    }
+
     @Override
     public String toString() {
       return "Field{name: " + name + ", type: " + type + "}";
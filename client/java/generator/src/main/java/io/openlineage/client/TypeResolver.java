@@ -326,6 +326,10 @@ public class TypeResolver {
       return field.getDescription();
     }
 
+    public boolean isRequired() {
+      return field.isRequired();
+    }
+
     public ResolvedType getType() {
       return type;
     }
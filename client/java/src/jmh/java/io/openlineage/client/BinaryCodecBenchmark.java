@@ -0,0 +1,68 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.client;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the generated {@link OpenLineageBinaryCodec} with JSON, using the serializers of the generated
+ * {@link OpenLineageModule}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryCodecBenchmark {
+
+  private OpenLineage.RunEvent event;
+  private ObjectMapper mapper;
+  private OpenLineageBinaryCodec codec;
+  private byte[] json;
+  private byte[] binary;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    mapper = SerializationBenchmark.mapper().registerModule(new OpenLineageModule());
+    codec = new OpenLineageBinaryCodec();
+    event = SerializationBenchmark.event(50);
+    json = mapper.writeValueAsBytes(event);
+    binary = codec.encode(event);
+  }
+
+  @Benchmark
+  public byte[] encodeJson() throws JsonProcessingException {
+    return mapper.writeValueAsBytes(event);
+  }
+
+  @Benchmark
+  public byte[] encodeBinary() {
+    return codec.encode(event);
+  }
+
+  @Benchmark
+  public OpenLineage.RunEvent decodeJson() throws IOException {
+    return mapper.readValue(json, OpenLineage.RunEvent.class);
+  }
+
+  @Benchmark
+  public OpenLineage.RunEvent decodeBinary() {
+    return codec.decode(binary);
+  }
+}
@@ -0,0 +1,121 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.client;
+
+import java.net.URI;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Compares bean serialization of a run event with the serializers of the generated {@link OpenLineageModule}.
+ * The {@code warm} benchmarks reuse a mapper, the {@code cold} ones create a mapper per event, which is what the first
+ * event of a short lived job pays for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+  private OpenLineage.RunEvent event;
+  private ObjectMapper beanMapper;
+  private ObjectMapper moduleMapper;
+
+  @Setup
+  public void setUp() {
+    beanMapper = mapper();
+    moduleMapper = mapper().registerModule(new OpenLineageModule());
+    event = event(50);
+  }
+
+  static ObjectMapper mapper() {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.registerModule(new JavaTimeModule());
+    mapper.setSerializationInclusion(Include.NON_NULL);
+    mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    return mapper;
+  }
+
+  static OpenLineage.RunEvent event(int columns) {
+    OpenLineage ol = new OpenLineage(URI.create("https://github.com/OpenLineage/OpenLineage"));
+    ZonedDateTime now = ZonedDateTime.now(ZoneId.of("UTC"));
+    List<OpenLineage.SchemaDatasetFacetFields> fields = new ArrayList<>();
+    for (int i = 0; i < columns; i++) {
+      fields.add(ol.newSchemaDatasetFacetFields("column_" + i, "string", null));
+    }
+    OpenLineage.DatasetFacets datasetFacets = ol.newDatasetFacetsBuilder()
+        .schema(ol.newSchemaDatasetFacet(fields))
+        .dataSource(ol.newDatasourceDatasetFacet("postgres", URI.create("postgres://localhost:5432")))
+        .build();
+    return ol.newRunEventBuilder()
+        .eventType(OpenLineage.RunEvent.EventType.COMPLETE)
+        .eventTime(now)
+        .run(ol.newRunBuilder()
+            .runId(UUID.randomUUID())
+            .facets(ol.newRunFacetsBuilder()
+                .nominalTime(ol.newNominalTimeRunFacet(now, now))
+                .parent(ol.newParentRunFacet(
+                    ol.newParentRunFacetRun(UUID.randomUUID()),
+                    ol.newParentRunFacetJob("namespace", "parent")))
+                .build())
+            .build())
+        .job(ol.newJobBuilder()
+            .namespace("namespace")
+            .name("job")
+            .facets(ol.newJobFacetsBuilder().sql(ol.newSQLJobFacet("INSERT INTO output SELECT * FROM input")).build())
+            .build())
+        .inputs(Collections.singletonList(
+            ol.newInputDatasetBuilder().namespace("postgres://localhost:5432").name("input").facets(datasetFacets).build()))
+        .outputs(Collections.singletonList(
+            ol.newOutputDatasetBuilder().namespace("postgres://localhost:5432").name("output").facets(datasetFacets)
+                .outputFacets(ol.newOutputDatasetOutputFacetsBuilder()
+                    .outputStatistics(ol.newOutputStatisticsOutputDatasetFacet(100L, 1000L))
+                    .build())
+                .build()))
+        .build();
+  }
+
+  @Benchmark
+  public String warmBean() throws JsonProcessingException {
+    return beanMapper.writeValueAsString(event);
+  }
+
+  @Benchmark
+  public String warmModule() throws JsonProcessingException {
+    return moduleMapper.writeValueAsString(event);
+  }
+
+  @Benchmark
+  public String coldBean() throws JsonProcessingException {
+    return mapper().writeValueAsString(event);
+  }
+
+  @Benchmark
+  public String coldModule() throws JsonProcessingException {
+    return mapper().registerModule(new OpenLineageModule()).writeValueAsString(event);
+  }
+}
@@ -0,0 +1,60 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.client;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the generated {@link OpenLineageValidator} with reading the event as a tree or as the model, which is what
+ * checking an event took before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+  private ObjectMapper mapper;
+  private OpenLineageValidator validator;
+  private String json;
+
+  @Setup
+  public void setUp() throws IOException {
+    mapper = SerializationBenchmark.mapper();
+    validator = new OpenLineageValidator();
+    json = mapper.writeValueAsString(SerializationBenchmark.event(50));
+  }
+
+  @Benchmark
+  public List<String> validate() {
+    return validator.validate(json);
+  }
+
+  @Benchmark
+  public JsonNode readTree() throws IOException {
+    return mapper.readTree(json);
+  }
+
+  @Benchmark
+  public OpenLineage.RunEvent readModel() throws IOException {
+    return mapper.readValue(json, OpenLineage.RunEvent.class);
+  }
+}
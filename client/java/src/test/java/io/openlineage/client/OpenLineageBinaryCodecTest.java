@@ -0,0 +1,145 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.openlineage.client.OpenLineage.RunEvent;
+
+public class OpenLineageBinaryCodecTest {
+
+  ObjectMapper mapper = new ObjectMapper();
+  {
+    mapper.registerModule(new JavaTimeModule());
+    mapper.setSerializationInclusion(Include.NON_NULL);
+    mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+  }
+
+  OpenLineageBinaryCodec codec = new OpenLineageBinaryCodec();
+
+  RunEvent read(String name) throws IOException {
+    try (InputStream in = getClass().getResourceAsStream("/events/" + name)) {
+      return mapper.readValue(in, RunEvent.class);
+    }
+  }
+
+  JsonNode tree(RunEvent event) throws IOException {
+    return mapper.readTree(mapper.writeValueAsString(event));
+  }
+
+  @Test
+  public void roundTripsSpecExamples() throws IOException {
+    for (String name : Arrays.asList("minimal.json", "facets.json", "custom-facets.json")) {
+      RunEvent event = read(name);
+
+      RunEvent decoded = codec.decode(codec.encode(event));
+
+      assertEquals(name, tree(event), tree(decoded));
+      assertEquals(name, event.getEventTime(), decoded.getEventTime());
+    }
+  }
+
+  @Test
+  public void roundTripsCustomFacetClasses() throws IOException {
+    RunEvent event = OpenLineageModuleTest.event();
+
+    RunEvent decoded = codec.decode(codec.encode(event));
+
+    assertEquals(tree(event), tree(decoded));
+    assertEquals("value", decoded.getRun().getFacets().getAdditionalProperties().get("custom").getAdditionalProperties().get("custom"));
+  }
+
+  @Test
+  public void isSmallerThanJson() throws IOException {
+    RunEvent event = read("facets.json");
+
+    int json = mapper.writeValueAsBytes(event).length;
+    int binary = codec.encode(event).length;
+
+    assertTrue(binary + " bytes, JSON " + json, binary * 2 < json);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsTruncatedInput() throws IOException {
+    byte[] bytes = codec.encode(read("facets.json"));
+
+    codec.decode(Arrays.copyOf(bytes, bytes.length / 2));
+  }
+
+  @Test
+  public void rejectsNegativeLengthsAndReferences() throws IOException {
+    byte[] bytes = codec.encode(read("minimal.json"));
+    byte[] negative = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+    byte[] tooLarge = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08};
+    byte[] header = Arrays.copyOf(bytes, 2);
+
+    for (byte[] malformed : Arrays.asList(
+        concat(header, negative),
+        concat(header, new byte[] {1}, negative),
+        concat(header, tooLarge),
+        concat(header, new byte[] {1}, tooLarge))) {
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> codec.decode(malformed));
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid size: "));
+    }
+  }
+
+  @Test
+  public void rejectsInvalidTimes() throws IOException {
+    byte[] header = Arrays.copyOf(codec.encode(read("minimal.json")), 2);
+    byte[] eventTime = concat(new byte[] {1, 9}, "eventTime".getBytes(StandardCharsets.UTF_8));
+    byte[] minSeconds = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+
+    for (byte[] malformed : Arrays.asList(
+        concat(header, eventTime, new byte[] {8, 0, 0, 0}),
+        concat(header, eventTime, new byte[] {8, 0, 0, 1, 7}, "Nowhere".getBytes(StandardCharsets.UTF_8)),
+        concat(header, eventTime, new byte[] {8}, minSeconds, new byte[] {0, 1, 3}, "UTC".getBytes(StandardCharsets.UTF_8)),
+        concat(header, eventTime, new byte[] {6, 1, 3}, "now".getBytes(StandardCharsets.UTF_8)))) {
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> codec.decode(malformed));
+      assertTrue(e.getMessage(), e.getMessage().matches("(Invalid time|Missing time zone) at \\d+"));
+    }
+  }
+
+  @Test
+  public void rejectsDeeplyNestedValues() throws IOException {
+    byte[] header = Arrays.copyOf(codec.encode(read("minimal.json")), 2);
+    ByteArrayOutputStream arrays = new ByteArrayOutputStream();
+    ByteArrayOutputStream objects = new ByteArrayOutputStream();
+    for (int i = 0; i < 10_000; i++) {
+      // an array of one element and an object with a field "a", referenced after its first use
+      arrays.write(new byte[] {10, 1}, 0, 2);
+      objects.write(new byte[] {9, 2}, 0, 2);
+    }
+    byte[] key = concat(new byte[] {1, 1}, "a".getBytes(StandardCharsets.UTF_8));
+
+    for (byte[] malformed : Arrays.asList(
+        concat(header, key, arrays.toByteArray(), new byte[] {2}),
+        concat(header, key, objects.toByteArray(), new byte[] {2}))) {
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> codec.decode(malformed));
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Nesting deeper than 256 levels"));
+    }
+  }
+
+  static byte[] concat(byte[]... parts) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      out.write(part, 0, part.length);
+    }
+    return out.toByteArray();
+  }
+}
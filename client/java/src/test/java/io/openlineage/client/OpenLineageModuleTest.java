@@ -0,0 +1,122 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.net.URI;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.openlineage.client.OpenLineage.RunEvent;
+
+public class OpenLineageModuleTest {
+
+  ObjectMapper beanMapper = mapper();
+  ObjectMapper moduleMapper = mapper()
+      .registerModule(new OpenLineageModule())
+      .registerModule(new io.openlineage.server.OpenLineageModule());
+
+  static ObjectMapper mapper() {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.registerModule(new JavaTimeModule());
+    mapper.setSerializationInclusion(Include.NON_NULL);
+    mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    return mapper;
+  }
+
+  public static class CustomRunFacet extends OpenLineage.DefaultRunFacet {
+    @JsonProperty("custom")
+    private final String custom = "value";
+
+    public CustomRunFacet(URI producer) {
+      super(producer);
+    }
+
+    public String getCustom() {
+      return custom;
+    }
+  }
+
+  static RunEvent event() {
+    ZonedDateTime now = ZonedDateTime.now(ZoneId.of("UTC"));
+    URI producer = URI.create("producer");
+    OpenLineage ol = new OpenLineage(producer);
+    OpenLineage.RunFacets runFacets = ol.newRunFacetsBuilder()
+        .nominalTime(ol.newNominalTimeRunFacet(now, null))
+        .put("custom", new CustomRunFacet(producer))
+        .put("other", ol.newRunFacet())
+        .build();
+    OpenLineage.Run run = ol.newRunBuilder().runId(UUID.randomUUID()).facets(runFacets).build();
+    OpenLineage.Job job = ol.newJobBuilder().namespace("namespace").name("jobName")
+        .facets(ol.newJobFacetsBuilder()
+            .sql(ol.newSQLJobFacet("SELECT 1"))
+            .build())
+        .build();
+    OpenLineage.InputDataset input = ol.newInputDatasetBuilder().namespace("ins").name("input")
+        .facets(ol.newDatasetFacetsBuilder()
+            .schema(ol.newSchemaDatasetFacet(Arrays.asList(
+                ol.newSchemaDatasetFacetFields("a", "int", null),
+                ol.newSchemaDatasetFacetFields("b", "string", "column b"))))
+            .build())
+        .inputFacets(ol.newInputDatasetInputFacetsBuilder()
+            .dataQualityMetrics(ol.newDataQualityMetricsInputDatasetFacetBuilder()
+                .rowCount(10L)
+                .columnMetrics(ol.newDataQualityMetricsInputDatasetFacetColumnMetricsBuilder()
+                    .put("a", ol.newDataQualityMetricsInputDatasetFacetColumnMetricsAdditionalBuilder()
+                        .count(10D).nullCount(1L)
+                        .quantiles(ol.newDataQualityMetricsInputDatasetFacetColumnMetricsAdditionalQuantilesBuilder()
+                            .put("25", 52D).build())
+                        .build())
+                    .build())
+                .build())
+            .build())
+        .build();
+    OpenLineage.OutputDataset output = ol.newOutputDatasetBuilder().namespace("ons").name("output")
+        .outputFacets(ol.newOutputDatasetOutputFacetsBuilder()
+            .outputStatistics(ol.newOutputStatisticsOutputDatasetFacet(10L, 20L)).build())
+        .build();
+    return ol.newRunEventBuilder()
+        .eventType(RunEvent.EventType.COMPLETE)
+        .eventTime(now)
+        .run(run)
+        .job(job)
+        .inputs(Arrays.asList(input))
+        .outputs(Collections.singletonList(output))
+        .build();
+  }
+
+  @Test
+  public void writesTheSameJsonAsBeanSerialization() throws JsonProcessingException {
+    RunEvent event = event();
+
+    JsonNode expected = beanMapper.readTree(beanMapper.writeValueAsString(event));
+    String json = moduleMapper.writeValueAsString(event);
+
+    assertEquals(expected, beanMapper.readTree(json));
+    assertEquals("value", beanMapper.readTree(json).at("/run/facets/custom/custom").asText());
+    assertFalse(beanMapper.readTree(json).at("/run/facets/nominalTime").has("nominalEndTime"));
+  }
+
+  @Test
+  public void writesServerModel() throws JsonProcessingException {
+    String json = beanMapper.writeValueAsString(event());
+    io.openlineage.server.OpenLineage.RunEvent read = beanMapper.readValue(json, io.openlineage.server.OpenLineage.RunEvent.class);
+
+    assertEquals(beanMapper.readTree(json), beanMapper.readTree(moduleMapper.writeValueAsString(read)));
+  }
+}
@@ -3,11 +3,14 @@
 package io.openlineage.client;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.net.URI;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -199,4 +202,28 @@ public class OpenLineageTest {
     }
 
   }
+
+  @Test
+  public void additionalProperties() throws JsonProcessingException {
+    OpenLineage ol = new OpenLineage(URI.create("producer"));
+    OpenLineage.RunFacetsBuilder builder = ol.newRunFacetsBuilder().put("first", ol.newRunFacet());
+    RunFacets first = builder.build();
+    RunFacets again = builder.build();
+    RunFacets second = builder.put("second", ol.newRunFacet()).build();
+    again.getAdditionalProperties().put("added", ol.newRunFacet());
+    first.getAdditionalProperties().put("fromFirst", ol.newRunFacet());
+
+    assertEquals(new HashSet<>(Arrays.asList("first", "fromFirst")), first.getAdditionalProperties().keySet());
+    assertEquals(new HashSet<>(Arrays.asList("first", "added")), again.getAdditionalProperties().keySet());
+    assertEquals(new HashSet<>(Arrays.asList("first", "second")), second.getAdditionalProperties().keySet());
+    assertEquals(second.getAdditionalProperties().keySet(), builder.build().getAdditionalProperties().keySet());
+    assertEquals("{}", mapper.writeValueAsString(ol.newRunFacetsBuilder().build()).replaceAll("\\s", ""));
+
+    RunFacets empty = ol.newRunFacetsBuilder().build();
+    empty.getAdditionalProperties().put("added", ol.newRunFacet());
+    assertSame(empty.getAdditionalProperties(), empty.getAdditionalProperties());
+
+    RunFacets read = mapper.readValue(mapper.writeValueAsString(empty), RunFacets.class);
+    assertEquals(Collections.singleton("added"), read.getAdditionalProperties().keySet());
+  }
 }
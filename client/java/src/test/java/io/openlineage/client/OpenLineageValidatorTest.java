@@ -0,0 +1,110 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class OpenLineageValidatorTest {
+
+  ObjectMapper mapper = OpenLineageModuleTest.mapper();
+  OpenLineageValidator validator = new OpenLineageValidator();
+
+  String resource(String name) throws IOException {
+    try (InputStream in = getClass().getResourceAsStream("/events/" + name);
+         Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+      return scanner.useDelimiter("\\A").next();
+    }
+  }
+
+  ObjectNode valid() throws IOException {
+    return (ObjectNode) mapper.valueToTree(OpenLineageModuleTest.event());
+  }
+
+  List<String> validate(ObjectNode event) throws IOException {
+    return validator.validate(mapper.writeValueAsString(event));
+  }
+
+  @Test
+  public void acceptsEventsOfTheModel() throws IOException {
+    assertEquals(Collections.emptyList(), validator.validate(mapper.writeValueAsString(OpenLineageModuleTest.event())));
+  }
+
+  @Test
+  public void acceptsSpecExamples() throws IOException {
+    for (String name : Arrays.asList("minimal.json", "facets.json", "custom-facets.json")) {
+      assertEquals(name, Collections.emptyList(), validator.validate(resource(name)));
+    }
+  }
+
+  @Test
+  public void reportsMissingRequiredProperties() throws IOException {
+    ObjectNode event = valid();
+    ((ObjectNode) event.get("run")).remove("runId");
+    ((ObjectNode) event.get("job")).putNull("name");
+
+    assertEquals(Arrays.asList("/run: missing required property runId", "/job: missing required property name"), validate(event));
+  }
+
+  @Test
+  public void reportsInvalidValues() throws IOException {
+    ObjectNode event = valid();
+    event.put("eventType", "DONE");
+    event.put("eventTime", "yesterday");
+    ((ObjectNode) event.get("run")).put("runId", "not-a-uuid");
+    ((ObjectNode) event.get("job")).put("namespace", 1);
+    ((ObjectNode) event.get("inputs").get(0).get("inputFacets").get("dataQualityMetrics")).put("rowCount", "10");
+
+    List<String> errors = validate(event);
+
+    assertEquals(errors.toString(), 5, errors.size());
+    assertEquals("/eventType: expected one of [START, COMPLETE, ABORT, FAIL, OTHER]", errors.get(0));
+    assertTrue(errors.get(1), errors.get(1).startsWith("/eventTime: invalid date-time: "));
+    assertEquals("/run/runId: invalid uuid: not-a-uuid", errors.get(2));
+    assertEquals("/job/namespace: expected a string, got VALUE_NUMBER_INT", errors.get(3));
+    assertEquals("/inputs/0/inputFacets/dataQualityMetrics/rowCount: expected an integer, got VALUE_STRING", errors.get(4));
+  }
+
+  @Test
+  public void validatesCustomFacetsAsFacets() throws IOException {
+    ObjectNode event = valid();
+    ((ObjectNode) event.get("run").get("facets").get("custom")).remove("_producer");
+    ((ObjectNode) event.get("run").get("facets")).put("other", "facet");
+
+    assertEquals(Arrays.asList(
+        "/run/facets/custom: missing required property _producer",
+        "/run/facets/other: expected an object, got VALUE_STRING"), validate(event));
+  }
+
+  @Test
+  public void skipsUnknownProperties() throws IOException {
+    ObjectNode event = valid();
+    event.putObject("unknown").putArray("values").add(1).addObject().put("runId", "not-a-uuid");
+
+    assertEquals(Collections.emptyList(), validate(event));
+  }
+
+  @Test
+  public void reportsMalformedJson() throws IOException {
+    String json = mapper.writeValueAsString(OpenLineageModuleTest.event());
+
+    List<String> errors = validator.validate(json.substring(0, json.length() / 2));
+
+    assertEquals(errors.toString(), 1, errors.size());
+    assertTrue(errors.get(0), errors.get(0).contains("malformed JSON: "));
+    assertEquals(Collections.singletonList("/: expected an object, got START_ARRAY"), validator.validate("[]"));
+  }
+}
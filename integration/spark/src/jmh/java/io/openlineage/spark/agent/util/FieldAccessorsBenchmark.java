@@ -0,0 +1,86 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading private fields through {@link FieldAccessors} with the per call reflection the
+ * agent used before: looking up the Spark 2 name of a field before falling back to the Spark 3 one,
+ * and scanning the declared fields of a class for a field by suffix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FieldAccessorsBenchmark {
+
+  /** Stands in for a Spark function capturing its configuration, with many other fields. */
+  @SuppressWarnings("unused")
+  static class Target {
+    private final Object first = new Object();
+    private final Object second = new Object();
+    private final Object third = new Object();
+    private final String arg$1 = "conf";
+    private final CharSequence org$apache$spark$rdd$PairRDDFunctions$$self = "rdd";
+  }
+
+  private final Target target = new Target();
+
+  @Benchmark
+  public Object reflectionWithFallback() throws IllegalAccessException {
+    Field field;
+    try {
+      field = target.getClass().getDeclaredField("config$1");
+    } catch (NoSuchFieldException e) {
+      try {
+        field = target.getClass().getDeclaredField("arg$1");
+      } catch (NoSuchFieldException e1) {
+        return null;
+      }
+    }
+    field.setAccessible(true);
+    return field.get(target);
+  }
+
+  @Benchmark
+  public Object accessorWithFallback() {
+    return FieldAccessors.readField(target, "config$1", "arg$1").orElse(null);
+  }
+
+  @Benchmark
+  public Object reflectionScan() throws IllegalAccessException {
+    Object value = null;
+    for (Field field : target.getClass().getDeclaredFields()) {
+      if (field.getName().endsWith("self")
+          && CharSequence.class.isAssignableFrom(field.getType())) {
+        field.setAccessible(true);
+        value = field.get(target);
+      }
+    }
+    return value;
+  }
+
+  @Benchmark
+  public Object accessorScan() {
+    Object value = null;
+    for (MethodHandle getter :
+        FieldAccessors.getters(target.getClass(), "self", CharSequence.class)) {
+      value = FieldAccessors.invoke(getter, target);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,62 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkEnv;
+import org.apache.spark.metrics.source.Source;
+
+/**
+ * Metrics of the OpenLineage agent, exposed through the Spark metrics system (and thus any
+ * configured sink, such as JMX) under the {@code openlineage} source.
+ */
+@Slf4j
+public class OpenLineageMetrics implements Source {
+  private static final OpenLineageMetrics INSTANCE = new OpenLineageMetrics();
+
+  private final MetricRegistry metricRegistry = new MetricRegistry();
+  private final Counter degradedEvents = metricRegistry.counter("degradedEvents");
+  private final AtomicBoolean registered = new AtomicBoolean(false);
+
+  // Use singleton instance
+  OpenLineageMetrics() {}
+
+  public static OpenLineageMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public String sourceName() {
+    return "openlineage";
+  }
+
+  @Override
+  public MetricRegistry metricRegistry() {
+    return metricRegistry;
+  }
+
+  /** Number of events that exceeded their time budget and were emitted without some facets. */
+  public Counter getDegradedEvents() {
+    return degradedEvents;
+  }
+
+  /**
+   * Register the metrics with the {@link SparkEnv}'s metrics system. Only the first call has any
+   * effect.
+   *
+   * @param sparkEnv
+   */
+  void register(SparkEnv sparkEnv) {
+    if (!registered.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      sparkEnv.metricsSystem().registerSource(this);
+    } catch (Exception e) {
+      log.warn("Unable to register OpenLineage metrics", e);
+    }
+  }
+}
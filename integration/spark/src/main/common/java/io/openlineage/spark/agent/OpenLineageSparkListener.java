@@ -12,9 +12,12 @@ import io.openlineage.spark.agent.client.OpenLineageClient;
 import io.openlineage.spark.agent.lifecycle.ContextFactory;
 import io.openlineage.spark.agent.lifecycle.ExecutionContext;
 import io.openlineage.spark.agent.transformers.PairRDDFunctionsTransformer;
+import io.openlineage.spark.agent.util.DirectoryPathResolver;
+import io.openlineage.spark.agent.util.FieldAccessors;
 import io.openlineage.spark.agent.util.ScalaConversionUtils;
+import io.openlineage.spark.agent.util.SchemaFields;
 import java.io.PrintWriter;
-import java.lang.reflect.Field;
+import java.lang.invoke.MethodHandle;
 import java.net.URISyntaxException;
 import java.time.ZonedDateTime;
 import java.util.Collections;
@@ -36,6 +39,7 @@ import org.apache.spark.SparkEnv$;
 import org.apache.spark.rdd.PairRDDFunctions;
 import org.apache.spark.rdd.RDD;
 import org.apache.spark.scheduler.ActiveJob;
+import org.apache.spark.scheduler.SparkListenerApplicationEnd;
 import org.apache.spark.scheduler.SparkListenerApplicationStart;
 import org.apache.spark.scheduler.SparkListenerEvent;
 import org.apache.spark.scheduler.SparkListenerJobEnd;
@@ -110,17 +114,10 @@ public class OpenLineageSparkListener extends org.apache.spark.scheduler.SparkLi
   public static void registerOutput(PairRDDFunctions<?, ?> pairRDDFunctions, Configuration conf) {
     try {
       log.info("Initializing OpenLineage PairRDDFunctions listener...");
-      Field[] declaredFields = pairRDDFunctions.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
-        if (field.getName().endsWith("self") && RDD.class.isAssignableFrom(field.getType())) {
-          field.setAccessible(true);
-          try {
-            RDD<?> rdd = (RDD<?>) field.get(pairRDDFunctions);
-            outputs.put(rdd, conf);
-          } catch (IllegalArgumentException | IllegalAccessException e) {
-            e.printStackTrace(System.out);
-          }
-        }
+      for (MethodHandle getter :
+          FieldAccessors.getters(pairRDDFunctions.getClass(), "self", RDD.class)) {
+        RDD<?> rdd = FieldAccessors.invoke(getter, pairRDDFunctions);
+        outputs.put(rdd, conf);
       }
     } catch (Exception e) {
       log.error("Could not initialize OpenLineage PairRDDFunctions listener", e);
@@ -296,7 +293,10 @@ public class OpenLineageSparkListener extends org.apache.spark.scheduler.SparkLi
     if (sparkEnv != null) {
       try {
         ArgumentParser args = parseConf(sparkEnv.conf());
+        SchemaFields.configure(sparkEnv.conf());
+        DirectoryPathResolver.configure(sparkEnv.conf());
         contextFactory = new ContextFactory(new EventEmitter(args));
+        OpenLineageMetrics.getInstance().register(sparkEnv);
       } catch (URISyntaxException e) {
         log.error("Unable to parse open lineage endpoint. Lineage events will not be collected", e);
       }
@@ -307,6 +307,13 @@ public class OpenLineageSparkListener extends org.apache.spark.scheduler.SparkLi
     }
   }
 
+  @Override
+  public void onApplicationEnd(SparkListenerApplicationEnd applicationEnd) {
+    if (contextFactory != null) {
+      contextFactory.end(applicationEnd);
+    }
+  }
+
   private ArgumentParser parseConf(SparkConf conf) {
     Optional<String> url = findSparkConfigKey(conf, SPARK_CONF_URL_KEY);
     if (url.isPresent()) {
@@ -2,12 +2,17 @@
 
 package io.openlineage.spark.agent.client;
 
+import io.openlineage.spark.agent.util.DatasetNaming;
 import java.net.URI;
 import lombok.Value;
 
 public class DatasetParser {
+  private static final DatasetNaming.Memo<URI, DatasetParseResult> results =
+      DatasetNaming.memoize(
+          uri -> new DatasetParseResult(getName(uri), DatasetNaming.namespace(getNamespace(uri))));
+
   public static DatasetParseResult parse(URI uri) {
-    return new DatasetParseResult(getName(uri), getNamespace(uri));
+    return results.apply(uri);
   }
 
   private static String getName(URI uri) {
@@ -0,0 +1,33 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.facets;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.openlineage.client.OpenLineage;
+import io.openlineage.spark.agent.client.OpenLineageClient;
+import java.util.List;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Facet attached to events whose construction exceeded the configured time budget. Lists the facets
+ * and components that were skipped, so consumers know the event is incomplete.
+ */
+@Getter
+public class DegradedFacet extends OpenLineage.DefaultRunFacet {
+  @JsonProperty("budgetMs")
+  private final long budgetMs;
+
+  @JsonProperty("elapsedMs")
+  private final long elapsedMs;
+
+  @JsonProperty("skipped")
+  private final List<String> skipped;
+
+  public DegradedFacet(long budgetMs, long elapsedMs, @NonNull List<String> skipped) {
+    super(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI);
+    this.budgetMs = budgetMs;
+    this.elapsedMs = elapsedMs;
+    this.skipped = skipped;
+  }
+}
@@ -9,18 +9,33 @@ import lombok.Builder;
 import lombok.ToString;
 import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
 
+/**
+ * Facet with the JSON representation of the optimized {@link LogicalPlan}. The plan is serialized
+ * up front, so serializing the facet, which may happen several times per event, doesn't serialize
+ * the plan again. {@link io.openlineage.spark.agent.facets.builder.LogicalPlanRunFacetBuilder}
+ * passes an already serialized (and possibly truncated) plan to {@link #ofSerializedPlan(String)}.
+ */
 @ToString
 public class LogicalPlanFacet extends OpenLineage.DefaultRunFacet {
-  private final LogicalPlan plan;
+  private final String plan;
 
   @Builder
   public LogicalPlanFacet(LogicalPlan plan) {
+    this(plan.toJSON());
+  }
+
+  private LogicalPlanFacet(String plan) {
     super(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI);
     this.plan = plan;
   }
 
+  /** Create a facet from the JSON representation of a plan. */
+  public static LogicalPlanFacet ofSerializedPlan(String plan) {
+    return new LogicalPlanFacet(plan);
+  }
+
   @JsonRawValue
   public String getPlan() {
-    return plan.toJSON();
+    return plan;
   }
 }
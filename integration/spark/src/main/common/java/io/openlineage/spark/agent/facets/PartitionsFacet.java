@@ -0,0 +1,55 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.facets;
+
+import static io.openlineage.spark.agent.client.OpenLineageClient.OPEN_LINEAGE_CLIENT_URI;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.openlineage.client.OpenLineage;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Custom facet summarizing the Hive-style partitions of a dataset: the number of partitions, the
+ * partition columns, the minimum and maximum value of each column and, optionally, a truncated list
+ * of the partition paths relative to the dataset.
+ *
+ * <p>The partitions are those known to the file index of the relation. Spark prunes the partitions
+ * of catalog tables while optimizing the plan, so those list only the partitions that were read,
+ * but partitions of path-based relations are pruned when the scan is planned, so those list all
+ * partitions of the table.
+ */
+@Getter
+public class PartitionsFacet extends OpenLineage.DefaultDatasetFacet {
+
+  @JsonProperty("count")
+  private int count;
+
+  @JsonProperty("columns")
+  private List<String> columns;
+
+  @JsonProperty("min")
+  private Map<String, String> min;
+
+  @JsonProperty("max")
+  private Map<String, String> max;
+
+  @JsonProperty("partitions")
+  private List<String> partitions;
+
+  public PartitionsFacet(
+      int count,
+      @NonNull List<String> columns,
+      @NonNull Map<String, String> min,
+      @NonNull Map<String, String> max,
+      List<String> partitions) {
+    super(OPEN_LINEAGE_CLIENT_URI);
+    this.count = count;
+    this.columns = columns;
+    this.min = min;
+    this.max = max;
+    this.partitions = partitions;
+  }
+}
@@ -0,0 +1,35 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.facets;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.openlineage.client.OpenLineage;
+import io.openlineage.spark.agent.client.OpenLineageClient;
+import lombok.Getter;
+
+/**
+ * Facet attached to the aggregated events of RDD jobs reported in rollup mode. Counts the jobs and
+ * sums the output metrics of all jobs of the group since its START event.
+ */
+@Getter
+public class RddRollupFacet extends OpenLineage.DefaultRunFacet {
+  @JsonProperty("jobs")
+  private final long jobs;
+
+  @JsonProperty("failedJobs")
+  private final long failedJobs;
+
+  @JsonProperty("writeBytes")
+  private final long writeBytes;
+
+  @JsonProperty("writeRecords")
+  private final long writeRecords;
+
+  public RddRollupFacet(long jobs, long failedJobs, long writeBytes, long writeRecords) {
+    super(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI);
+    this.jobs = jobs;
+    this.failedJobs = failedJobs;
+    this.writeBytes = writeBytes;
+    this.writeRecords = writeRecords;
+  }
+}
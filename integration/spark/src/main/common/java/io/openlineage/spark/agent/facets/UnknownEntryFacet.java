@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonRawValue;
 import io.openlineage.client.OpenLineage;
 import java.util.List;
 import java.util.Map;
+import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 
@@ -32,9 +33,20 @@ public class UnknownEntryFacet extends OpenLineage.DefaultRunFacet {
   }
 
   @Value
+  @AllArgsConstructor
   public static class FacetEntry {
     @JsonRawValue String description;
     List<AttributeField> inputAttributes;
     List<AttributeField> outputAttributes;
+
+    /** Number of unknown nodes of the same class represented by this entry, if more than one. */
+    Integer count;
+
+    public FacetEntry(
+        String description,
+        List<AttributeField> inputAttributes,
+        List<AttributeField> outputAttributes) {
+      this(description, inputAttributes, outputAttributes, null);
+    }
   }
 }
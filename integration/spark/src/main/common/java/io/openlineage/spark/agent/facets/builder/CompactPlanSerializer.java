@@ -0,0 +1,180 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.facets.builder;
+
+import static io.openlineage.spark.agent.util.ScalaConversionUtils.fromSeq;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.sql.catalyst.TableIdentifier;
+import org.apache.spark.sql.catalyst.catalog.CatalogTable;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.plans.JoinType;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.execution.datasources.HadoopFsRelation;
+import org.apache.spark.sql.sources.BaseRelation;
+import scala.Option;
+
+/**
+ * Serializes a {@link LogicalPlan} as a flat array of operators instead of the full {@link
+ * LogicalPlan#toJSON()} tree. Each node holds its class, the arguments that matter for debugging
+ * lineage - table identifiers, relation paths, join types and conditions rendered as SQL - and the
+ * indices of its children in the array, e.g.
+ *
+ * <pre>{@code
+ * {"format":"compact","nodes":[
+ *   {"class":"org.apache.spark.sql.catalyst.plans.logical.Filter","args":["(a > 1)"],"children":[1]},
+ *   {"class":"org.apache.spark.sql.execution.datasources.LogicalRelation","args":["db.t"]}]}
+ * }</pre>
+ *
+ * <p>Subtrees shared by identity are written once and referenced by index.
+ */
+@Slf4j
+class CompactPlanSerializer {
+  static final String FORMAT = "compact";
+  static final String GZIP_ENCODING = "gzip+base64";
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private CompactPlanSerializer() {}
+
+  static void serialize(LogicalPlan plan, Writer writer) throws IOException {
+    List<LogicalPlan> nodes = new ArrayList<>();
+    Map<LogicalPlan, Integer> indices = new IdentityHashMap<>();
+    Deque<LogicalPlan> stack = new ArrayDeque<>();
+    stack.push(plan);
+    while (!stack.isEmpty()) {
+      LogicalPlan node = stack.pop();
+      if (indices.containsKey(node)) {
+        continue;
+      }
+      indices.put(node, nodes.size());
+      nodes.add(node);
+      List<LogicalPlan> children = fromSeq(node.children());
+      for (int i = children.size() - 1; i >= 0; i--) {
+        stack.push(children.get(i));
+      }
+    }
+
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+      generator.writeStartObject();
+      generator.writeStringField("format", FORMAT);
+      generator.writeArrayFieldStart("nodes");
+      for (LogicalPlan node : nodes) {
+        generator.writeStartObject();
+        generator.writeStringField("class", node.getClass().getName());
+        List<String> args = arguments(node);
+        if (!args.isEmpty()) {
+          generator.writeArrayFieldStart("args");
+          for (String arg : args) {
+            generator.writeString(arg);
+          }
+          generator.writeEndArray();
+        }
+        List<LogicalPlan> children = fromSeq(node.children());
+        if (!children.isEmpty()) {
+          generator.writeArrayFieldStart("children");
+          for (LogicalPlan child : children) {
+            generator.writeNumber(indices.get(child));
+          }
+          generator.writeEndArray();
+        }
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * Writes the gzipped compact representation as {@code {"format":..,"encoding":..,"data":..}}. The
+   * plan is compressed and encoded while it is serialized, so only the encoded form is kept in
+   * memory.
+   */
+  static void gzip(LogicalPlan plan, Writer writer) throws IOException {
+    writer.write(
+        "{\"format\":\"" + FORMAT + "\",\"encoding\":\"" + GZIP_ENCODING + "\",\"data\":\"");
+    // base64 is ASCII, so the encoded bytes can be written as chars
+    OutputStream ascii =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            writer.write(b);
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            char[] chars = new char[len];
+            for (int i = 0; i < len; i++) {
+              chars[i] = (char) b[off + i];
+            }
+            writer.write(chars, 0, len);
+          }
+        };
+    try (Writer compact =
+        new OutputStreamWriter(
+            new GZIPOutputStream(Base64.getEncoder().wrap(ascii)), StandardCharsets.UTF_8)) {
+      serialize(plan, compact);
+    }
+    writer.write("\"}");
+  }
+
+  private static List<String> arguments(LogicalPlan node) {
+    List<String> args = new ArrayList<>();
+    for (int i = 0; i < node.productArity(); i++) {
+      Object element = node.productElement(i);
+      if (element instanceof Option) {
+        Option<?> option = (Option<?>) element;
+        element = option.isDefined() ? option.get() : null;
+      }
+      String arg = argument(element);
+      if (arg != null) {
+        args.add(arg);
+      }
+    }
+    return args;
+  }
+
+  private static String argument(Object element) {
+    if (element == null || element instanceof LogicalPlan) {
+      return null;
+    } else if (element instanceof TableIdentifier) {
+      return ((TableIdentifier) element).unquotedString();
+    } else if (element instanceof CatalogTable) {
+      return ((CatalogTable) element).identifier().unquotedString();
+    } else if (element instanceof JoinType) {
+      return ((JoinType) element).sql();
+    } else if (element instanceof Path) {
+      return element.toString();
+    } else if (element instanceof HadoopFsRelation) {
+      List<Path> paths = fromSeq(((HadoopFsRelation) element).location().rootPaths());
+      return paths.size() == 1 ? paths.get(0).toString() : paths.size() + " paths";
+    } else if (element instanceof BaseRelation) {
+      return element.getClass().getSimpleName();
+    } else if (element instanceof Expression) {
+      try {
+        return ((Expression) element).sql();
+      } catch (Exception e) {
+        // unresolved expressions can't always be rendered as SQL
+        log.debug("Unable to render {} as SQL", element, e);
+        return null;
+      }
+    }
+    return null;
+  }
+}
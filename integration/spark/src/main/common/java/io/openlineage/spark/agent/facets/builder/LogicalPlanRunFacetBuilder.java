@@ -2,21 +2,64 @@
 
 package io.openlineage.spark.agent.facets.builder;
 
+import static io.openlineage.spark.agent.util.ScalaConversionUtils.fromSeq;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openlineage.spark.agent.facets.LogicalPlanFacet;
+import io.openlineage.spark.agent.util.LimitedWriter;
+import io.openlineage.spark.agent.util.SparkConfUtils;
 import io.openlineage.spark.api.CustomFacetBuilder;
 import io.openlineage.spark.api.OpenLineageContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.BiConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkConf;
 import org.apache.spark.scheduler.SparkListenerJobEnd;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
 import org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionEnd;
 import org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionStart;
+import org.json4s.JsonAST.JNothing$;
+import org.json4s.JsonAST.JValue;
+import org.json4s.jackson.JsonMethods$;
+import scala.Tuple2;
 
 /**
  * {@link CustomFacetBuilder} that generates a {@link LogicalPlanFacet} for each {@link
  * SparkListenerSQLExecutionStart}, {@link SparkListenerSQLExecutionEnd}, and {@link
  * SparkListenerJobEnd} event if a {@link org.apache.spark.sql.execution.QueryExecution} is present.
+ *
+ * <p>A builder is created for each execution and the optimized plan doesn't change during the
+ * execution, so the plan is serialized only once and reused for every event. Wide plans can produce
+ * tens of megabytes of JSON, so plans deeper than {@link #MAX_DEPTH_KEY} or with a serialized form
+ * larger than {@link #MAX_BYTES_KEY} are replaced by a marker such as {@code {"truncated": true,
+ * "nodes": 12345, "depth": 42}}. The plan is written to a {@link LimitedWriter}, so serialization
+ * stops as soon as the limit is reached rather than building the whole JSON first.
+ *
+ * <p>The full format is the same as {@link LogicalPlan#toJSON()}, written a node at a time from
+ * {@link LogicalPlan#jsonFields()}. Setting {@link #FORMAT_KEY} to {@code compact} replaces it with
+ * the flat operator list produced by {@link CompactPlanSerializer}. Compact plans larger than
+ * {@link #GZIP_ABOVE_BYTES_KEY} or than the byte limit are gzipped and base64-encoded instead.
  */
+@Slf4j
 public class LogicalPlanRunFacetBuilder extends CustomFacetBuilder<Object, LogicalPlanFacet> {
+  public static final String MAX_BYTES_KEY = "openlineage.facets.logicalPlan.maxBytes";
+  public static final String MAX_DEPTH_KEY = "openlineage.facets.logicalPlan.maxDepth";
+  public static final String FORMAT_KEY = "openlineage.facets.logicalPlan.format";
+  public static final String GZIP_ABOVE_BYTES_KEY = "openlineage.facets.logicalPlan.gzipAboveBytes";
+  static final String FULL_FORMAT = "full";
+  static final long DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+  static final long DEFAULT_MAX_DEPTH = 256;
+
   private final OpenLineageContext openLineageContext;
+  private LogicalPlan serializedPlan;
+  private LogicalPlanFacet facet;
 
   public LogicalPlanRunFacetBuilder(OpenLineageContext openLineageContext) {
     this.openLineageContext = openLineageContext;
@@ -34,10 +77,142 @@ public class LogicalPlanRunFacetBuilder extends CustomFacetBuilder<Object, Logic
   protected void build(Object event, BiConsumer<String, ? super LogicalPlanFacet> consumer) {
     openLineageContext
         .getQueryExecution()
-        .ifPresent(
-            qe ->
-                consumer.accept(
-                    "spark.logicalPlan",
-                    LogicalPlanFacet.builder().plan(qe.optimizedPlan()).build()));
+        .ifPresent(qe -> consumer.accept("spark.logicalPlan", facetFor(qe.optimizedPlan())));
+  }
+
+  private synchronized LogicalPlanFacet facetFor(LogicalPlan plan) {
+    if (facet == null || serializedPlan != plan) {
+      facet = LogicalPlanFacet.ofSerializedPlan(serialize(plan));
+      serializedPlan = plan;
+    }
+    return facet;
+  }
+
+  private String serialize(LogicalPlan plan) {
+    SparkConf conf = openLineageContext.getSparkContext().conf();
+    long maxBytes = configuredLimit(conf, MAX_BYTES_KEY, DEFAULT_MAX_BYTES);
+    long maxDepth = configuredLimit(conf, MAX_DEPTH_KEY, DEFAULT_MAX_DEPTH);
+
+    // walking the tree is cheap compared to serializing it
+    int nodes = 0;
+    int depth = 0;
+    Deque<LogicalPlan> stack = new ArrayDeque<>();
+    Deque<Integer> depths = new ArrayDeque<>();
+    stack.push(plan);
+    depths.push(1);
+    while (!stack.isEmpty()) {
+      LogicalPlan node = stack.pop();
+      int nodeDepth = depths.pop();
+      nodes++;
+      depth = Math.max(depth, nodeDepth);
+      for (LogicalPlan child : fromSeq(node.children())) {
+        stack.push(child);
+        depths.push(nodeDepth + 1);
+      }
+    }
+    if (depth > maxDepth) {
+      log.warn("Logical plan depth {} exceeds {}, truncating plan facet", depth, maxDepth);
+      return truncated(nodes, depth);
+    }
+
+    Optional<String> json;
+    if (CompactPlanSerializer.FORMAT.equalsIgnoreCase(format(conf))) {
+      long gzipAboveBytes = configuredLimit(conf, GZIP_ABOVE_BYTES_KEY, Long.MAX_VALUE);
+      json =
+          write(Math.min(gzipAboveBytes, maxBytes), w -> CompactPlanSerializer.serialize(plan, w));
+      if (!json.isPresent() && gzipAboveBytes != Long.MAX_VALUE) {
+        json = write(maxBytes, w -> CompactPlanSerializer.gzip(plan, w));
+      }
+    } else {
+      json = write(maxBytes, w -> writeFullPlan(plan, w));
+    }
+    if (!json.isPresent()) {
+      log.warn("Serialized logical plan exceeds {} bytes, truncating plan facet", maxBytes);
+      return truncated(nodes, depth);
+    }
+    return json.get();
+  }
+
+  /**
+   * Write the plan in the format of {@link LogicalPlan#toJSON()}: an array of the nodes in
+   * pre-order, each with its class, its number of children and its {@link
+   * LogicalPlan#jsonFields()}.
+   */
+  private static void writeFullPlan(LogicalPlan plan, Writer writer) throws IOException {
+    ObjectMapper mapper = JsonMethods$.MODULE$.mapper();
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(writer)) {
+      generator.writeStartArray();
+      Deque<LogicalPlan> stack = new ArrayDeque<>();
+      stack.push(plan);
+      while (!stack.isEmpty()) {
+        LogicalPlan node = stack.pop();
+        List<LogicalPlan> children = fromSeq(node.children());
+        generator.writeStartObject();
+        generator.writeStringField("class", node.getClass().getName());
+        generator.writeNumberField("num-children", children.size());
+        for (Tuple2<String, JValue> field : fromSeq(node.jsonFields())) {
+          // rendering the plan drops fields that can't be represented
+          if (field._2() != JNothing$.MODULE$) {
+            generator.writeFieldName(field._1());
+            mapper.writeValue(generator, field._2());
+          }
+        }
+        generator.writeEndObject();
+        for (int i = children.size() - 1; i >= 0; i--) {
+          stack.push(children.get(i));
+        }
+      }
+      generator.writeEndArray();
+    }
+  }
+
+  /**
+   * Serialize to a {@link LimitedWriter} of {@code maxBytes}.
+   *
+   * @return the serialized plan or empty if it would be longer than {@code maxBytes}
+   */
+  private static Optional<String> write(long maxBytes, PlanWriter planWriter) {
+    LimitedWriter writer = LimitedWriter.ofUtf8Bytes(maxBytes);
+    try {
+      planWriter.write(writer);
+      return Optional.of(writer.toString());
+    } catch (IOException | RuntimeException e) {
+      if (writer.isExceeded()) {
+        return Optional.empty();
+      }
+      throw e instanceof IOException
+          ? new UncheckedIOException((IOException) e)
+          : (RuntimeException) e;
+    }
+  }
+
+  private interface PlanWriter {
+    void write(Writer writer) throws IOException;
+  }
+
+  private static String format(SparkConf conf) {
+    return Optional.ofNullable(conf)
+        .flatMap(c -> SparkConfUtils.findSparkConfigKey(c, FORMAT_KEY))
+        .map(String::trim)
+        .orElse(FULL_FORMAT);
+  }
+
+  private static String truncated(int nodes, int depth) {
+    return "{\"truncated\":true,\"nodes\":" + nodes + ",\"depth\":" + depth + "}";
+  }
+
+  private static long configuredLimit(SparkConf conf, String key, long defaultValue) {
+    Optional<String> value =
+        Optional.ofNullable(conf).flatMap(c -> SparkConfUtils.findSparkConfigKey(c, key));
+    if (!value.isPresent()) {
+      return defaultValue;
+    }
+    try {
+      long limit = Long.parseLong(value.get().trim());
+      return limit > 0 ? limit : Long.MAX_VALUE;
+    } catch (NumberFormatException e) {
+      log.warn("Invalid value {} for {} - using {}", value.get(), key, defaultValue);
+      return defaultValue;
+    }
   }
 }
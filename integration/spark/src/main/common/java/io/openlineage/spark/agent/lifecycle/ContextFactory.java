@@ -5,11 +5,13 @@ package io.openlineage.spark.agent.lifecycle;
 import io.openlineage.client.OpenLineage;
 import io.openlineage.spark.agent.EventEmitter;
 import io.openlineage.spark.agent.client.OpenLineageClient;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
 import io.openlineage.spark.agent.util.ScalaConversionUtils;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.OpenLineageEventHandlerFactory;
 import java.util.Optional;
 import org.apache.spark.SparkContext;
+import org.apache.spark.scheduler.SparkListenerApplicationEnd;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.execution.QueryExecution;
 import org.apache.spark.sql.execution.SQLExecution;
@@ -18,24 +20,52 @@ public class ContextFactory {
 
   public final EventEmitter openLineageEventEmitter;
   private final OpenLineageEventHandlerFactory handlerFactory;
+  private volatile Optional<RddRollup> rddRollup;
 
   public ContextFactory(EventEmitter openLineageEventEmitter) {
     this.openLineageEventEmitter = openLineageEventEmitter;
     handlerFactory = new InternalEventHandlerFactory();
+    ClasspathCapabilities.init();
+    LogicalPlanSerializer.warmUp();
   }
 
   public void close() {
     openLineageEventEmitter.close();
   }
 
+  /**
+   * Completes the runs of RDD jobs reported in rollup mode.
+   *
+   * @param applicationEnd
+   */
+  public void end(SparkListenerApplicationEnd applicationEnd) {
+    Optional<RddRollup> rollup = rddRollup;
+    if (rollup != null) {
+      rollup.ifPresent(r -> r.complete(applicationEnd.time()));
+    }
+  }
+
   public ExecutionContext createRddExecutionContext(int jobId) {
+    SparkContext sparkContext = SparkContext.getOrCreate();
     OpenLineageContext olContext =
         OpenLineageContext.builder()
             .sparkSession(ScalaConversionUtils.asJavaOptional(SparkSession.getActiveSession()))
-            .sparkContext(SparkContext.getOrCreate())
+            .sparkContext(sparkContext)
             .openLineage(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI))
             .build();
-    return new RddExecutionContext(olContext, jobId, openLineageEventEmitter);
+    return new RddExecutionContext(
+        olContext, jobId, openLineageEventEmitter, rddRollup(sparkContext));
+  }
+
+  private Optional<RddRollup> rddRollup(SparkContext sparkContext) {
+    if (rddRollup == null) {
+      synchronized (this) {
+        if (rddRollup == null) {
+          rddRollup = RddRollup.fromConf(sparkContext.conf(), openLineageEventEmitter);
+        }
+      }
+    }
+    return rddRollup;
   }
 
   public ExecutionContext createSparkSQLExecutionContext(long executionId) {
@@ -0,0 +1,91 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.lifecycle;
+
+import io.openlineage.spark.agent.facets.DegradedFacet;
+import io.openlineage.spark.agent.util.SparkConfUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkConf;
+
+/**
+ * Wall-clock time budget for constructing a single {@link
+ * io.openlineage.client.OpenLineage.RunEvent}. A pathological plan can keep the listener thread
+ * busy for tens of seconds, delaying all other lineage. The {@link OpenLineageRunEventBuilder}
+ * checks the budget before each expensive, optional step; once the budget is exceeded those steps
+ * are skipped and recorded, so a {@link DegradedFacet} can describe what was dropped.
+ *
+ * <p>The budget is configured in milliseconds with {@link #TIME_BUDGET_KEY}. No budget is enforced
+ * when the key is unset or not positive.
+ */
+@Slf4j
+class EventBudget {
+  static final String TIME_BUDGET_KEY = "openlineage.event.timeBudgetMs";
+
+  private final long budgetNanos;
+  private final long startNanos;
+  private final LongSupplier clock;
+  private final List<String> skipped = new ArrayList<>();
+
+  EventBudget(long budgetMillis, LongSupplier clock) {
+    this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    this.clock = clock;
+    this.startNanos = clock.getAsLong();
+  }
+
+  static EventBudget fromConf(SparkConf conf) {
+    return new EventBudget(
+        Optional.ofNullable(conf)
+            .flatMap(c -> SparkConfUtils.findSparkConfigKey(c, TIME_BUDGET_KEY))
+            .map(EventBudget::parseBudget)
+            .orElse(0L),
+        System::nanoTime);
+  }
+
+  private static long parseBudget(String value) {
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      log.warn("Invalid value {} for {} - no time budget will be enforced", value, TIME_BUDGET_KEY);
+      return 0L;
+    }
+  }
+
+  boolean isExceeded() {
+    return budgetNanos > 0 && clock.getAsLong() - startNanos > budgetNanos;
+  }
+
+  /**
+   * Check whether an optional step may still run. If the budget is exceeded, the step is recorded
+   * as skipped.
+   *
+   * @param step name of the facet or component the step produces
+   * @return true if the step should run
+   */
+  boolean allows(String step) {
+    if (!isExceeded()) {
+      return true;
+    }
+    if (!skipped.contains(step)) {
+      log.warn("Event time budget exceeded, skipping {}", step);
+      skipped.add(step);
+    }
+    return false;
+  }
+
+  boolean isDegraded() {
+    return !skipped.isEmpty();
+  }
+
+  DegradedFacet toFacet() {
+    return new DegradedFacet(
+        TimeUnit.NANOSECONDS.toMillis(budgetNanos),
+        TimeUnit.NANOSECONDS.toMillis(clock.getAsLong() - startNanos),
+        Collections.unmodifiableList(new ArrayList<>(skipped)));
+  }
+}
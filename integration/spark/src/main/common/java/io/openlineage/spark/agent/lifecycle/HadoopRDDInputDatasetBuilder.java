@@ -6,9 +6,9 @@ import io.openlineage.client.OpenLineage;
 import io.openlineage.client.OpenLineage.InputDataset;
 import io.openlineage.spark.agent.client.DatasetParser;
 import io.openlineage.spark.agent.client.DatasetParser.DatasetParseResult;
+import io.openlineage.spark.agent.util.HadoopInputPaths;
 import io.openlineage.spark.api.AbstractInputDatasetBuilder;
 import io.openlineage.spark.api.OpenLineageContext;
-import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -17,7 +17,6 @@ import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.mapreduce.Job;
 import org.apache.spark.rdd.HadoopRDD;
 import org.apache.spark.rdd.NewHadoopRDD;
 import org.apache.spark.rdd.RDD;
@@ -28,6 +27,7 @@ import org.apache.spark.rdd.RDD;
  */
 @Slf4j
 public class HadoopRDDInputDatasetBuilder extends AbstractInputDatasetBuilder<RDD<?>> {
+  private final HadoopInputPaths inputPaths = new HadoopInputPaths();
 
   public HadoopRDDInputDatasetBuilder(@NonNull OpenLineageContext context) {
     super(context);
@@ -63,21 +63,7 @@ public class HadoopRDDInputDatasetBuilder extends AbstractInputDatasetBuilder<RD
   }
 
   protected Path[] getInputPaths(RDD<?> rdd) {
-    Path[] inputPaths = null;
-    if (rdd instanceof HadoopRDD) {
-      inputPaths =
-          org.apache.hadoop.mapred.FileInputFormat.getInputPaths(
-              ((HadoopRDD<?, ?>) rdd).getJobConf());
-    } else if (rdd instanceof NewHadoopRDD) {
-      try {
-        inputPaths =
-            org.apache.hadoop.mapreduce.lib.input.FileInputFormat.getInputPaths(
-                new Job(((NewHadoopRDD<?, ?>) rdd).getConf()));
-      } catch (IOException e) {
-        log.error("Openlineage spark agent could not get input paths", e);
-      }
-    }
-    return inputPaths;
+    return inputPaths.of(rdd);
   }
 
   // exposed for testing
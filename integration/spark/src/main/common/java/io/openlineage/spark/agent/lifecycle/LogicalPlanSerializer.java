@@ -14,14 +14,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.introspect.ClassIntrospector;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.openlineage.spark.agent.util.LimitedWriter;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.Partition;
 import org.apache.spark.api.python.PythonRDD;
 import org.apache.spark.rdd.RDD;
 import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.catalyst.plans.logical.OneRowRelation;
 import org.apache.spark.sql.sources.BaseRelation;
 import scala.PartialFunction;
 import scala.runtime.AbstractPartialFunction;
@@ -34,11 +37,45 @@ import scala.runtime.AbstractPartialFunction;
  * 2.12 or higher. In such cases, we'll fail to load the Jackson module, but will continue to
  * attempt serialization of the {@link LogicalPlan}. If serialization fails, the exception message
  * and stacktrace will be reported.
+ *
+ * <p>Creating the mapper and filling its serializer cache is expensive, so a single instance
+ * returned by {@link #getInstance()} is shared by all executions. {@link #warmUp()} primes it in
+ * the background when the agent starts.
  */
 @Slf4j
 class LogicalPlanSerializer {
+  private static final AtomicBoolean warmedUp = new AtomicBoolean(false);
+
   private final ObjectMapper mapper;
 
+  private static class InstanceHolder {
+    private static final LogicalPlanSerializer INSTANCE = new LogicalPlanSerializer();
+  }
+
+  static LogicalPlanSerializer getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Creates the shared instance and serializes a trivial plan on a daemon thread, so the first
+   * execution doesn't pay for loading the Scala module and building the serializers. Only the first
+   * call has any effect.
+   */
+  static void warmUp() {
+    if (!warmedUp.compareAndSet(false, true)) {
+      return;
+    }
+    Thread thread =
+        new Thread(
+            () -> {
+              String json = getInstance().serialize(new OneRowRelation());
+              log.debug("Warmed up logical plan serializer: {}", json);
+            },
+            "openlineage-plan-serializer-warmup");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
   public LogicalPlanSerializer() {
     mapper = new ObjectMapper();
     try {
@@ -62,6 +99,26 @@ class LogicalPlanSerializer {
     }
   }
 
+  /**
+   * Serialize the node, giving up as soon as the output grows beyond {@code maxLength} characters.
+   *
+   * @param x
+   * @param maxLength
+   * @return the serialized node or empty if it is longer than {@code maxLength}
+   */
+  public Optional<String> serialize(LogicalPlan x, long maxLength) {
+    LimitedWriter writer = LimitedWriter.ofChars(maxLength);
+    try {
+      mapper.writeValue(writer, x);
+      return Optional.of(writer.toString());
+    } catch (Throwable e) {
+      if (writer.isExceeded()) {
+        return Optional.empty();
+      }
+      return Optional.of("Unable to serialize: " + e.getMessage());
+    }
+  }
+
   @JsonIgnoreType
   public static class IgnoredType {}
 
@@ -142,16 +199,27 @@ class LogicalPlanSerializer {
             new PolymorficMixIn(LogicalPlan.class, TypeInfoMixin.class),
             new PolymorficMixIn(BaseRelation.class, TypeInfoMixin.class));
 
+    // Jackson asks for the mixin of every class it introspects, memoize the answer per class
+    private static final ClassValue<Class<?>> mixins =
+        new ClassValue<Class<?>>() {
+          @Override
+          protected Class<?> computeValue(Class<?> cls) {
+            Class<?> mixin = concreteMixin.get(cls);
+            if (mixin != null) {
+              return mixin;
+            }
+            for (PartialFunction<Class, Class> fun : polymorficMixIn) {
+              if (fun.isDefinedAt(cls)) {
+                return fun.apply(cls);
+              }
+            }
+            return ChildMixIn.class;
+          }
+        };
+
     @Override
     public Class<?> findMixInClassFor(Class<?> cls) {
-      Supplier<Class> defaultMixin =
-          () ->
-              polymorficMixIn.stream()
-                  .filter(fun -> fun.isDefinedAt(cls))
-                  .findFirst()
-                  .map(f -> f.apply(cls))
-                  .orElse(ChildMixIn.class);
-      return concreteMixin.getOrDefault(cls, defaultMixin.get());
+      return mixins.get(cls);
     }
 
     @Override
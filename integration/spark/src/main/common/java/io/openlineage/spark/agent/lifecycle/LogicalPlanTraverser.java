@@ -0,0 +1,367 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.lifecycle;
+
+import static io.openlineage.spark.agent.util.ScalaConversionUtils.fromSeq;
+
+import io.openlineage.client.OpenLineage.InputDataset;
+import io.openlineage.client.OpenLineage.OutputDataset;
+import io.openlineage.spark.agent.util.SparkConfUtils;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkConf;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import scala.Option;
+import scala.PartialFunction;
+
+/**
+ * Walks a {@link LogicalPlan} exactly once and feeds every node to all of the interested parties,
+ * rather than having each of them traverse the tree on its own. During the walk
+ *
+ * <ul>
+ *   <li>every node is offered to the input dataset visitor
+ *   <li>the root node is offered to the output dataset visitor
+ *   <li>every node a visitor was defined for is passed to the visited-node listener (typically the
+ *       {@link UnknownEntryFacetListener})
+ *   <li>every node is passed to any additional node listeners, e.g., column-level collectors
+ *   <li>leaf nodes are recorded so the unknown entry facet can be built without walking the tree
+ *       again
+ * </ul>
+ *
+ * Nodes are visited in the same pre-order as {@link LogicalPlan#foreach(scala.Function1)}, so the
+ * order of the returned datasets matches the previous per-collector traversals. The walk uses an
+ * explicit stack, so deeply nested plans don't risk exhausting the thread's stack.
+ *
+ * <p>Plans with thousands of nodes (e.g., unions of hundreds of sources) can take seconds to visit
+ * serially, since visitors may perform filesystem or catalog I/O. When enabled with {@link
+ * #PARALLEL_ENABLED_KEY}, plans with at least {@link #PARALLEL_THRESHOLD_KEY} nodes are visited on
+ * a bounded, shared {@link ForkJoinPool}, forking a task for every child but the first of a node
+ * with more than one child. The first child is visited in the same task, so left-deep plans don't
+ * nest tasks on the stack either. Results of the subtrees are concatenated in plan order and
+ * listeners are invoked on the calling thread after the visit, so the outcome is identical to the
+ * serial walk.
+ */
+@Slf4j
+class LogicalPlanTraverser {
+
+  static final String PARALLEL_ENABLED_KEY = "openlineage.plan.parallel.enabled";
+  static final String PARALLEL_THRESHOLD_KEY = "openlineage.plan.parallel.threshold";
+  static final String PARALLEL_THREADS_KEY = "openlineage.plan.parallel.threads";
+  static final int DEFAULT_PARALLEL_THRESHOLD = 5000;
+
+  private static ForkJoinPool sharedPool;
+
+  private final PartialFunction<LogicalPlan, List<InputDataset>> inputVisitor;
+  private final PartialFunction<LogicalPlan, List<OutputDataset>> outputVisitor;
+  private final Consumer<LogicalPlan> visitedNodeListener;
+  private final Collection<Consumer<LogicalPlan>> nodeListeners;
+  private final Optional<ForkJoinPool> pool;
+  private final int parallelThreshold;
+
+  LogicalPlanTraverser(
+      PartialFunction<LogicalPlan, List<InputDataset>> inputVisitor,
+      PartialFunction<LogicalPlan, List<OutputDataset>> outputVisitor,
+      Consumer<LogicalPlan> visitedNodeListener) {
+    this(
+        inputVisitor,
+        outputVisitor,
+        visitedNodeListener,
+        Collections.emptyList(),
+        Optional.empty(),
+        Integer.MAX_VALUE);
+  }
+
+  LogicalPlanTraverser(
+      @NonNull PartialFunction<LogicalPlan, List<InputDataset>> inputVisitor,
+      @NonNull PartialFunction<LogicalPlan, List<OutputDataset>> outputVisitor,
+      @NonNull Consumer<LogicalPlan> visitedNodeListener,
+      @NonNull Collection<Consumer<LogicalPlan>> nodeListeners,
+      @NonNull Optional<ForkJoinPool> pool,
+      int parallelThreshold) {
+    this.inputVisitor = inputVisitor;
+    this.outputVisitor = outputVisitor;
+    this.visitedNodeListener = visitedNodeListener;
+    this.nodeListeners = nodeListeners;
+    this.pool = pool;
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * Create a traverser configured from the {@link SparkConf}. Parallel visiting is disabled unless
+   * {@link #PARALLEL_ENABLED_KEY} is set to true.
+   *
+   * @param conf
+   * @param inputVisitor
+   * @param outputVisitor
+   * @param visitedNodeListener
+   * @return
+   */
+  static LogicalPlanTraverser fromConf(
+      SparkConf conf,
+      PartialFunction<LogicalPlan, List<InputDataset>> inputVisitor,
+      PartialFunction<LogicalPlan, List<OutputDataset>> outputVisitor,
+      Consumer<LogicalPlan> visitedNodeListener) {
+    if (conf == null
+        || !Boolean.parseBoolean(
+            SparkConfUtils.findSparkConfigKey(conf, PARALLEL_ENABLED_KEY, "false"))) {
+      return new LogicalPlanTraverser(inputVisitor, outputVisitor, visitedNodeListener);
+    }
+    int threshold = parseInt(conf, PARALLEL_THRESHOLD_KEY, DEFAULT_PARALLEL_THRESHOLD);
+    int threads = parseInt(conf, PARALLEL_THREADS_KEY, Runtime.getRuntime().availableProcessors());
+    return new LogicalPlanTraverser(
+        inputVisitor,
+        outputVisitor,
+        visitedNodeListener,
+        Collections.emptyList(),
+        Optional.of(sharedPool(threads)),
+        threshold);
+  }
+
+  TraversalResult traverse(LogicalPlan root) {
+    Visit visit;
+    if (pool.isPresent() && hasAtLeast(root, parallelThreshold)) {
+      log.debug("Visiting plan in parallel with {}", pool.get());
+      visit = pool.get().invoke(new VisitTask(root, root, SparkSession.getActiveSession()));
+    } else {
+      visit = visitSerially(root);
+    }
+
+    // listeners are not required to be thread-safe, so they're only invoked on the calling thread
+    visit.visitedNodes.forEach(visitedNodeListener);
+    visit.nodes.forEach(node -> nodeListeners.forEach(listener -> listener.accept(node)));
+    log.debug("Traversed plan with {} nodes and {} leaves", visit.nodeCount, visit.leaves.size());
+    return new TraversalResult(root, visit.inputs, visit.outputs, visit.leaves);
+  }
+
+  /**
+   * Re-visit only the root node of a previously traversed plan with the output visitor, keeping the
+   * inputs and leaves of the previous traversal. Used for the terminal events of a run, where the
+   * inputs are unchanged but the outputs may reflect state changes made by the execution.
+   *
+   * @param previous
+   * @return
+   */
+  TraversalResult traverseOutputs(TraversalResult previous) {
+    Visit visit = new Visit();
+    visit.outputs.addAll(applyVisitor(outputVisitor, previous.getRoot(), visit));
+    visit.visitedNodes.forEach(visitedNodeListener);
+    return new TraversalResult(
+        previous.getRoot(), previous.getInputs(), visit.outputs, previous.getLeaves());
+  }
+
+  private Visit visitSerially(LogicalPlan root) {
+    Visit visit = new Visit();
+    Deque<LogicalPlan> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      List<LogicalPlan> children = visitNode(root, stack.pop(), visit);
+      // push in reverse so the leftmost child is visited first
+      for (int i = children.size() - 1; i >= 0; i--) {
+        stack.push(children.get(i));
+      }
+    }
+    return visit;
+  }
+
+  /**
+   * Visit a single node and record the results in the given {@link Visit}.
+   *
+   * @return the children of the node
+   */
+  private List<LogicalPlan> visitNode(LogicalPlan root, LogicalPlan node, Visit visit) {
+    visit.nodeCount++;
+    if (!nodeListeners.isEmpty()) {
+      visit.nodes.add(node);
+    }
+    if (node == root) {
+      visit.outputs.addAll(applyVisitor(outputVisitor, node, visit));
+    }
+    visit.inputs.addAll(applyVisitor(inputVisitor, node, visit));
+
+    List<LogicalPlan> children = fromSeq(node.children());
+    if (children.isEmpty()) {
+      visit.leaves.add(node);
+    }
+    return children;
+  }
+
+  private <D> List<D> applyVisitor(
+      PartialFunction<LogicalPlan, List<D>> visitor, LogicalPlan node, Visit visit) {
+    if (!visitor.isDefinedAt(node)) {
+      return Collections.emptyList();
+    }
+    List<D> datasets = visitor.apply(node);
+    visit.visitedNodes.add(node);
+    return datasets;
+  }
+
+  /** Count nodes, stopping as soon as the limit is reached. */
+  private static boolean hasAtLeast(LogicalPlan root, int limit) {
+    int count = 0;
+    Deque<LogicalPlan> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      if (++count >= limit) {
+        return true;
+      }
+      fromSeq(stack.pop().children()).forEach(stack::push);
+    }
+    return false;
+  }
+
+  private static int parseInt(SparkConf conf, String key, int defaultValue) {
+    Optional<String> value = SparkConfUtils.findSparkConfigKey(conf, key);
+    if (!value.isPresent()) {
+      return defaultValue;
+    }
+    try {
+      int parsed = Integer.parseInt(value.get().trim());
+      if (parsed > 0) {
+        return parsed;
+      }
+    } catch (NumberFormatException e) {
+      // fall through
+    }
+    log.warn("Invalid value {} for {} - using {}", value.get(), key, defaultValue);
+    return defaultValue;
+  }
+
+  /**
+   * The pool is shared by all executions of the application, so the number of threads visiting
+   * plans is bounded regardless of how many queries run concurrently. The parallelism of the first
+   * configuration wins, as the SparkConf doesn't change during the application lifetime.
+   */
+  private static synchronized ForkJoinPool sharedPool(int parallelism) {
+    if (sharedPool == null) {
+      sharedPool = newPool(parallelism);
+    }
+    return sharedPool;
+  }
+
+  /**
+   * The active session is an inheritable thread local, so a worker started while a query runs would
+   * otherwise keep the session of that query for the lifetime of the thread.
+   */
+  static ForkJoinPool newPool(int parallelism) {
+    return new ForkJoinPool(
+        parallelism,
+        pool -> {
+          ForkJoinWorkerThread thread =
+              new ForkJoinWorkerThread(pool) {
+                @Override
+                protected void onStart() {
+                  super.onStart();
+                  SparkSession.clearActiveSession();
+                }
+              };
+          thread.setName("openlineage-plan-visitor-" + thread.getPoolIndex());
+          thread.setDaemon(true);
+          return thread;
+        },
+        null,
+        false);
+  }
+
+  /**
+   * Visits a subtree. The first child of every node is visited inline, so the task iterates down
+   * the leftmost path of the subtree; a task is forked for each of the other children. The results
+   * of the forked tasks are appended after the inline path, deepest node first, which is the
+   * pre-order of the subtree.
+   */
+  private final class VisitTask extends RecursiveTask<Visit> {
+
+    private final LogicalPlan root;
+    private final LogicalPlan subtree;
+    private final Option<SparkSession> session;
+
+    VisitTask(LogicalPlan root, LogicalPlan subtree, Option<SparkSession> session) {
+      this.root = root;
+      this.subtree = subtree;
+      this.session = session;
+    }
+
+    @Override
+    protected Visit compute() {
+      // visitors may look up the active session, which is thread-local. Pool threads outlive the
+      // query, so the previous session is restored rather than left pinned to the thread
+      Option<SparkSession> previous = SparkSession.getActiveSession();
+      setActiveSession(session);
+      try {
+        return visitSubtree();
+      } finally {
+        setActiveSession(previous);
+      }
+    }
+
+    private Visit visitSubtree() {
+      Visit visit = new Visit();
+      Deque<List<VisitTask>> forked = new ArrayDeque<>();
+      List<LogicalPlan> children = visitNode(root, subtree, visit);
+      while (!children.isEmpty()) {
+        if (children.size() > 1) {
+          List<VisitTask> tasks = new ArrayList<>(children.size() - 1);
+          for (LogicalPlan child : children.subList(1, children.size())) {
+            VisitTask task = new VisitTask(root, child, session);
+            task.fork();
+            tasks.add(task);
+          }
+          forked.push(tasks);
+        }
+        children = visitNode(root, children.get(0), visit);
+      }
+      while (!forked.isEmpty()) {
+        forked.pop().forEach(task -> visit.append(task.join()));
+      }
+      return visit;
+    }
+  }
+
+  private static void setActiveSession(Option<SparkSession> session) {
+    if (session.isDefined()) {
+      SparkSession.setActiveSession(session.get());
+    } else {
+      SparkSession.clearActiveSession();
+    }
+  }
+
+  /** Mutable accumulator for the results of visiting a (sub)tree, in plan order. */
+  private static final class Visit {
+    private int nodeCount;
+    private final List<LogicalPlan> nodes = new ArrayList<>();
+    private final List<LogicalPlan> visitedNodes = new ArrayList<>();
+    private final List<InputDataset> inputs = new ArrayList<>();
+    private final List<OutputDataset> outputs = new ArrayList<>();
+    private final List<LogicalPlan> leaves = new ArrayList<>();
+
+    private void append(Visit other) {
+      nodeCount += other.nodeCount;
+      nodes.addAll(other.nodes);
+      visitedNodes.addAll(other.visitedNodes);
+      inputs.addAll(other.inputs);
+      outputs.addAll(other.outputs);
+      leaves.addAll(other.leaves);
+    }
+  }
+
+  /** Everything collected during a single walk of a {@link LogicalPlan}. */
+  @Value
+  static class TraversalResult {
+    LogicalPlan root;
+    List<InputDataset> inputs;
+    List<OutputDataset> outputs;
+    List<LogicalPlan> leaves;
+  }
+}
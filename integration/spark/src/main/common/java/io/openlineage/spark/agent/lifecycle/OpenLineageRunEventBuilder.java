@@ -2,7 +2,6 @@
 
 package io.openlineage.spark.agent.lifecycle;
 
-import static io.openlineage.spark.agent.util.ScalaConversionUtils.fromSeq;
 import static io.openlineage.spark.agent.util.ScalaConversionUtils.toScalaFn;
 
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
@@ -30,9 +29,12 @@ import io.openlineage.client.OpenLineage.RunEventBuilder;
 import io.openlineage.client.OpenLineage.RunFacet;
 import io.openlineage.client.OpenLineage.RunFacets;
 import io.openlineage.client.OpenLineage.RunFacetsBuilder;
+import io.openlineage.spark.agent.OpenLineageMetrics;
 import io.openlineage.spark.agent.client.OpenLineageClient;
+import io.openlineage.spark.agent.facets.builder.LogicalPlanRunFacetBuilder;
+import io.openlineage.spark.agent.lifecycle.LogicalPlanTraverser.TraversalResult;
+import io.openlineage.spark.agent.util.DatasetIdentifier;
 import io.openlineage.spark.agent.util.PlanUtils;
-import io.openlineage.spark.agent.util.ScalaConversionUtils;
 import io.openlineage.spark.api.CustomFacetBuilder;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.OpenLineageEventHandlerFactory;
@@ -46,11 +48,13 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
@@ -67,7 +71,6 @@ import org.apache.spark.scheduler.Stage;
 import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
 import org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionEnd;
 import org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionStart;
-import scala.Function1;
 import scala.PartialFunction;
 
 /**
@@ -173,6 +176,14 @@ class OpenLineageRunEventBuilder {
 
   private final ObjectMapper objectMapper = OpenLineageClient.createMapper();
 
+  /**
+   * The result of the first traversal of the optimized plan for this run. The plan doesn't change
+   * during an execution, so later events (e.g., COMPLETE) reuse the input datasets and their facets
+   * computed for the START event and only visit the root node again for outputs, which may carry
+   * state that changes during the run, such as a table being dropped.
+   */
+  private final AtomicReference<TraversalResult> memoizedTraversal = new AtomicReference<>();
+
   OpenLineageRunEventBuilder(OpenLineageContext context, OpenLineageEventHandlerFactory factory) {
     this(
         context,
@@ -304,19 +315,37 @@ class OpenLineageRunEventBuilder {
       JobBuilder jobBuilder,
       List<Object> nodes) {
     OpenLineage openLineage = openLineageContext.getOpenLineage();
+    EventBudget budget = EventBudget.fromConf(openLineageContext.getSparkContext().conf());
 
     RunFacetsBuilder runFacetsBuilder = openLineage.newRunFacetsBuilder();
     parentRunFacet.ifPresent(runFacetsBuilder::parent);
     OpenLineage.JobFacets jobFacets =
         buildFacets(nodes, jobFacetBuilders, openLineage.newJobFacetsBuilder().build());
-    List<InputDataset> inputDatasets = buildInputDatasets(nodes);
-    List<OutputDataset> outputDatasets = buildOutputDatasets(nodes);
-    openLineageContext
-        .getQueryExecution()
-        .flatMap(qe -> unknownEntryFacetListener.build(qe.optimizedPlan()))
-        .ifPresent(facet -> runFacetsBuilder.put("spark_unknown", facet));
+    Optional<TraversalResult> traversal = traversePlan();
+    List<InputDataset> inputDatasets = buildInputDatasets(nodes, traversal);
+    List<OutputDataset> outputDatasets = buildOutputDatasets(nodes, traversal);
+    UnknownEntryFacetListener.Limits unknownEntryLimits =
+        UnknownEntryFacetListener.Limits.fromConf(openLineageContext.getSparkContext().conf());
+    if (traversal.isPresent() && unknownEntryLimits.isEnabled() && budget.allows("spark_unknown")) {
+      traversal
+          .flatMap(
+              t -> unknownEntryFacetListener.build(t.getRoot(), t.getLeaves(), unknownEntryLimits))
+          .ifPresent(facet -> runFacetsBuilder.put("spark_unknown", facet));
+    }
 
-    RunFacets runFacets = buildFacets(nodes, runFacetBuilders, runFacetsBuilder.build());
+    List<CustomFacetBuilder<?, ? extends RunFacet>> runFacetBuildersWithinBudget =
+        runFacetBuilders.stream()
+            .filter(
+                fn ->
+                    !(fn instanceof LogicalPlanRunFacetBuilder)
+                        || budget.allows("spark.logicalPlan"))
+            .collect(Collectors.toList());
+    if (budget.isDegraded()) {
+      runFacetsBuilder.put("spark.degraded", budget.toFacet());
+      OpenLineageMetrics.getInstance().getDegradedEvents().inc();
+    }
+    RunFacets runFacets =
+        buildFacets(nodes, runFacetBuildersWithinBudget, runFacetsBuilder.build());
     OpenLineage.RunBuilder runBuilder =
         openLineage.newRunBuilder().runId(openLineageContext.getRunUuid()).facets(runFacets);
     return runEventBuilder
@@ -327,44 +356,77 @@ class OpenLineageRunEventBuilder {
         .build();
   }
 
-  private List<OpenLineage.InputDataset> buildInputDatasets(List<Object> nodes) {
-    openLineageContext
+  /**
+   * Walk the optimized plan of the current {@link org.apache.spark.sql.execution.QueryExecution}
+   * once, collecting input and output datasets and the nodes needed by the {@link
+   * #unknownEntryFacetListener} in the same pass. Only the first event of the run walks the whole
+   * plan; see {@link #memoizedTraversal}.
+   *
+   * @return
+   */
+  private Optional<TraversalResult> traversePlan() {
+    return openLineageContext
         .getQueryExecution()
-        .ifPresent(
+        .map(
             qe -> {
+              LogicalPlanTraverser traverser =
+                  LogicalPlanTraverser.fromConf(
+                      openLineageContext.getSparkContext().conf(),
+                      PlanUtils.merge(inputDatasetQueryPlanVisitors),
+                      PlanUtils.merge(outputDatasetQueryPlanVisitors),
+                      unknownEntryFacetListener);
+              TraversalResult previous = memoizedTraversal.get();
+              if (previous != null && previous.getRoot() == qe.optimizedPlan()) {
+                log.debug("Reusing plan traversal of {}, visiting outputs only", qe);
+                return traverser.traverseOutputs(previous);
+              }
               if (log.isDebugEnabled()) {
                 log.debug("Traversing optimized plan {}", qe.optimizedPlan().toJSON());
                 log.debug("Physical plan executed {}", qe.executedPlan().toJSON());
               }
+              log.info(
+                  "Visiting query plan {} with input visitors {} and output visitors {}",
+                  qe,
+                  inputDatasetQueryPlanVisitors,
+                  outputDatasetQueryPlanVisitors);
+              TraversalResult result = traverser.traverse(qe.optimizedPlan());
+              memoizedTraversal.set(result);
+              return result;
             });
-    log.info(
-        "Visiting query plan {} with input dataset builders {}",
-        openLineageContext.getQueryExecution(),
-        inputDatasetQueryPlanVisitors);
-
-    Function1<LogicalPlan, List<InputDataset>> inputVisitor =
-        visitLogicalPlan(PlanUtils.merge(inputDatasetQueryPlanVisitors));
+  }
 
+  private List<OpenLineage.InputDataset> buildInputDatasets(
+      List<Object> nodes, Optional<TraversalResult> traversal) {
     List<OpenLineage.InputDataset> datasets =
         Stream.concat(
                 buildDatasets(nodes, inputDatasetBuilders),
-                openLineageContext
-                    .getQueryExecution()
-                    .map(
-                        qe ->
-                            fromSeq(qe.optimizedPlan().map(inputVisitor)).stream()
-                                .flatMap(List::stream)
-                                .map(((Class<InputDataset>) InputDataset.class)::cast))
-                    .orElse(Stream.empty()))
+                traversal.map(t -> t.getInputs().stream()).orElse(Stream.empty()))
             .collect(Collectors.toList());
     OpenLineage openLineage = openLineageContext.getOpenLineage();
+    datasets =
+        deduplicate(
+            datasets,
+            (first, second) ->
+                openLineage
+                    .newInputDatasetBuilder()
+                    .name(first.getName())
+                    .namespace(first.getNamespace())
+                    .inputFacets(
+                        mergeDuplicateFacets(
+                            first.getInputFacets(),
+                            second.getInputFacets(),
+                            InputDatasetInputFacets.class))
+                    .facets(
+                        mergeDuplicateFacets(
+                            first.getFacets(), second.getFacets(), DatasetFacets.class))
+                    .build());
     if (!datasets.isEmpty()) {
       Map<String, InputDatasetFacet> inputFacetsMap = new HashMap<>();
       nodes.forEach(
           event -> inputDatasetFacetBuilders.forEach(fn -> fn.accept(event, inputFacetsMap::put)));
-      Map<String, DatasetFacets> datasetFacetsMap = new HashMap<>();
+      Map<String, DatasetFacet> datasetFacetsMap = new HashMap<>();
       nodes.forEach(
-          event -> inputDatasetFacetBuilders.forEach(fn -> fn.accept(event, inputFacetsMap::put)));
+          event -> datasetFacetBuilders.forEach(fn -> fn.accept(event, datasetFacetsMap::put)));
       return datasets.stream()
           .map(
               ds ->
@@ -382,46 +444,32 @@ class OpenLineageRunEventBuilder {
     return datasets;
   }
 
-  /**
-   * Returns a {@link Function1} that passes the input {@link LogicalPlan} node to the {@link
-   * #unknownEntryFacetListener} if the inputVisitor is defined for the input node.
-   *
-   * @param inputVisitor
-   * @param <D>
-   * @return
-   */
-  private <D> Function1<LogicalPlan, List<D>> visitLogicalPlan(
-      PartialFunction<LogicalPlan, List<D>> inputVisitor) {
-    return ScalaConversionUtils.toScalaFn(
-        node ->
-            inputVisitor
-                .andThen(
-                    toScalaFn(
-                        ds -> {
-                          unknownEntryFacetListener.accept(node);
-                          return ds;
-                        }))
-                .applyOrElse(node, toScalaFn(n -> Collections.emptyList())));
-  }
-
-  private List<OpenLineage.OutputDataset> buildOutputDatasets(List<Object> nodes) {
-    log.info(
-        "Visiting query plan {} with output dataset builders {}",
-        openLineageContext.getQueryExecution(),
-        outputDatasetBuilders);
-    Function1<LogicalPlan, List<OutputDataset>> visitor =
-        visitLogicalPlan(PlanUtils.merge(outputDatasetQueryPlanVisitors));
+  private List<OpenLineage.OutputDataset> buildOutputDatasets(
+      List<Object> nodes, Optional<TraversalResult> traversal) {
     List<OutputDataset> datasets =
         Stream.concat(
                 buildDatasets(nodes, outputDatasetBuilders),
-                openLineageContext
-                    .getQueryExecution()
-                    .map(qe -> visitor.apply(qe.optimizedPlan()))
-                    .map(List::stream)
-                    .orElse(Stream.empty()))
+                traversal.map(t -> t.getOutputs().stream()).orElse(Stream.empty()))
             .collect(Collectors.toList());
 
     OpenLineage openLineage = openLineageContext.getOpenLineage();
+    datasets =
+        deduplicate(
+            datasets,
+            (first, second) ->
+                openLineage
+                    .newOutputDatasetBuilder()
+                    .name(first.getName())
+                    .namespace(first.getNamespace())
+                    .outputFacets(
+                        mergeDuplicateFacets(
+                            first.getOutputFacets(),
+                            second.getOutputFacets(),
+                            OutputDatasetOutputFacets.class))
+                    .facets(
+                        mergeDuplicateFacets(
+                            first.getFacets(), second.getFacets(), DatasetFacets.class))
+                    .build());
 
     if (!datasets.isEmpty()) {
       Map<String, OutputDatasetFacet> outputFacetsMap = new HashMap<>();
@@ -450,6 +498,56 @@ class OpenLineageRunEventBuilder {
     return datasets;
   }
 
+  /**
+   * Collapse datasets with the same namespace and name into a single dataset. Self-joins, repeated
+   * scans of the same table or a path found by both an RDD builder and a plan visitor would
+   * otherwise each report a full copy of the dataset. The first occurrence determines the position
+   * of the dataset in the returned list and the merge function is applied in encounter order, so
+   * the result only depends on the order in which the datasets were found.
+   *
+   * @param datasets
+   * @param merge
+   * @param <D>
+   * @return
+   */
+  private <D extends OpenLineage.Dataset> List<D> deduplicate(
+      List<D> datasets, BinaryOperator<D> merge) {
+    if (datasets.size() < 2) {
+      return datasets;
+    }
+    Map<DatasetIdentifier, D> index = new LinkedHashMap<>();
+    datasets.forEach(
+        ds -> index.merge(new DatasetIdentifier(ds.getName(), ds.getNamespace()), ds, merge));
+    if (index.size() < datasets.size()) {
+      log.debug("Merged {} datasets into {}", datasets.size(), index.size());
+      return new ArrayList<>(index.values());
+    }
+    return datasets;
+  }
+
+  /**
+   * Merge the facet containers of two copies of the same dataset. Facets of the first container
+   * take precedence; the second only contributes facets the first doesn't have.
+   *
+   * @param first
+   * @param second
+   * @param klass
+   * @param <T>
+   * @return
+   */
+  private <T> T mergeDuplicateFacets(T first, T second, Class<T> klass) {
+    if (first == null) {
+      return second;
+    }
+    if (second == null) {
+      return first;
+    }
+    return mergeFacets(
+        objectMapper.convertValue(first, new TypeReference<Map<String, Object>>() {}),
+        second,
+        klass);
+  }
+
   private <T> Stream<T> buildDatasets(
       List<Object> nodes, Collection<PartialFunction<Object, List<T>>> builders) {
     PartialFunction<Object, List<T>> fn = PlanUtils.merge(builders);
@@ -4,17 +4,18 @@ import static scala.collection.JavaConversions.asJavaCollection;
 
 import io.openlineage.client.OpenLineage;
 import io.openlineage.spark.agent.EventEmitter;
+import io.openlineage.spark.agent.JobMetricsHolder;
 import io.openlineage.spark.agent.OpenLineageSparkListener;
 import io.openlineage.spark.agent.client.DatasetParser;
 import io.openlineage.spark.agent.client.DatasetParser.DatasetParseResult;
 import io.openlineage.spark.agent.client.OpenLineageClient;
 import io.openlineage.spark.agent.facets.ErrorFacet;
 import io.openlineage.spark.agent.facets.SparkVersionFacet;
+import io.openlineage.spark.agent.util.FieldAccessors;
+import io.openlineage.spark.agent.util.HadoopInputPaths;
 import io.openlineage.spark.agent.util.PlanUtils;
-import io.openlineage.spark.agent.util.ScalaConversionUtils;
 import io.openlineage.spark.api.OpenLineageContext;
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.net.URI;
 import java.time.Instant;
 import java.time.ZoneOffset;
@@ -32,10 +33,8 @@ import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.mapred.FileInputFormat;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapreduce.Job;
-import org.apache.parquet.Strings;
 import org.apache.spark.Dependency;
 import org.apache.spark.SparkContext;
 import org.apache.spark.SparkContext$;
@@ -43,7 +42,6 @@ import org.apache.spark.TaskContext;
 import org.apache.spark.internal.io.HadoopMapRedWriteConfigUtil;
 import org.apache.spark.rdd.HadoopRDD;
 import org.apache.spark.rdd.MapPartitionsRDD;
-import org.apache.spark.rdd.NewHadoopRDD;
 import org.apache.spark.rdd.RDD;
 import org.apache.spark.scheduler.ActiveJob;
 import org.apache.spark.scheduler.JobFailed;
@@ -59,20 +57,32 @@ import org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionStart;
 import org.apache.spark.util.SerializableJobConf;
 import scala.Function2;
 import scala.collection.Iterator;
-import scala.collection.Seq;
 import scala.runtime.AbstractFunction0;
 
 @Slf4j
 class RddExecutionContext implements ExecutionContext {
+  static final int MAX_JOB_NAME_LENGTH = 200;
+
   private final EventEmitter sparkContext;
   private final Optional<SparkContext> sparkContextOption;
   private final UUID runId = UUID.randomUUID();
+  private final HadoopInputPaths inputPaths = new HadoopInputPaths();
+  private final Optional<RddRollup> rollup;
   private List<URI> inputs = Collections.emptyList();
   private List<URI> outputs = Collections.emptyList();
   private String jobSuffix;
 
   public RddExecutionContext(OpenLineageContext context, int jobId, EventEmitter sparkContext) {
+    this(context, jobId, sparkContext, Optional.empty());
+  }
+
+  RddExecutionContext(
+      OpenLineageContext context,
+      int jobId,
+      EventEmitter sparkContext,
+      Optional<RddRollup> rollup) {
     this.sparkContext = sparkContext;
+    this.rollup = rollup;
     sparkContextOption =
         Optional.ofNullable(
             SparkContext$.MODULE$
@@ -102,11 +112,8 @@ class RddExecutionContext implements ExecutionContext {
     if (activeJob.finalStage() instanceof ResultStage) {
       Function2<TaskContext, Iterator<?>, ?> fn = ((ResultStage) activeJob.finalStage()).func();
       try {
-        Field f = getConfigField(fn);
-        f.setAccessible(true);
-
         HadoopMapRedWriteConfigUtil configUtil =
-            Optional.of(f.get(fn))
+            getConfigField(fn)
                 .filter(HadoopMapRedWriteConfigUtil.class::isInstance)
                 .map(HadoopMapRedWriteConfigUtil.class::cast)
                 .orElseThrow(
@@ -114,11 +121,11 @@ class RddExecutionContext implements ExecutionContext {
                         new NoSuchFieldException(
                             "Field is not instance of HadoopMapRedWriteConfigUtil"));
 
-        Field confField = HadoopMapRedWriteConfigUtil.class.getDeclaredField("conf");
-        confField.setAccessible(true);
-        SerializableJobConf conf = (SerializableJobConf) confField.get(configUtil);
+        SerializableJobConf conf =
+            FieldAccessors.<SerializableJobConf>readField(configUtil, "conf")
+                .orElseThrow(() -> new NoSuchFieldException("conf"));
         jc = conf.value();
-      } catch (IllegalAccessException | NoSuchFieldException nfe) {
+      } catch (NoSuchFieldException nfe) {
         log.warn("Unable to access job conf from RDD", nfe);
       }
       log.info("Found job conf from RDD {}", jc);
@@ -134,19 +141,28 @@ class RddExecutionContext implements ExecutionContext {
    * In spark3 we can get it by "arg$1" field
    *
    * @param fn
-   * @return HadoopMapRedWriteConfigUtil field
-   * @throws NoSuchFieldException
+   * @return HadoopMapRedWriteConfigUtil field value
    */
-  private Field getConfigField(Function2<TaskContext, Iterator<?>, ?> fn)
-      throws NoSuchFieldException {
-    try {
-      return fn.getClass().getDeclaredField("config$1");
-    } catch (NoSuchFieldException e) {
-      return fn.getClass().getDeclaredField("arg$1");
-    }
+  private Optional<Object> getConfigField(Function2<TaskContext, Iterator<?>, ?> fn) {
+    return FieldAccessors.readField(fn, "config$1", "arg$1");
   }
 
+  /**
+   * Names the job after the RDDs of its lineage, e.g. {@code map_partitions_numbers}. Names of
+   * lineages with many branches are bounded by {@link #MAX_JOB_NAME_LENGTH} by replacing their tail
+   * with a hash of the full name.
+   *
+   * @param rdd
+   * @return
+   */
   static String nameRDD(RDD<?> rdd) {
+    return Rdds.fold(
+        rdd,
+        Rdds.MAX_DEPTH,
+        (RDD<?> node, List<String> dependencyNames) -> boundedName(nameRDD(node, dependencyNames)));
+  }
+
+  private static String nameRDD(RDD<?> rdd, List<String> dependencyNames) {
     String rddName = (String) rdd.name();
     if (rddName == null
 
@@ -154,7 +170,7 @@ class RddExecutionContext implements ExecutionContext {
         // job name will end up differing each time we read a path with a date or other variable
         // directory name
         || (rdd instanceof HadoopRDD
-            && Arrays.stream(FileInputFormat.getInputPaths(((HadoopRDD) rdd).getJobConf()))
+            && Arrays.stream(HadoopInputPaths.read(rdd))
                 .anyMatch(p -> p.toString().contains(rdd.name())))
         // If the map RDD is named the same as its dependent, just use map_partition
         // This happens, e.g., when calling sparkContext.textFile(), as it creates a HadoopRDD, maps
@@ -169,16 +185,10 @@ class RddExecutionContext implements ExecutionContext {
               .replaceAll(CAMEL_TO_SNAKE_CASE, "_$1") // camel case to snake case
               .toLowerCase(Locale.ROOT);
     }
-    Seq<Dependency<?>> deps = (Seq<Dependency<?>>) rdd.dependencies();
-    List<Dependency<?>> dependencies = ScalaConversionUtils.fromSeq(deps);
-    if (dependencies.isEmpty()) {
+    if (dependencyNames.isEmpty()) {
       return rddName;
     }
-    List<String> dependencyNames = new ArrayList<>();
-    for (Dependency d : dependencies) {
-      dependencyNames.add(nameRDD(d.rdd()));
-    }
-    String dependencyName = Strings.join(dependencyNames, "_");
+    String dependencyName = String.join("_", dependencyNames);
     if (!dependencyName.startsWith(rddName)) {
       return rddName + "_" + dependencyName;
     } else {
@@ -186,6 +196,14 @@ class RddExecutionContext implements ExecutionContext {
     }
   }
 
+  static String boundedName(String name) {
+    if (name.length() <= MAX_JOB_NAME_LENGTH) {
+      return name;
+    }
+    String hash = String.format("%08x", name.hashCode());
+    return name.substring(0, MAX_JOB_NAME_LENGTH - hash.length() - 1) + "_" + hash;
+  }
+
   @Override
   public void start(SparkListenerSQLExecutionStart sqlStart) {
     // do nothing
@@ -198,6 +216,10 @@ class RddExecutionContext implements ExecutionContext {
 
   @Override
   public void start(SparkListenerJobStart jobStart) {
+    if (rollup.isPresent()) {
+      // jobs are added to the rollup when they end
+      return;
+    }
     OpenLineage ol = new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI);
     OpenLineage.RunEvent event =
         ol.newRunEventBuilder()
@@ -215,6 +237,19 @@ class RddExecutionContext implements ExecutionContext {
 
   @Override
   public void end(SparkListenerJobEnd jobEnd) {
+    if (rollup.isPresent()) {
+      rollup
+          .get()
+          .add(
+              buildJob(jobEnd.jobId()).getName(),
+              toJobName(applicationName()),
+              inputs,
+              outputs,
+              !(jobEnd.jobResult() instanceof JobFailed),
+              JobMetricsHolder.getInstance().pollMetrics(jobEnd.jobId()),
+              jobEnd.time());
+      return;
+    }
     OpenLineage ol = new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI);
     OpenLineage.RunEvent event =
         ol.newRunEventBuilder()
@@ -271,13 +306,20 @@ class RddExecutionContext implements ExecutionContext {
     if (jobSuffix == null) {
       suffix = String.valueOf(jobId);
     }
-    String jobName = sparkContextOption.map(SparkContext::appName).orElse("unknown") + "." + suffix;
     return new OpenLineage.JobBuilder()
         .namespace(sparkContext.getJobNamespace())
-        .name(jobName.replaceAll(CAMEL_TO_SNAKE_CASE, "_$1").toLowerCase(Locale.ROOT))
+        .name(toJobName(applicationName() + "." + suffix))
         .build();
   }
 
+  private String applicationName() {
+    return sparkContextOption.map(SparkContext::appName).orElse("unknown");
+  }
+
+  private static String toJobName(String name) {
+    return name.replaceAll(CAMEL_TO_SNAKE_CASE, "_$1").toLowerCase(Locale.ROOT);
+  }
+
   protected List<OpenLineage.OutputDataset> buildOutputs(List<URI> outputs) {
     return outputs.stream().map(this::buildOutputDataset).collect(Collectors.toList());
   }
@@ -325,21 +367,7 @@ class RddExecutionContext implements ExecutionContext {
   }
 
   protected Path[] getInputPaths(RDD<?> rdd) {
-    Path[] inputPaths = null;
-    if (rdd instanceof HadoopRDD) {
-      inputPaths =
-          org.apache.hadoop.mapred.FileInputFormat.getInputPaths(
-              ((HadoopRDD<?, ?>) rdd).getJobConf());
-    } else if (rdd instanceof NewHadoopRDD) {
-      try {
-        inputPaths =
-            org.apache.hadoop.mapreduce.lib.input.FileInputFormat.getInputPaths(
-                new Job(((NewHadoopRDD<?, ?>) rdd).getConf()));
-      } catch (IOException e) {
-        log.error("Openlineage spark agent could not get input paths", e);
-      }
-    }
-    return inputPaths;
+    return inputPaths.of(rdd);
   }
 
   // exposed for testing
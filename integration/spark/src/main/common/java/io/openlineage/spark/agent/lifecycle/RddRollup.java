@@ -0,0 +1,268 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.lifecycle;
+
+import io.openlineage.client.OpenLineage;
+import io.openlineage.client.OpenLineage.RunEvent.EventType;
+import io.openlineage.spark.agent.EventEmitter;
+import io.openlineage.spark.agent.JobMetricsHolder.Metric;
+import io.openlineage.spark.agent.client.DatasetParser;
+import io.openlineage.spark.agent.client.OpenLineageClient;
+import io.openlineage.spark.agent.facets.RddRollupFacet;
+import io.openlineage.spark.agent.util.PlanUtils;
+import io.openlineage.spark.agent.util.SparkConfUtils;
+import java.net.URI;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkConf;
+
+/**
+ * Aggregates the lineage of RDD jobs for applications that run many small actions - {@code count},
+ * {@code take} or {@code foreachPartition} in a loop - where a START and COMPLETE event per job
+ * would flood the backend. Enabled with {@link #ENABLED_KEY}.
+ *
+ * <p>Jobs are grouped per application, or by the part of their job name matched by {@link
+ * #GROUP_PATTERN_KEY} - the first capturing group if the pattern has one. Each group is reported as
+ * a single run: a START event when its first job ends, an OTHER event with the deduplicated inputs
+ * and outputs and the summed metrics of all its jobs when a job ends at least {@link
+ * #FLUSH_INTERVAL_KEY} milliseconds after the previous flush, and a COMPLETE event when the
+ * application ends.
+ */
+@Slf4j
+public class RddRollup {
+  public static final String ENABLED_KEY = "openlineage.rdd.rollup.enabled";
+  public static final String GROUP_PATTERN_KEY = "openlineage.rdd.rollup.groupPattern";
+  public static final String FLUSH_INTERVAL_KEY = "openlineage.rdd.rollup.flushIntervalMs";
+
+  static final long DEFAULT_FLUSH_INTERVAL_MS = 60_000L;
+
+  private final EventEmitter emitter;
+  private final Optional<Pattern> groupPattern;
+  private final long flushIntervalMs;
+  private final LongSupplier clock;
+  private final Map<String, Group> groups = new LinkedHashMap<>();
+  private long lastFlush;
+
+  RddRollup(
+      EventEmitter emitter,
+      Optional<Pattern> groupPattern,
+      long flushIntervalMs,
+      LongSupplier clock) {
+    this.emitter = emitter;
+    this.groupPattern = groupPattern;
+    this.flushIntervalMs = flushIntervalMs;
+    this.clock = clock;
+    this.lastFlush = clock.getAsLong();
+  }
+
+  /**
+   * Creates the rollup configured for the application, if rollup mode is enabled.
+   *
+   * @param conf
+   * @param emitter
+   * @return
+   */
+  static Optional<RddRollup> fromConf(SparkConf conf, EventEmitter emitter) {
+    if (conf == null
+        || !SparkConfUtils.findSparkConfigKey(conf, ENABLED_KEY)
+            .map(v -> Boolean.parseBoolean(v.trim()))
+            .orElse(false)) {
+      return Optional.empty();
+    }
+    Optional<Pattern> pattern =
+        SparkConfUtils.findSparkConfigKey(conf, GROUP_PATTERN_KEY)
+            .filter(p -> !p.trim().isEmpty())
+            .flatMap(RddRollup::compile);
+    long interval =
+        SparkConfUtils.findSparkConfigKey(conf, FLUSH_INTERVAL_KEY)
+            .map(RddRollup::parseInterval)
+            .orElse(DEFAULT_FLUSH_INTERVAL_MS);
+    log.info("Rolling up RDD jobs, group pattern: {}, flush interval: {}ms", pattern, interval);
+    return Optional.of(new RddRollup(emitter, pattern, interval, System::currentTimeMillis));
+  }
+
+  private static Optional<Pattern> compile(String pattern) {
+    try {
+      return Optional.of(Pattern.compile(pattern));
+    } catch (PatternSyntaxException e) {
+      log.warn("Invalid value {} for {} - rolling up per application", pattern, GROUP_PATTERN_KEY);
+      return Optional.empty();
+    }
+  }
+
+  private static long parseInterval(String value) {
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      log.warn(
+          "Invalid value {} for {} - using {}",
+          value,
+          FLUSH_INTERVAL_KEY,
+          DEFAULT_FLUSH_INTERVAL_MS);
+      return DEFAULT_FLUSH_INTERVAL_MS;
+    }
+  }
+
+  /**
+   * Adds a finished RDD job to its group. Emits the START event of the group if this is its first
+   * job and flushes all groups if the flush interval has elapsed.
+   *
+   * @param jobName name the job would be reported with outside rollup mode
+   * @param applicationName name of the group of jobs not matched by the group pattern
+   * @param inputs
+   * @param outputs
+   * @param succeeded
+   * @param metrics output metrics of the job
+   * @param time end time of the job
+   */
+  void add(
+      String jobName,
+      String applicationName,
+      Collection<URI> inputs,
+      Collection<URI> outputs,
+      boolean succeeded,
+      Map<Metric, Number> metrics,
+      long time) {
+    List<OpenLineage.RunEvent> events = new ArrayList<>();
+    synchronized (this) {
+      String groupName = groupName(jobName).orElse(applicationName);
+      Group group = groups.computeIfAbsent(groupName, Group::new);
+      group.add(inputs, outputs, succeeded, metrics);
+      if (!group.started) {
+        group.started = true;
+        group.dirty = false;
+        events.add(group.toEvent(EventType.START, time));
+      }
+      long now = clock.getAsLong();
+      if (now - lastFlush >= flushIntervalMs) {
+        lastFlush = now;
+        for (Group g : groups.values()) {
+          if (g.dirty) {
+            g.dirty = false;
+            events.add(g.toEvent(EventType.OTHER, time));
+          }
+        }
+      }
+    }
+    events.forEach(emitter::emit);
+  }
+
+  /**
+   * Emits the COMPLETE event of every group. Called when the application ends.
+   *
+   * @param time end time of the application
+   */
+  void complete(long time) {
+    List<OpenLineage.RunEvent> events;
+    synchronized (this) {
+      events =
+          groups.values().stream()
+              .map(g -> g.toEvent(EventType.COMPLETE, time))
+              .collect(Collectors.toList());
+      groups.clear();
+    }
+    events.forEach(emitter::emit);
+  }
+
+  private Optional<String> groupName(String jobName) {
+    return groupPattern.flatMap(
+        pattern -> {
+          Matcher matcher = pattern.matcher(jobName);
+          if (!matcher.find()) {
+            return Optional.empty();
+          }
+          if (matcher.groupCount() > 0 && matcher.group(1) != null) {
+            return Optional.of(matcher.group(1));
+          }
+          return Optional.of(matcher.group());
+        });
+  }
+
+  private class Group {
+    private final String name;
+    private final UUID runId = UUID.randomUUID();
+    private final Set<URI> inputs = new LinkedHashSet<>();
+    private final Set<URI> outputs = new LinkedHashSet<>();
+    private long jobs;
+    private long failedJobs;
+    private long writeBytes;
+    private long writeRecords;
+    private boolean started;
+    private boolean dirty;
+
+    Group(String name) {
+      this.name = name;
+    }
+
+    void add(
+        Collection<URI> inputs,
+        Collection<URI> outputs,
+        boolean succeeded,
+        Map<Metric, Number> metrics) {
+      this.inputs.addAll(inputs);
+      this.outputs.addAll(outputs);
+      jobs++;
+      if (!succeeded) {
+        failedJobs++;
+      }
+      writeBytes += metrics.getOrDefault(Metric.WRITE_BYTES, 0L).longValue();
+      writeRecords += metrics.getOrDefault(Metric.WRITE_RECORDS, 0L).longValue();
+      dirty = true;
+    }
+
+    OpenLineage.RunEvent toEvent(EventType eventType, long time) {
+      OpenLineage ol = new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI);
+      OpenLineage.RunFacetsBuilder facets = ol.newRunFacetsBuilder();
+      emitter
+          .getParentRunId()
+          .ifPresent(
+              parentRunId ->
+                  facets.parent(
+                      PlanUtils.parentRunFacet(
+                          parentRunId, emitter.getParentJobName(), emitter.getJobNamespace())));
+      facets.put("spark.rddRollup", new RddRollupFacet(jobs, failedJobs, writeBytes, writeRecords));
+      return ol.newRunEventBuilder()
+          .eventTime(ZonedDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC))
+          .eventType(eventType)
+          .inputs(
+              inputs.stream()
+                  .map(DatasetParser::parse)
+                  .map(
+                      r ->
+                          ol.newInputDatasetBuilder()
+                              .namespace(r.getNamespace())
+                              .name(r.getName())
+                              .build())
+                  .collect(Collectors.toList()))
+          .outputs(
+              outputs.stream()
+                  .map(DatasetParser::parse)
+                  .map(
+                      r ->
+                          ol.newOutputDatasetBuilder()
+                              .namespace(r.getNamespace())
+                              .name(r.getName())
+                              .build())
+                  .collect(Collectors.toList()))
+          .run(ol.newRunBuilder().runId(runId).facets(facets.build()).build())
+          .job(ol.newJobBuilder().namespace(emitter.getJobNamespace()).name(name).build())
+          .build();
+    }
+  }
+}
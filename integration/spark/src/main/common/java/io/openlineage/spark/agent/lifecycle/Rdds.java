@@ -2,10 +2,17 @@
 
 package io.openlineage.spark.agent.lifecycle;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiFunction;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.Dependency;
 import org.apache.spark.rdd.RDD;
 import org.apache.spark.scheduler.SparkListenerJobStart;
@@ -13,16 +20,96 @@ import org.apache.spark.scheduler.StageInfo;
 import org.apache.spark.storage.RDDInfo;
 import scala.collection.JavaConversions;
 
+/**
+ * Traversals of the dependency graph of an {@link RDD}. The graph is a DAG - cached RDDs, self
+ * joins and iterative algorithms share parents - and long lineages are common, so it is walked
+ * iteratively, each RDD is visited once and RDDs deeper than {@link #MAX_DEPTH} are ignored.
+ */
+@Slf4j
 public class Rdds {
+  static final int MAX_DEPTH = 10_000;
 
   public static Set<RDD<?>> flattenRDDs(RDD<?> rdd) {
-    Set<RDD<?>> rdds = new HashSet<>();
-    rdds.add(rdd);
+    return flattenRDDs(rdd, MAX_DEPTH);
+  }
+
+  static Set<RDD<?>> flattenRDDs(RDD<?> root, int maxDepth) {
+    Set<RDD<?>> rdds = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<RDD<?>> stack = new ArrayDeque<>();
+    Deque<Integer> depths = new ArrayDeque<>();
+    stack.push(root);
+    depths.push(1);
+    while (!stack.isEmpty()) {
+      RDD<?> rdd = stack.pop();
+      int depth = depths.pop();
+      if (!rdds.add(rdd)) {
+        continue;
+      }
+      if (depth >= maxDepth) {
+        log.debug("Lineage of {} is deeper than {} RDDs - ignoring the rest", root, maxDepth);
+        continue;
+      }
+      for (RDD<?> parent : parents(rdd)) {
+        stack.push(parent);
+        depths.push(depth + 1);
+      }
+    }
+    return rdds;
+  }
+
+  /**
+   * Computes a value for each RDD of the graph from the RDD and the values of its parents, once per
+   * RDD, and returns the value of the root. RDDs at {@code maxDepth} are treated as if they had no
+   * parents.
+   *
+   * @param root
+   * @param maxDepth
+   * @param fn called with an RDD and the values of its parents, in the order of its dependencies
+   * @return
+   */
+  static <T> T fold(RDD<?> root, int maxDepth, BiFunction<RDD<?>, List<T>, T> fn) {
+    Map<RDD<?>, T> values = new IdentityHashMap<>();
+    Deque<RDD<?>> stack = new ArrayDeque<>();
+    Deque<Integer> depths = new ArrayDeque<>();
+    stack.push(root);
+    depths.push(1);
+    while (!stack.isEmpty()) {
+      RDD<?> rdd = stack.peek();
+      int depth = depths.peek();
+      if (values.containsKey(rdd)) {
+        stack.pop();
+        depths.pop();
+        continue;
+      }
+      List<RDD<?>> parents = depth < maxDepth ? parents(rdd) : Collections.emptyList();
+      boolean ready = true;
+      for (RDD<?> parent : parents) {
+        if (!values.containsKey(parent)) {
+          stack.push(parent);
+          depths.push(depth + 1);
+          ready = false;
+        }
+      }
+      if (ready) {
+        stack.pop();
+        depths.pop();
+        List<T> parentValues = new ArrayList<>(parents.size());
+        for (RDD<?> parent : parents) {
+          parentValues.add(values.get(parent));
+        }
+        values.put(rdd, fn.apply(rdd, parentValues));
+      }
+    }
+    return values.get(root);
+  }
+
+  static List<RDD<?>> parents(RDD<?> rdd) {
     Collection<Dependency<?>> deps = JavaConversions.asJavaCollection(rdd.dependencies());
+    List<RDD<?>> parents = new ArrayList<>(deps.size());
     for (Dependency<?> dep : deps) {
-      rdds.addAll(flattenRDDs(dep.rdd()));
+      parents.add(dep.rdd());
     }
-    return rdds;
+    return parents;
   }
 
   static String toString(SparkListenerJobStart jobStart) {
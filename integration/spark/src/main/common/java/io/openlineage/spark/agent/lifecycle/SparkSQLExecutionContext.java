@@ -40,6 +40,8 @@ class SparkSQLExecutionContext implements ExecutionContext {
   private AtomicBoolean started = new AtomicBoolean(false);
   private AtomicBoolean finished = new AtomicBoolean(false);
   private Optional<Integer> jobId = Optional.empty();
+  // the executed plan doesn't change during the execution, so the job name is computed once
+  private String jobName;
 
   public SparkSQLExecutionContext(
       long executionId,
@@ -189,6 +191,13 @@ class SparkSQLExecutionContext implements ExecutionContext {
   }
 
   protected OpenLineage.JobBuilder buildJob(QueryExecution queryExecution) {
+    if (jobName == null) {
+      jobName = jobName(queryExecution);
+    }
+    return openLineage.newJobBuilder().namespace(this.eventEmitter.getJobNamespace()).name(jobName);
+  }
+
+  private String jobName(QueryExecution queryExecution) {
     SparkContext sparkContext = queryExecution.executedPlan().sparkContext();
     SparkPlan node = queryExecution.executedPlan();
 
@@ -196,12 +205,8 @@ class SparkSQLExecutionContext implements ExecutionContext {
     if (node instanceof WholeStageCodegenExec) {
       node = ((WholeStageCodegenExec) node).child();
     }
-    return openLineage
-        .newJobBuilder()
-        .namespace(this.eventEmitter.getJobNamespace())
-        .name(
-            sparkContext.appName().replaceAll(CAMEL_TO_SNAKE_CASE, "_$1").toLowerCase(Locale.ROOT)
-                + "."
-                + node.nodeName().replaceAll(CAMEL_TO_SNAKE_CASE, "_$1").toLowerCase(Locale.ROOT));
+    return sparkContext.appName().replaceAll(CAMEL_TO_SNAKE_CASE, "_$1").toLowerCase(Locale.ROOT)
+        + "."
+        + node.nodeName().replaceAll(CAMEL_TO_SNAKE_CASE, "_$1").toLowerCase(Locale.ROOT);
   }
 }
@@ -8,14 +8,18 @@ import static scala.collection.JavaConversions.seqAsJavaList;
 
 import io.openlineage.spark.agent.facets.LogicalPlanFacet;
 import io.openlineage.spark.agent.facets.UnknownEntryFacet;
+import io.openlineage.spark.agent.util.SparkConfUtils;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkConf;
 import org.apache.spark.sql.catalyst.expressions.AttributeReference;
 import org.apache.spark.sql.catalyst.expressions.AttributeSet;
 import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
@@ -36,9 +40,13 @@ import scala.collection.JavaConversions;
  */
 @Slf4j
 class UnknownEntryFacetListener implements Consumer<LogicalPlan> {
+  public static final String ENABLED_KEY = "openlineage.facets.unknown.enabled";
+  public static final String MAX_ENTRIES_KEY = "openlineage.facets.unknown.maxEntries";
+  public static final String MAX_ENTRY_SIZE_KEY = "openlineage.facets.unknown.maxEntrySize";
+  public static final String MAX_ATTRIBUTES_KEY = "openlineage.facets.unknown.maxAttributes";
 
   private final Map<LogicalPlan, Object> visitedNodes = new IdentityHashMap<>();
-  private final LogicalPlanSerializer planSerializer = new LogicalPlanSerializer();
+  private final LogicalPlanSerializer planSerializer = LogicalPlanSerializer.getInstance();
 
   @Override
   public void accept(LogicalPlan logicalPlan) {
@@ -46,32 +54,82 @@ class UnknownEntryFacetListener implements Consumer<LogicalPlan> {
   }
 
   public Optional<UnknownEntryFacet> build(LogicalPlan root) {
-    Optional<UnknownEntryFacet.FacetEntry> output = mapEntry(root);
+    return build(root, seqAsJavaList(root.collectLeaves()));
+  }
+
+  public Optional<UnknownEntryFacet> build(LogicalPlan root, List<LogicalPlan> leaves) {
+    return build(root, leaves, Limits.DEFAULT);
+  }
+
+  /**
+   * Build the facet from leaves that were already collected, e.g. by the {@link
+   * LogicalPlanTraverser}, so the plan doesn't need to be walked again. Unvisited leaves of the
+   * same class are reported once, with a count, and the number of entries, the size of each
+   * serialized node and the number of attributes are capped by the {@link Limits}.
+   *
+   * @param root
+   * @param leaves
+   * @param limits
+   * @return
+   */
+  public Optional<UnknownEntryFacet> build(
+      LogicalPlan root, List<LogicalPlan> leaves, Limits limits) {
+    if (!limits.isEnabled()) {
+      return Optional.empty();
+    }
+    Optional<UnknownEntryFacet.FacetEntry> output =
+        visitedNodes.containsKey(root) ? Optional.empty() : Optional.of(mapEntry(root, 1, limits));
+
+    Map<Class<?>, LogicalPlan> representatives = new LinkedHashMap<>();
+    Map<Class<?>, Integer> counts = new HashMap<>();
+    for (LogicalPlan leaf : leaves) {
+      if (visitedNodes.containsKey(leaf)) {
+        log.debug("Node was visited - ignoring {}", leaf);
+        continue;
+      }
+      representatives.putIfAbsent(leaf.getClass(), leaf);
+      counts.merge(leaf.getClass(), 1, Integer::sum);
+    }
+    if (representatives.size() > limits.getMaxEntries()) {
+      log.debug(
+          "Reporting {} of {} unknown leaf node classes",
+          limits.getMaxEntries(),
+          representatives.size());
+    }
     List<UnknownEntryFacet.FacetEntry> inputs =
-        seqAsJavaList(root.collectLeaves()).stream()
-            .map(this::mapEntry)
-            .filter(Optional::isPresent)
-            .map(Optional::get)
+        representatives.entrySet().stream()
+            .limit(limits.getMaxEntries())
+            .map(e -> mapEntry(e.getValue(), counts.get(e.getKey()), limits))
             .collect(Collectors.toList());
     return !output.isPresent() && inputs.isEmpty()
         ? Optional.empty()
         : Optional.of(new UnknownEntryFacet(output.orElse(null), inputs));
   }
 
-  private Optional<UnknownEntryFacet.FacetEntry> mapEntry(LogicalPlan x) {
-    if (visitedNodes.containsKey(x)) {
-      log.debug("Node was visited - ignoring {}", x);
-      return Optional.empty();
-    }
-    List<UnknownEntryFacet.AttributeField> output = attributeFields(x.outputSet());
-    List<UnknownEntryFacet.AttributeField> input = attributeFields(x.inputSet());
-    String serializedNode = planSerializer.serialize(x);
-    log.info("Adding serialized node for unknown facet entry {}", serializedNode);
-    return Optional.of(new UnknownEntryFacet.FacetEntry(serializedNode, input, output));
+  private UnknownEntryFacet.FacetEntry mapEntry(LogicalPlan x, int count, Limits limits) {
+    List<UnknownEntryFacet.AttributeField> output =
+        attributeFields(x.outputSet(), limits.getMaxAttributes());
+    List<UnknownEntryFacet.AttributeField> input =
+        attributeFields(x.inputSet(), limits.getMaxAttributes());
+    String serializedNode =
+        planSerializer
+            .serialize(x, limits.getMaxEntrySize())
+            .orElseGet(
+                () ->
+                    "{\"class\":\""
+                        + x.getClass().getName()
+                        + "\",\"truncated\":true,\"maxSize\":"
+                        + limits.getMaxEntrySize()
+                        + "}");
+    log.debug("Adding serialized node for unknown facet entry {}", serializedNode);
+    return new UnknownEntryFacet.FacetEntry(
+        serializedNode, input, output, count > 1 ? count : null);
   }
 
-  private List<UnknownEntryFacet.AttributeField> attributeFields(AttributeSet set) {
+  private List<UnknownEntryFacet.AttributeField> attributeFields(
+      AttributeSet set, int maxAttributes) {
     return JavaConversions.<AttributeReference>asJavaCollection(set.toSet()).stream()
+        .limit(maxAttributes)
         .map(this::mapAttributeReference)
         .collect(Collectors.toList());
   }
@@ -82,4 +140,44 @@ class UnknownEntryFacetListener implements Consumer<LogicalPlan> {
         ofNullable(ar.dataType()).map(DataType::typeName).orElse(null),
         new HashMap<>(mapAsJavaMap(ar.metadata().map())));
   }
+
+  /** Bounds on the size of the {@link UnknownEntryFacet}. */
+  @Value
+  static class Limits {
+    static final Limits DEFAULT = new Limits(true, 20, 64 * 1024, 100);
+
+    boolean enabled;
+    int maxEntries;
+    long maxEntrySize;
+    int maxAttributes;
+
+    static Limits fromConf(SparkConf conf) {
+      if (conf == null) {
+        return DEFAULT;
+      }
+      boolean enabled =
+          SparkConfUtils.findSparkConfigKey(conf, ENABLED_KEY)
+              .map(v -> Boolean.parseBoolean(v.trim()))
+              .orElse(DEFAULT.enabled);
+      return new Limits(
+          enabled,
+          (int) limit(conf, MAX_ENTRIES_KEY, DEFAULT.maxEntries),
+          limit(conf, MAX_ENTRY_SIZE_KEY, DEFAULT.maxEntrySize),
+          (int) limit(conf, MAX_ATTRIBUTES_KEY, DEFAULT.maxAttributes));
+    }
+
+    private static long limit(SparkConf conf, String key, long defaultValue) {
+      Optional<String> value = SparkConfUtils.findSparkConfigKey(conf, key);
+      if (!value.isPresent()) {
+        return defaultValue;
+      }
+      try {
+        long limit = Long.parseLong(value.get().trim());
+        return limit > 0 ? limit : Integer.MAX_VALUE;
+      } catch (NumberFormatException e) {
+        log.warn("Invalid value {} for {} - using {}", value.get(), key, defaultValue);
+        return defaultValue;
+      }
+    }
+  }
 }
@@ -25,6 +25,7 @@ public class AlterTableAddColumnsCommandVisitor
 
   @Override
   public List<OpenLineage.OutputDataset> apply(LogicalPlan x) {
+    invalidateCatalogTable(((AlterTableAddColumnsCommand) x).table());
     Optional<CatalogTable> tableOption = catalogTableFor(((AlterTableAddColumnsCommand) x).table());
     if (!tableOption.isPresent()) {
       return Collections.emptyList();
@@ -30,6 +30,8 @@ public class AlterTableRenameCommandVisitor
   @SneakyThrows
   @Override
   public List<OpenLineage.OutputDataset> apply(LogicalPlan x) {
+    invalidateCatalogTable(((AlterTableRenameCommand) x).oldName());
+    invalidateCatalogTable(((AlterTableRenameCommand) x).newName());
     Optional<CatalogTable> tableOpt = catalogTableFor(((AlterTableRenameCommand) x).newName());
     if (!tableOpt.isPresent()) {
       return Collections.emptyList();
@@ -5,6 +5,8 @@ package io.openlineage.spark.agent.lifecycle.plan;
 import com.google.cloud.spark.bigquery.BigQueryRelation;
 import com.google.cloud.spark.bigquery.BigQueryRelationProvider;
 import io.openlineage.client.OpenLineage;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
 import io.openlineage.spark.api.DatasetFactory;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.QueryPlanVisitor;
@@ -39,15 +41,7 @@ public class BigQueryNodeVisitor<D extends OpenLineage.Dataset>
   }
 
   public static boolean hasBigQueryClasses() {
-    try {
-      BigQueryNodeVisitor.class
-          .getClassLoader()
-          .loadClass("com.google.cloud.spark.bigquery.BigQueryRelation");
-      return true;
-    } catch (Exception e) {
-      // swallow- we don't care
-    }
-    return false;
+    return ClasspathCapabilities.isAvailable(Integration.BIGQUERY);
   }
 
   @Override
@@ -33,6 +33,7 @@ public class DropTableCommandVisitor
   @Override
   public List<OpenLineage.OutputDataset> apply(LogicalPlan x) {
     DropTableCommand command = (DropTableCommand) x;
+    invalidateCatalogTable(command.tableName());
     Optional<CatalogTable> table = catalogTableFor(command.tableName());
     if (table.isPresent()) {
       DatasetIdentifier datasetIdentifier = PathUtils.fromCatalogTable(table.get());
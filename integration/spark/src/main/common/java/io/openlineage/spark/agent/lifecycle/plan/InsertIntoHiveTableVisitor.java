@@ -5,6 +5,8 @@ package io.openlineage.spark.agent.lifecycle.plan;
 import io.openlineage.client.OpenLineage;
 import io.openlineage.spark.agent.facets.TableStateChangeFacet;
 import io.openlineage.spark.agent.facets.TableStateChangeFacet.StateChange;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
 import io.openlineage.spark.agent.util.PathUtils;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.QueryPlanVisitor;
@@ -27,15 +29,7 @@ public class InsertIntoHiveTableVisitor
   }
 
   public static boolean hasHiveClasses() {
-    try {
-      InsertIntoHiveTableVisitor.class
-          .getClassLoader()
-          .loadClass("org.apache.spark.sql.hive.execution.InsertIntoHiveTable");
-      return true;
-    } catch (ClassNotFoundException e) {
-      // ignore
-    }
-    return false;
+    return ClasspathCapabilities.isAvailable(Integration.HIVE);
   }
 
   @Override
@@ -7,12 +7,14 @@ import static io.openlineage.spark.agent.util.ScalaConversionUtils.asJavaOptiona
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openlineage.client.OpenLineage;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
+import io.openlineage.spark.agent.util.FieldAccessors;
 import io.openlineage.spark.agent.util.ScalaConversionUtils;
 import io.openlineage.spark.api.DatasetFactory;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.QueryPlanVisitor;
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.net.URI;
 import java.util.List;
 import java.util.Optional;
@@ -48,15 +50,7 @@ public class KafkaRelationVisitor<D extends OpenLineage.Dataset>
   }
 
   public static boolean hasKafkaClasses() {
-    try {
-      KafkaRelationVisitor.class
-          .getClassLoader()
-          .loadClass("org.apache.spark.sql.kafka010.KafkaSourceProvider");
-      return true;
-    } catch (Exception e) {
-      // swallow- we don't care
-    }
-    return false;
+    return ClasspathCapabilities.isAvailable(Integration.KAFKA);
   }
 
   public static boolean isKafkaSource(CreatableRelationProvider provider) {
@@ -86,10 +80,10 @@ public class KafkaRelationVisitor<D extends OpenLineage.Dataset>
     KafkaRelation relation = (KafkaRelation) ((LogicalRelation) x).relation();
     scala.collection.immutable.Map<String, String> sourceOptions;
     try {
-      Field sourceOptionsField = relation.getClass().getDeclaredField("sourceOptions");
-      sourceOptionsField.setAccessible(true);
       sourceOptions =
-          (scala.collection.immutable.Map<String, String>) sourceOptionsField.get(relation);
+          FieldAccessors.<scala.collection.immutable.Map<String, String>>readField(
+                  relation, "sourceOptions")
+              .orElseThrow(() -> new NoSuchFieldException("sourceOptions"));
     } catch (Exception e) {
       log.error("Can't extract kafka server options", e);
       sourceOptions = Map$.MODULE$.empty();
@@ -71,7 +71,7 @@ public class LogicalRDDVisitor<D extends OpenLineage.Dataset>
             rdd -> {
               Path[] inputPaths = FileInputFormat.getInputPaths(rdd.getJobConf());
               Configuration hadoopConf = rdd.getConf();
-              return Arrays.stream(inputPaths).map(p -> PlanUtils.getDirectoryPath(p, hadoopConf));
+              return PlanUtils.getDirectoryPaths(Arrays.asList(inputPaths), hadoopConf).stream();
             })
         .distinct()
         .map(
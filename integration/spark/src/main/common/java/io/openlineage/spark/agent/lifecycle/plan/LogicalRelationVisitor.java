@@ -3,24 +3,36 @@
 package io.openlineage.spark.agent.lifecycle.plan;
 
 import io.openlineage.client.OpenLineage;
+import io.openlineage.spark.agent.util.DatasetIdentifier;
 import io.openlineage.spark.agent.util.JdbcUtils;
+import io.openlineage.spark.agent.util.PartitionUtils;
 import io.openlineage.spark.agent.util.PlanUtils;
+import io.openlineage.spark.agent.util.ScalaConversionUtils;
+import io.openlineage.spark.agent.util.SqlTableExtractor;
 import io.openlineage.spark.api.DatasetFactory;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.QueryPlanVisitor;
+import java.net.URI;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.SparkConf;
 import org.apache.spark.sql.catalyst.catalog.CatalogTable;
 import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
 import org.apache.spark.sql.execution.datasources.HadoopFsRelation;
 import org.apache.spark.sql.execution.datasources.LogicalRelation;
+import org.apache.spark.sql.execution.datasources.PartitionPath;
+import org.apache.spark.sql.execution.datasources.PartitioningAwareFileIndex;
 import org.apache.spark.sql.execution.datasources.jdbc.JDBCOptions;
 import org.apache.spark.sql.execution.datasources.jdbc.JDBCRelation;
 import scala.collection.JavaConversions;
-import scala.runtime.AbstractFunction0;
 
 /**
  * {@link LogicalPlan} visitor that attempts to extract a {@link OpenLineage.Dataset} from a {@link
@@ -30,22 +42,22 @@ import scala.runtime.AbstractFunction0;
  *
  * <p>For {@link HadoopFsRelation}s, it is assumed that a single directory maps to a single {@link
  * OpenLineage.Dataset}. Any files referenced are replaced by their parent directory and all files
- * in a given directory are assumed to belong to the same {@link OpenLineage.Dataset}. Directory
- * partitioning is currently not addressed.
+ * in a given directory are assumed to belong to the same {@link OpenLineage.Dataset}. Hive-style
+ * partition directories ({@code key=value}), whether they are root paths of the relation or
+ * partitions discovered by a {@link PartitioningAwareFileIndex}, can be collapsed into a single
+ * {@link OpenLineage.Dataset} at the table root with a {@code partitions} facet by enabling {@link
+ * PartitionUtils#COLLAPSE_KEY}.
  *
  * <p>For {@link JDBCRelation}s, {@link OpenLineage.Dataset} naming expects the namespace to be the
  * JDBC connection URL (schema and authority only) and the table name to be the <code>
  * &lt;database&gt;
- * </code>.<code>&lt;tableName&gt;</code>.
+ * </code>.<code>&lt;tableName&gt;</code>. If the relation reads a query, either the {@link
+ * JDBCOptions#JDBC_QUERY_STRING()} option or a subquery in place of the table, a {@link
+ * OpenLineage.Dataset} is returned for each table the query references.
  *
  * <p>{@link org.apache.spark.sql.catalyst.catalog.CatalogTable}s, if present, can be used to
  * describe the {@link OpenLineage.Dataset} if its {@link org.apache.spark.sql.sources.BaseRelation}
  * is unknown.
- *
- * <p>TODO If a user specifies the {@link JDBCOptions#JDBC_QUERY_STRING()} option, we do not parse
- * the sql to determine the specific tables used. Since we return a List of {@link
- * OpenLineage.Dataset}s, we can parse the sql and determine each table referenced to return a
- * complete list of datasets referenced.
  */
 @Slf4j
 public class LogicalRelationVisitor<D extends OpenLineage.Dataset>
@@ -91,35 +103,76 @@ public class LogicalRelationVisitor<D extends OpenLineage.Dataset>
   private List<D> handleHadoopFsRelation(LogicalRelation x) {
     HadoopFsRelation relation = (HadoopFsRelation) x.relation();
     Configuration hadoopConfig = context.getSparkContext().hadoopConfiguration();
-    return JavaConversions.asJavaCollection(relation.location().rootPaths()).stream()
-        .map(p -> PlanUtils.getDirectoryPath(p, hadoopConfig))
-        .distinct()
+    SparkConf sparkConf = context.getSparkContext().conf();
+    List<Path> directories =
+        PlanUtils.getDirectoryPaths(
+                JavaConversions.asJavaCollection(relation.location().rootPaths()), hadoopConfig)
+            .stream()
+            .distinct()
+            .collect(Collectors.toList());
+    if (!PartitionUtils.isCollapsingEnabled(sparkConf)) {
+      return directories.stream()
+          .map(p -> datasetFactory.getDataset(p.toUri(), relation.schema()))
+          .collect(Collectors.toList());
+    }
+
+    // partition directories are collapsed into a single dataset at the table root
+    Map<Path, Set<Path>> partitionsByRoot = new LinkedHashMap<>();
+    for (Path directory : directories) {
+      Path root = PartitionUtils.tableRoot(directory);
+      Set<Path> partitions = partitionsByRoot.computeIfAbsent(root, r -> new LinkedHashSet<>());
+      if (!root.equals(directory)) {
+        partitions.add(directory);
+      }
+    }
+    for (Path partition : partitionPaths(relation)) {
+      Path root = PartitionUtils.tableRoot(partition);
+      if (partitionsByRoot.containsKey(root) && !root.equals(partition)) {
+        partitionsByRoot.get(root).add(partition);
+      }
+    }
+
+    int maxListed = PartitionUtils.maxListedPartitions(sparkConf);
+    return partitionsByRoot.entrySet().stream()
         .map(
-            p -> {
-              // TODO- refactor this to return a single partitioned dataset based on static
-              // static partitions in the relation
-              return datasetFactory.getDataset(p.toUri(), relation.schema());
+            e -> {
+              URI uri = e.getKey().toUri();
+              if (e.getValue().isEmpty()) {
+                return datasetFactory.getDataset(uri, relation.schema());
+              }
+              return datasetFactory.getDataset(
+                  new DatasetIdentifier(uri.getPath(), PlanUtils.namespaceUri(uri)),
+                  relation.schema(),
+                  Collections.singletonMap(
+                      "partitions",
+                      PartitionUtils.partitionsFacet(e.getKey(), e.getValue(), maxListed)));
             })
         .collect(Collectors.toList());
   }
 
+  /**
+   * Partition directories already discovered by Spark, if the file index keeps them. These are the
+   * partitions of the table unless the optimizer already pruned the file index.
+   */
+  private List<Path> partitionPaths(HadoopFsRelation relation) {
+    if (!(relation.location() instanceof PartitioningAwareFileIndex)
+        || relation.partitionSchema().isEmpty()) {
+      return Collections.emptyList();
+    }
+    try {
+      return ScalaConversionUtils.fromSeq(
+              ((PartitioningAwareFileIndex) relation.location()).partitionSpec().partitions())
+          .stream()
+          .map(PartitionPath::path)
+          .collect(Collectors.toList());
+    } catch (Exception e) {
+      log.debug("Unable to get partitions of {}", relation.location(), e);
+      return Collections.emptyList();
+    }
+  }
+
   private List<D> handleJdbcRelation(LogicalRelation x) {
     JDBCRelation relation = (JDBCRelation) x.relation();
-    // TODO- if a relation is composed of a complex sql query, we should attempt to
-    // extract the
-    // table names so that we can construct a true lineage
-    String tableName =
-        relation
-            .jdbcOptions()
-            .parameters()
-            .get(JDBCOptions.JDBC_TABLE_NAME())
-            .getOrElse(
-                new AbstractFunction0<String>() {
-                  @Override
-                  public String apply() {
-                    return "COMPLEX";
-                  }
-                });
     // strip the jdbc: prefix from the url. this leaves us with a url like
     // postgresql://<hostname>:<port>/<database_name>?params
     // we don't parse the URI here because different drivers use different connection
@@ -127,6 +180,36 @@ public class LogicalRelationVisitor<D extends OpenLineage.Dataset>
     // driver format looks like oracle:<drivertype>:<user>/<password>@<database>
     // whereas postgres, mysql, and sqlserver use the scheme://hostname:port/db format.
     String url = JdbcUtils.sanitizeJdbcUrl(relation.jdbcOptions().url());
-    return Collections.singletonList(datasetFactory.getDataset(tableName, url, relation.schema()));
+    scala.collection.immutable.Map<String, String> parameters = relation.jdbcOptions().parameters();
+    String tableName =
+        ScalaConversionUtils.asJavaOptional(parameters.get(JDBCOptions.JDBC_TABLE_NAME()))
+            .orElse(null);
+    if (tableName != null && !tableName.trim().startsWith("(")) {
+      return Collections.singletonList(
+          datasetFactory.getDataset(tableName, url, relation.schema()));
+    }
+
+    // the relation is a query - either the query option or a subquery in place of the table -
+    // so report the tables it reads from
+    String query =
+        tableName != null
+            ? tableName
+            : ScalaConversionUtils.asJavaOptional(parameters.get(JDBCOptions.JDBC_QUERY_STRING()))
+                .orElse(null);
+    List<String> tables = SqlTableExtractor.tables(query);
+    if (tables.isEmpty()) {
+      return Collections.singletonList(
+          datasetFactory.getDataset("COMPLEX", url, relation.schema()));
+    }
+    // the schema of the relation is the result of the query, not the schema of any of the tables
+    OpenLineage.DatasetFacets facets =
+        context
+            .getOpenLineage()
+            .newDatasetFacetsBuilder()
+            .dataSource(PlanUtils.datasourceFacet(context.getOpenLineage(), url))
+            .build();
+    return tables.stream()
+        .map(table -> datasetFactory.getDataset(table, url, facets))
+        .collect(Collectors.toList());
   }
 }
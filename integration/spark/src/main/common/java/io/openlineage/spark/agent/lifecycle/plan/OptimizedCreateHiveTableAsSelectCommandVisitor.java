@@ -5,6 +5,8 @@ package io.openlineage.spark.agent.lifecycle.plan;
 import io.openlineage.client.OpenLineage;
 import io.openlineage.spark.agent.facets.TableStateChangeFacet;
 import io.openlineage.spark.agent.facets.TableStateChangeFacet.StateChange;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
 import io.openlineage.spark.agent.util.DatasetIdentifier;
 import io.openlineage.spark.agent.util.PathUtils;
 import io.openlineage.spark.agent.util.ScalaConversionUtils;
@@ -34,15 +36,7 @@ public class OptimizedCreateHiveTableAsSelectCommandVisitor
 
   // OptimizedCreateHiveTableAsSelectCommand has been added in Spark 2.4.8
   public static boolean hasClasses() {
-    try {
-      OptimizedCreateHiveTableAsSelectCommandVisitor.class
-          .getClassLoader()
-          .loadClass("org.apache.spark.sql.hive.execution.OptimizedCreateHiveTableAsSelectCommand");
-      return true;
-    } catch (Exception e) {
-      // swallow- we don't care
-    }
-    return false;
+    return ClasspathCapabilities.isAvailable(Integration.HIVE_OPTIMIZED_CTAS);
   }
 
   @Override
@@ -1,6 +1,8 @@
 package io.openlineage.spark.agent.lifecycle.plan;
 
 import io.openlineage.client.OpenLineage;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
 import io.openlineage.spark.api.DatasetFactory;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.QueryPlanVisitor;
@@ -41,13 +43,7 @@ public class SqlDWDatabricksVisitor<D extends OpenLineage.Dataset>
   }
 
   public static boolean hasSqlDWDatabricksClasses() {
-    try {
-      SqlDWDatabricksVisitor.class.getClassLoader().loadClass(DATABRICKS_CLASS_NAME);
-      return true;
-    } catch (Exception e) {
-      // swallow- we don't care
-    }
-    return false;
+    return ClasspathCapabilities.isAvailable(Integration.SQL_DW_DATABRICKS);
   }
 
   protected boolean isSqlDwRelationClass(LogicalPlan plan) {
@@ -0,0 +1,166 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkConf;
+import org.apache.spark.sql.catalyst.TableIdentifier;
+import org.apache.spark.sql.catalyst.catalog.CatalogTable;
+
+/**
+ * Application-wide cache of {@link CatalogTable}s and the {@link DatasetIdentifier}s derived from
+ * their default table path, keyed by qualified table name. Against a remote Hive metastore every
+ * lookup is an RPC, and the same tables are looked up for the START and COMPLETE events of every
+ * execution.
+ *
+ * <p>Entries expire after {@link #TTL_KEY} milliseconds and are invalidated by the visitors of DDL
+ * commands ({@code DROP TABLE}, {@code ALTER TABLE}) for the table they change, so those visitors
+ * always see the current state of the catalog. Changes made outside of the application, e.g. by
+ * another Spark application or directly in the metastore, are only picked up once entries expire,
+ * so the TTL is the upper bound on how stale cached metadata can be.
+ */
+@Slf4j
+public class CatalogTableCache {
+  public static final String TTL_KEY = "openlineage.catalog.cache.ttlMs";
+  static final long DEFAULT_TTL_MS = 60 * 1000;
+  static final int MAX_ENTRIES = 10_000;
+
+  private static final CatalogTableCache INSTANCE =
+      new CatalogTableCache(System::currentTimeMillis);
+
+  private final Map<String, CachedValue<CatalogTable>> tables = lruMap();
+  private final Map<String, CachedValue<DatasetIdentifier>> identifiers = lruMap();
+  private final LongSupplier clock;
+
+  CatalogTableCache(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  public static CatalogTableCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the configured time to live of cache entries; zero or less disables caching.
+   *
+   * @param conf may be null
+   * @return
+   */
+  public static long ttl(SparkConf conf) {
+    Optional<String> value =
+        Optional.ofNullable(conf).flatMap(c -> SparkConfUtils.findSparkConfigKey(c, TTL_KEY));
+    try {
+      return value.map(v -> Long.parseLong(v.trim())).orElse(DEFAULT_TTL_MS);
+    } catch (NumberFormatException e) {
+      log.warn("Invalid value {} for {} - using {}", value.get(), TTL_KEY, DEFAULT_TTL_MS);
+      return DEFAULT_TTL_MS;
+    }
+  }
+
+  /**
+   * Catalog tables are case insensitive, so the key is the lower case {@code database.table}, using
+   * the current database if the identifier doesn't have one.
+   *
+   * @param tableId
+   * @param currentDatabase
+   * @return
+   */
+  public static String qualifiedName(TableIdentifier tableId, String currentDatabase) {
+    String database = tableId.database().isDefined() ? tableId.database().get() : currentDatabase;
+    return (database + "." + tableId.table()).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Key of a table in a V2 catalog, e.g. {@code spark_catalog}, from its namespace and name.
+   *
+   * @param namespace
+   * @param name
+   * @return
+   */
+  public static String qualifiedName(String[] namespace, String name) {
+    String prefix = namespace == null ? "" : String.join(".", namespace) + ".";
+    return (prefix + name).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the cached table or loads it. Tables that can't be found are not cached.
+   *
+   * @param qualifiedName
+   * @param ttlMs
+   * @param loader
+   * @return
+   */
+  public Optional<CatalogTable> getTable(
+      String qualifiedName, long ttlMs, Supplier<Optional<CatalogTable>> loader) {
+    CatalogTable cached = lookup(tables, qualifiedName, ttlMs);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    Optional<CatalogTable> table = loader.get();
+    table.ifPresent(t -> store(tables, qualifiedName, t, ttlMs));
+    return table;
+  }
+
+  public DatasetIdentifier getIdentifier(
+      String qualifiedName, long ttlMs, Supplier<DatasetIdentifier> loader) {
+    DatasetIdentifier cached = lookup(identifiers, qualifiedName, ttlMs);
+    if (cached != null) {
+      return cached;
+    }
+    DatasetIdentifier identifier = loader.get();
+    store(identifiers, qualifiedName, identifier, ttlMs);
+    return identifier;
+  }
+
+  public synchronized void invalidate(String qualifiedName) {
+    log.debug("Invalidating cached catalog metadata of {}", qualifiedName);
+    tables.remove(qualifiedName);
+    identifiers.remove(qualifiedName);
+  }
+
+  public synchronized void clear() {
+    tables.clear();
+    identifiers.clear();
+  }
+
+  private synchronized <T> T lookup(Map<String, CachedValue<T>> entries, String key, long ttlMs) {
+    CachedValue<T> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (ttlMs <= 0 || clock.getAsLong() - entry.getTimestamp() > ttlMs) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.getValue();
+  }
+
+  private synchronized <T> void store(
+      Map<String, CachedValue<T>> entries, String key, T value, long ttlMs) {
+    if (ttlMs > 0) {
+      entries.put(key, new CachedValue<>(value, clock.getAsLong()));
+    }
+  }
+
+  private static <T> Map<String, CachedValue<T>> lruMap() {
+    return new LinkedHashMap<String, CachedValue<T>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedValue<T>> eldest) {
+        return size() > MAX_ENTRIES;
+      }
+    };
+  }
+
+  @Value
+  private static class CachedValue<T> {
+    T value;
+    long timestamp;
+  }
+}
@@ -0,0 +1,77 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of the optional integrations available on the classpath. The classpath doesn't change
+ * during the lifetime of the application, so it is probed once, when the agent starts, and visitors
+ * and catalog handlers of integrations that aren't available are never created or dispatched to.
+ */
+@Slf4j
+public final class ClasspathCapabilities {
+
+  public enum Integration {
+    BIGQUERY("com.google.cloud.spark.bigquery.BigQueryRelation"),
+    DATABRICKS_DELTA("com.databricks.sql.transaction.tahoe.catalog.DeltaCatalog"),
+    DELTA("org.apache.spark.sql.delta.catalog.DeltaCatalog"),
+    HIVE("org.apache.spark.sql.hive.execution.InsertIntoHiveTable"),
+    HIVE_OPTIMIZED_CTAS(
+        "org.apache.spark.sql.hive.execution.OptimizedCreateHiveTableAsSelectCommand"),
+    ICEBERG("org.apache.iceberg.catalog.Catalog"),
+    KAFKA("org.apache.spark.sql.kafka010.KafkaSourceProvider"),
+    SQL_DW_DATABRICKS("com.databricks.spark.sqldw.SqlDWRelation");
+
+    private final String className;
+
+    Integration(String className) {
+      this.className = className;
+    }
+
+    public String getClassName() {
+      return className;
+    }
+  }
+
+  private ClasspathCapabilities() {}
+
+  private static class Holder {
+    private static final Set<Integration> AVAILABLE =
+        Collections.unmodifiableSet(probe(ClasspathCapabilities.class.getClassLoader()));
+
+    static {
+      log.info("Integrations available on the classpath: {}", AVAILABLE);
+    }
+  }
+
+  /** Probes the classpath, if that hasn't been done yet. Called when the agent starts. */
+  public static void init() {
+    available();
+  }
+
+  public static Set<Integration> available() {
+    return Holder.AVAILABLE;
+  }
+
+  public static boolean isAvailable(Integration integration) {
+    return Holder.AVAILABLE.contains(integration);
+  }
+
+  static Set<Integration> probe(ClassLoader classLoader) {
+    Set<Integration> available = EnumSet.noneOf(Integration.class);
+    for (Integration integration : Integration.values()) {
+      try {
+        // don't initialize the class - only its presence matters
+        Class.forName(integration.getClassName(), false, classLoader);
+        available.add(integration);
+      } catch (ClassNotFoundException | LinkageError e) {
+        // swallow- we don't care
+      }
+    }
+    return available;
+  }
+}
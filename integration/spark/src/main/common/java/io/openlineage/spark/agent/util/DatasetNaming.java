@@ -0,0 +1,114 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Memoizes the naming of datasets. The same few hundred locations - paths, URIs, JDBC URLs - are
+ * resolved to dataset names for every event of the application, so the naming functions of {@link
+ * PathUtils}, {@link PlanUtils} and {@link JdbcUtils} keep their results in bounded LRU caches, and
+ * {@link DatasetIdentifier}s and namespaces are interned so that equal ones are shared by all
+ * events. The same memoization is used for other values derived again and again from the same
+ * input, like the tables of a query or the fields of a schema.
+ */
+public final class DatasetNaming {
+  static final int MAX_ENTRIES = 10_000;
+
+  private static final List<Memo<?, ?>> memos = new CopyOnWriteArrayList<>();
+
+  private static final Memo<String, String> namespaces = memoize(Function.identity());
+  private static final Memo<DatasetIdentifier, DatasetIdentifier> identifiers =
+      memoize(id -> new DatasetIdentifier(id.getName(), namespace(id.getNamespace())));
+
+  private DatasetNaming() {}
+
+  /**
+   * Returns a function that caches the results of the given one, up to {@link #MAX_ENTRIES}. Null
+   * results are not cached.
+   *
+   * @param function must be side effect free
+   * @return
+   */
+  public static <K, V> Memo<K, V> memoize(Function<K, V> function) {
+    return memoize(function, MAX_ENTRIES);
+  }
+
+  /**
+   * Returns a function that caches the results of the given one, up to {@code maxEntries}.
+   *
+   * @param function must be side effect free
+   * @param maxEntries
+   * @return
+   */
+  public static <K, V> Memo<K, V> memoize(Function<K, V> function, int maxEntries) {
+    Memo<K, V> memo = new Memo<>(function, maxEntries);
+    memos.add(memo);
+    return memo;
+  }
+
+  /** Returns the shared instance of the namespace. */
+  public static String namespace(String namespace) {
+    return namespace == null ? null : namespaces.apply(namespace);
+  }
+
+  /** Returns the shared instance of the identifier, with a shared namespace. */
+  public static DatasetIdentifier identifier(DatasetIdentifier identifier) {
+    return identifier == null ? null : identifiers.apply(identifier);
+  }
+
+  /** Clears all caches. */
+  public static void clear() {
+    memos.forEach(Memo::clear);
+  }
+
+  /** Bounded, thread-safe memoized function. */
+  public static final class Memo<K, V> implements Function<K, V> {
+    private final Function<K, V> function;
+    private final Map<K, V> entries;
+
+    private Memo(Function<K, V> function, int maxEntries) {
+      this.function = function;
+      this.entries =
+          new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+              return size() > maxEntries;
+            }
+          };
+    }
+
+    @Override
+    public V apply(K key) {
+      synchronized (this) {
+        V cached = entries.get(key);
+        if (cached != null) {
+          return cached;
+        }
+      }
+      // computed without holding the lock; a concurrent caller may compute the same value
+      V value = function.apply(key);
+      if (value != null) {
+        synchronized (this) {
+          V existing = entries.putIfAbsent(key, value);
+          if (existing != null) {
+            return existing;
+          }
+        }
+      }
+      return value;
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+
+    synchronized void clear() {
+      entries.clear();
+    }
+  }
+}
@@ -0,0 +1,275 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.SparkConf;
+
+/**
+ * Maps input paths to the directories that identify datasets: files are replaced by their parent
+ * directory and directories are returned as they are. Deciding between the two requires a {@code
+ * FileSystem.getFileStatus} call, which is a remote request on object stores, so statuses are kept
+ * in an application-wide LRU cache with a TTL and uncached paths are looked up in parallel on an
+ * application-wide pool with a bounded number of daemon threads.
+ *
+ * <p>Setting {@link #MODE_KEY} to {@code heuristic} avoids the file system entirely and treats a
+ * path as a file when its name has a known data file extension or looks like a Spark/Hadoop part
+ * file.
+ */
+@Slf4j
+public class DirectoryPathResolver {
+  public static final String MODE_KEY = "openlineage.fs.directoryResolution";
+  public static final String CACHE_TTL_KEY = "openlineage.fs.statusCache.ttlMs";
+  public static final String CACHE_SIZE_KEY = "openlineage.fs.statusCache.maxEntries";
+  public static final String PARALLELISM_KEY = "openlineage.fs.statusLookup.parallelism";
+
+  static final String HEURISTIC_MODE = "heuristic";
+  static final long DEFAULT_CACHE_TTL_MS = 10 * 60 * 1000;
+  static final int DEFAULT_CACHE_SIZE = 10_000;
+  static final int DEFAULT_PARALLELISM = 8;
+
+  private static final Set<String> FILE_EXTENSIONS =
+      new HashSet<>(
+          Arrays.asList(
+              "parquet", "orc", "avro", "csv", "tsv", "json", "jsonl", "txt", "text", "xml", "seq",
+              "gz", "gzip", "bz2", "snappy", "lz4", "zst", "zstd", "deflate", "zip", "xz", "lzo"));
+
+  static final StatusCache cache = new StatusCache(DEFAULT_CACHE_SIZE);
+
+  private static final AtomicInteger threadCount = new AtomicInteger();
+  private static final ThreadPoolExecutor executor = newExecutor();
+
+  private static volatile DirectoryPathResolver instance =
+      new DirectoryPathResolver(
+          false, DEFAULT_CACHE_TTL_MS, DEFAULT_PARALLELISM, System::currentTimeMillis);
+
+  private final boolean heuristic;
+  private final long cacheTtlMs;
+  private final int parallelism;
+  private final LongSupplier clock;
+
+  DirectoryPathResolver(boolean heuristic, long cacheTtlMs, int parallelism, LongSupplier clock) {
+    this.heuristic = heuristic;
+    this.cacheTtlMs = cacheTtlMs;
+    this.parallelism = parallelism;
+    this.clock = clock;
+  }
+
+  /**
+   * Reads the resolution mode, cache and pool settings. Called when the application starts.
+   *
+   * @param conf
+   */
+  public static void configure(SparkConf conf) {
+    boolean heuristic =
+        SparkConfUtils.findSparkConfigKey(conf, MODE_KEY)
+            .map(mode -> HEURISTIC_MODE.equalsIgnoreCase(mode.trim()))
+            .orElse(false);
+    cache.setMaxEntries((int) number(conf, CACHE_SIZE_KEY, DEFAULT_CACHE_SIZE));
+    int parallelism = (int) Math.max(1, number(conf, PARALLELISM_KEY, DEFAULT_PARALLELISM));
+    setPoolSize(parallelism);
+    instance =
+        new DirectoryPathResolver(
+            heuristic,
+            number(conf, CACHE_TTL_KEY, DEFAULT_CACHE_TTL_MS),
+            parallelism,
+            System::currentTimeMillis);
+  }
+
+  /** Returns the resolver configured by {@link #configure(SparkConf)}. */
+  public static DirectoryPathResolver getInstance() {
+    return instance;
+  }
+
+  private static ThreadPoolExecutor newExecutor() {
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            DEFAULT_PARALLELISM,
+            DEFAULT_PARALLELISM,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+              Thread thread =
+                  new Thread(r, "openlineage-file-status-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    // don't keep threads around between executions
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  private static synchronized void setPoolSize(int size) {
+    if (size > executor.getMaximumPoolSize()) {
+      executor.setMaximumPoolSize(size);
+      executor.setCorePoolSize(size);
+    } else {
+      executor.setCorePoolSize(size);
+      executor.setMaximumPoolSize(size);
+    }
+  }
+
+  public Path resolve(Path path, Configuration hadoopConf) {
+    return toDirectory(path, isFile(path, hadoopConf));
+  }
+
+  /**
+   * Resolve all paths, keeping their order. Paths missing from the cache are looked up in parallel.
+   *
+   * @param paths
+   * @param hadoopConf
+   * @return
+   */
+  public List<Path> resolve(Collection<Path> paths, Configuration hadoopConf) {
+    if (heuristic || paths.size() < 2 || parallelism < 2) {
+      return paths.stream().map(p -> resolve(p, hadoopConf)).collect(Collectors.toList());
+    }
+    long now = clock.getAsLong();
+    List<Path> uncached =
+        paths.stream()
+            .filter(p -> !cache.isFile(p, now, cacheTtlMs).isPresent())
+            .distinct()
+            .collect(Collectors.toList());
+    // failed lookups aren't cached, so their results are reused rather than fetched again
+    Map<Path, Optional<Boolean>> lookedUp =
+        uncached.size() > 1 ? lookUpInParallel(uncached, hadoopConf) : new HashMap<>();
+    return paths.stream()
+        .map(
+            p -> lookedUp.containsKey(p) ? toDirectory(p, lookedUp.get(p)) : resolve(p, hadoopConf))
+        .collect(Collectors.toList());
+  }
+
+  private Map<Path, Optional<Boolean>> lookUpInParallel(
+      List<Path> paths, Configuration hadoopConf) {
+    Map<Path, Optional<Boolean>> results = new ConcurrentHashMap<>();
+    CompletableFuture.allOf(
+            paths.stream()
+                .map(
+                    p ->
+                        CompletableFuture.runAsync(
+                            () -> results.put(p, isFile(p, hadoopConf)), executor))
+                .toArray(CompletableFuture[]::new))
+        .join();
+    return results;
+  }
+
+  private Optional<Boolean> isFile(Path path, Configuration hadoopConf) {
+    if (heuristic) {
+      return Optional.of(looksLikeFile(path));
+    }
+    long now = clock.getAsLong();
+    Optional<Boolean> cached = cache.isFile(path, now, cacheTtlMs);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    try {
+      boolean isFile = path.getFileSystem(hadoopConf).getFileStatus(path).isFile();
+      cache.put(path, isFile, now);
+      return Optional.of(isFile);
+    } catch (IOException e) {
+      log.warn("Unable to get file system for path ", e);
+      return Optional.empty();
+    }
+  }
+
+  private static Path toDirectory(Path path, Optional<Boolean> isFile) {
+    return isFile.orElse(false) ? path.getParent() : path;
+  }
+
+  static boolean looksLikeFile(Path path) {
+    String name = path.getName();
+    if (name.startsWith("part-")) {
+      return true;
+    }
+    int dot = name.lastIndexOf('.');
+    return dot > 0 && FILE_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+  }
+
+  private static long number(SparkConf conf, String key, long defaultValue) {
+    Optional<String> value = SparkConfUtils.findSparkConfigKey(conf, key);
+    if (!value.isPresent()) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value.get().trim());
+    } catch (NumberFormatException e) {
+      log.warn("Invalid value {} for {} - using {}", value.get(), key, defaultValue);
+      return defaultValue;
+    }
+  }
+
+  /** LRU cache of file statuses, shared by all executions of the application. */
+  static class StatusCache {
+    private final Map<Path, Status> entries;
+    private volatile int maxEntries;
+
+    StatusCache(int maxEntries) {
+      this.maxEntries = maxEntries;
+      this.entries =
+          new LinkedHashMap<Path, Status>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Status> eldest) {
+              return size() > StatusCache.this.maxEntries;
+            }
+          };
+    }
+
+    void setMaxEntries(int maxEntries) {
+      this.maxEntries = Math.max(0, maxEntries);
+    }
+
+    /** Returns whether the path is a file, or empty if not cached or older than the ttl. */
+    synchronized Optional<Boolean> isFile(Path path, long now, long ttlMs) {
+      Status status = entries.get(path);
+      if (status == null) {
+        return Optional.empty();
+      }
+      if (now - status.getTimestamp() > ttlMs) {
+        entries.remove(path);
+        return Optional.empty();
+      }
+      return Optional.of(status.isFile());
+    }
+
+    synchronized void put(Path path, boolean isFile, long now) {
+      entries.put(path, new Status(isFile, now));
+    }
+
+    synchronized void clear() {
+      entries.clear();
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+
+    @Value
+    private static class Status {
+      boolean file;
+      long timestamp;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads private fields of Spark classes that don't expose what the agent needs, e.g. the options of
+ * a {@code KafkaRelation} or the job configuration captured by a write function. Fields are
+ * resolved to {@link MethodHandle}s once per class and field name; fields that don't exist are
+ * remembered too, so a miss costs a map lookup instead of a {@link NoSuchFieldException}.
+ */
+@Slf4j
+public final class FieldAccessors {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /** Getters of the declared fields of a class, by lookup key. Misses are empty lists. */
+  private static final ClassValue<Map<String, List<MethodHandle>>> getters =
+      new ClassValue<Map<String, List<MethodHandle>>>() {
+        @Override
+        protected Map<String, List<MethodHandle>> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private FieldAccessors() {}
+
+  /**
+   * Returns the value of the first of the named fields declared by the class of the target.
+   *
+   * @param target
+   * @param fieldNames names to try in order, e.g. the names of the field in different Spark
+   *     versions
+   * @return the value, or empty if none of the fields exists or the value is null
+   */
+  public static <T> Optional<T> readField(Object target, String... fieldNames) {
+    for (String fieldName : fieldNames) {
+      Optional<MethodHandle> getter = getter(target.getClass(), fieldName);
+      if (getter.isPresent()) {
+        return Optional.ofNullable(invoke(getter.get(), target));
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the getter of a field declared by the class.
+   *
+   * @param type
+   * @param fieldName
+   * @return
+   */
+  public static Optional<MethodHandle> getter(Class<?> type, String fieldName) {
+    List<MethodHandle> handles =
+        getters
+            .get(type)
+            .computeIfAbsent(fieldName, name -> resolve(type, f -> f.getName().equals(name)));
+    return handles.isEmpty() ? Optional.empty() : Optional.of(handles.get(0));
+  }
+
+  /**
+   * Returns the getters of the fields declared by the class whose name ends with the suffix and
+   * whose type is assignable to the given one. Scala prefixes the names of private fields accessed
+   * from other classes with the name of their class, e.g. {@code
+   * org$apache$spark$rdd$PairRDDFunctions$$self}.
+   *
+   * @param type
+   * @param nameSuffix
+   * @param fieldType
+   * @return
+   */
+  public static List<MethodHandle> getters(Class<?> type, String nameSuffix, Class<?> fieldType) {
+    return getters
+        .get(type)
+        .computeIfAbsent(
+            "*" + nameSuffix + ":" + fieldType.getName(),
+            key ->
+                resolve(
+                    type,
+                    f ->
+                        f.getName().endsWith(nameSuffix)
+                            && fieldType.isAssignableFrom(f.getType())));
+  }
+
+  /**
+   * Invokes a getter returned by this class.
+   *
+   * @param getter
+   * @param target
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T invoke(MethodHandle getter, Object target) {
+    try {
+      return (T) getter.invoke(target);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static List<MethodHandle> resolve(Class<?> type, Predicate<Field> predicate) {
+    List<MethodHandle> handles = new ArrayList<>();
+    for (Field field : type.getDeclaredFields()) {
+      if (predicate.test(field)) {
+        try {
+          field.setAccessible(true);
+          handles.add(LOOKUP.unreflectGetter(field));
+        } catch (IllegalAccessException | RuntimeException e) {
+          log.warn("Unable to access field {} of {}", field.getName(), type.getName(), e);
+        }
+      }
+    }
+    return handles.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(handles);
+  }
+}
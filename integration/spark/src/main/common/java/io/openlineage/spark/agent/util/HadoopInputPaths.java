@@ -0,0 +1,67 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.util.StringUtils;
+import org.apache.spark.rdd.HadoopRDD;
+import org.apache.spark.rdd.NewHadoopRDD;
+import org.apache.spark.rdd.RDD;
+
+/**
+ * Reads the input paths of {@link HadoopRDD}s and {@link NewHadoopRDD}s. The paths are read from
+ * the input directory key of the RDD's configuration the same way {@link FileInputFormat} does,
+ * instead of wrapping the configuration in a {@link org.apache.hadoop.mapreduce.Job}, which copies
+ * every entry of it.
+ *
+ * <p>Instances remember the paths of the RDDs by id, so they should live no longer than the
+ * execution they are created for - RDD ids are only unique within a {@link
+ * org.apache.spark.SparkContext}.
+ */
+public final class HadoopInputPaths {
+  private static final Path[] NO_PATHS = new Path[0];
+
+  private final Map<Integer, Path[]> paths = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the input paths of the RDD, read once per RDD id.
+   *
+   * @param rdd
+   * @return the paths, or an empty array if the RDD doesn't read files
+   */
+  public Path[] of(RDD<?> rdd) {
+    return paths.computeIfAbsent(rdd.id(), id -> read(rdd));
+  }
+
+  /**
+   * Reads the input paths of the RDD.
+   *
+   * @param rdd
+   * @return the paths, or an empty array if the RDD doesn't read files
+   */
+  public static Path[] read(RDD<?> rdd) {
+    if (rdd instanceof HadoopRDD) {
+      return read(((HadoopRDD<?, ?>) rdd).getJobConf());
+    } else if (rdd instanceof NewHadoopRDD) {
+      return read(((NewHadoopRDD<?, ?>) rdd).getConf());
+    }
+    return NO_PATHS;
+  }
+
+  static Path[] read(Configuration conf) {
+    String dirs = conf == null ? null : conf.get(FileInputFormat.INPUT_DIR);
+    if (dirs == null || dirs.isEmpty()) {
+      return NO_PATHS;
+    }
+    String[] list = StringUtils.split(dirs);
+    Path[] result = new Path[list.length];
+    for (int i = 0; i < list.length; i++) {
+      result[i] = new Path(StringUtils.unEscapeString(list[i]));
+    }
+    return result;
+  }
+}
@@ -2,16 +2,50 @@
 
 package io.openlineage.spark.agent.util;
 
+import java.util.regex.Pattern;
+
 public class JdbcUtils {
+  private static final Pattern SLASH_DELIMITER_USER_PASSWORD =
+      Pattern.compile(PlanUtils.SLASH_DELIMITER_USER_PASSWORD_REGEX);
+  private static final Pattern COLON_DELIMITER_USER_PASSWORD =
+      Pattern.compile(PlanUtils.COLON_DELIMITER_USER_PASSWORD_REGEX);
+  private static final Pattern USER_PASSWORD_PROPERTIES =
+      Pattern.compile("(?<=[?,;&:)=])\\(?(?i)(?:user|username|password)=[^;&,)]+(?:[;&;)]|$)");
+
+  static final DatasetNaming.Memo<String, String> sanitizedUrls =
+      DatasetNaming.memoize(url -> DatasetNaming.namespace(sanitize(url)));
+
   /**
    * JdbcUrl can contain username and password this method clean-up credentials from jdbcUrl and
-   * strip the jdbc prefix from the url
+   * strip the jdbc prefix from the url. URLs that may contain credentials are not memoized, so they
+   * aren't kept in memory.
    */
   public static String sanitizeJdbcUrl(String jdbcUrl) {
+    if (mayContainCredentials(jdbcUrl)) {
+      return DatasetNaming.namespace(sanitize(jdbcUrl));
+    }
+    return sanitizedUrls.apply(jdbcUrl);
+  }
+
+  private static boolean mayContainCredentials(String jdbcUrl) {
+    return jdbcUrl.indexOf('@') >= 0
+        || (jdbcUrl.indexOf('=') >= 0
+            && (containsIgnoreCase(jdbcUrl, "user") || containsIgnoreCase(jdbcUrl, "password")));
+  }
+
+  private static boolean containsIgnoreCase(String value, String part) {
+    for (int i = 0; i <= value.length() - part.length(); i++) {
+      if (value.regionMatches(true, i, part, 0, part.length())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String sanitize(String jdbcUrl) {
     jdbcUrl = jdbcUrl.substring(5);
-    return jdbcUrl
-        .replaceAll(PlanUtils.SLASH_DELIMITER_USER_PASSWORD_REGEX, "@")
-        .replaceAll(PlanUtils.COLON_DELIMITER_USER_PASSWORD_REGEX, "$1")
-        .replaceAll("(?<=[?,;&:)=])\\(?(?i)(?:user|username|password)=[^;&,)]+(?:[;&;)]|$)", "");
+    jdbcUrl = SLASH_DELIMITER_USER_PASSWORD.matcher(jdbcUrl).replaceAll("@");
+    jdbcUrl = COLON_DELIMITER_USER_PASSWORD.matcher(jdbcUrl).replaceAll("$1");
+    return USER_PASSWORD_PROPERTIES.matcher(jdbcUrl).replaceAll("");
   }
 }
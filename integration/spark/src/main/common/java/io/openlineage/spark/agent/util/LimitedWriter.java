@@ -0,0 +1,90 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * {@link StringWriter} that fails as soon as its content would grow beyond a limit, so serializers
+ * writing to it give up early instead of building an arbitrarily large string. Serializers may wrap
+ * the {@link UncheckedIOException} thrown by the writer, so callers should check {@link
+ * #isExceeded()} when serialization fails.
+ */
+public class LimitedWriter extends StringWriter {
+  private final long maxLength;
+  private final boolean utf8;
+  private long length;
+  private boolean exceeded;
+
+  private LimitedWriter(long maxLength, boolean utf8) {
+    this.maxLength = maxLength;
+    this.utf8 = utf8;
+  }
+
+  /** A writer of at most {@code maxLength} characters. */
+  public static LimitedWriter ofChars(long maxLength) {
+    return new LimitedWriter(maxLength, false);
+  }
+
+  /** A writer of content that is at most {@code maxBytes} long once encoded as UTF-8. */
+  public static LimitedWriter ofUtf8Bytes(long maxBytes) {
+    return new LimitedWriter(maxBytes, true);
+  }
+
+  public boolean isExceeded() {
+    return exceeded;
+  }
+
+  @Override
+  public void write(int c) {
+    ensureCapacity(utf8 ? utf8Length((char) c) : 1);
+    super.write(c);
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) {
+    long added = len;
+    if (utf8) {
+      added = 0;
+      for (int i = off; i < off + len; i++) {
+        added += utf8Length(cbuf[i]);
+      }
+    }
+    ensureCapacity(added);
+    super.write(cbuf, off, len);
+  }
+
+  @Override
+  public void write(String str, int off, int len) {
+    long added = len;
+    if (utf8) {
+      added = 0;
+      for (int i = off; i < off + len; i++) {
+        added += utf8Length(str.charAt(i));
+      }
+    }
+    ensureCapacity(added);
+    super.write(str, off, len);
+  }
+
+  /** Surrogates are counted as two bytes each, so a surrogate pair makes four. */
+  private static int utf8Length(char c) {
+    if (c < 0x80) {
+      return 1;
+    } else if (c < 0x800 || Character.isSurrogate(c)) {
+      return 2;
+    }
+    return 3;
+  }
+
+  private void ensureCapacity(long added) {
+    if (length + added > maxLength) {
+      exceeded = true;
+      throw new UncheckedIOException(
+          new IOException("Serialized value exceeds " + maxLength + (utf8 ? " bytes" : " chars")));
+    }
+    length += added;
+  }
+}
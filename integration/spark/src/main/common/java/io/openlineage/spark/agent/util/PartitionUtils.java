@@ -0,0 +1,117 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import io.openlineage.spark.agent.facets.PartitionsFacet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.SparkConf;
+import org.apache.spark.sql.catalyst.catalog.ExternalCatalogUtils;
+
+/**
+ * Utility functions for Hive-style partitioned layouts, where each partition is stored in a
+ * directory such as {@code /warehouse/events/date=2022-01-01/country=US}.
+ */
+@Slf4j
+public class PartitionUtils {
+  public static final String COLLAPSE_KEY = "openlineage.dataset.partitions.collapse";
+  public static final String MAX_LISTED_KEY = "openlineage.facets.partitions.maxListed";
+
+  private PartitionUtils() {}
+
+  public static boolean isCollapsingEnabled(SparkConf conf) {
+    return Optional.ofNullable(conf)
+        .flatMap(c -> SparkConfUtils.findSparkConfigKey(c, COLLAPSE_KEY))
+        .map(v -> Boolean.parseBoolean(v.trim()))
+        .orElse(false);
+  }
+
+  public static int maxListedPartitions(SparkConf conf) {
+    Optional<String> value =
+        Optional.ofNullable(conf)
+            .flatMap(c -> SparkConfUtils.findSparkConfigKey(c, MAX_LISTED_KEY));
+    try {
+      return value.map(v -> Math.max(0, Integer.parseInt(v.trim()))).orElse(0);
+    } catch (NumberFormatException e) {
+      log.warn("Invalid value {} for {} - not listing partitions", value.get(), MAX_LISTED_KEY);
+      return 0;
+    }
+  }
+
+  /**
+   * Strip all trailing {@code key=value} directories from the path, e.g. {@code
+   * /warehouse/events/date=2022-01-01/country=US} becomes {@code /warehouse/events}.
+   *
+   * @param path
+   * @return
+   */
+  public static Path tableRoot(Path path) {
+    Path root = path;
+    while (root.getParent() != null && isPartitionDirectory(root.getName())) {
+      root = root.getParent();
+    }
+    return root;
+  }
+
+  /**
+   * Build a {@link PartitionsFacet} for partition directories of a single table.
+   *
+   * @param root the table root of all partitions
+   * @param partitions partition directories below the root
+   * @param maxListed maximum number of partition paths listed in the facet
+   * @return
+   */
+  public static PartitionsFacet partitionsFacet(
+      Path root, Collection<Path> partitions, int maxListed) {
+    Map<String, String> min = new TreeMap<>();
+    Map<String, String> max = new TreeMap<>();
+    List<String> columns = new ArrayList<>();
+    List<String> listed = new ArrayList<>();
+    for (Path partition : partitions) {
+      Map<String, String> values = partitionValues(root, partition);
+      values.forEach(
+          (column, value) -> {
+            if (!columns.contains(column)) {
+              columns.add(column);
+            }
+            min.merge(column, value, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            max.merge(column, value, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+          });
+      if (listed.size() < maxListed) {
+        listed.add(
+            values.entrySet().stream()
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining("/")));
+      }
+    }
+    return new PartitionsFacet(partitions.size(), columns, min, max, maxListed > 0 ? listed : null);
+  }
+
+  private static Map<String, String> partitionValues(Path root, Path partition) {
+    List<Path> directories = new ArrayList<>();
+    for (Path p = partition; p != null && !p.equals(root); p = p.getParent()) {
+      directories.add(0, p);
+    }
+    Map<String, String> values = new LinkedHashMap<>();
+    for (Path directory : directories) {
+      String name = directory.getName();
+      int eq = name.indexOf('=');
+      values.put(
+          ExternalCatalogUtils.unescapePathName(name.substring(0, eq)),
+          ExternalCatalogUtils.unescapePathName(name.substring(eq + 1)));
+    }
+    return values;
+  }
+
+  private static boolean isPartitionDirectory(String name) {
+    return name.indexOf('=') > 0;
+  }
+}
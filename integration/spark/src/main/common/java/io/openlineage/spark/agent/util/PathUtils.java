@@ -3,13 +3,18 @@
 package io.openlineage.spark.agent.util;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.SparkConf;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.catalyst.catalog.CatalogTable;
+import org.apache.spark.sql.catalyst.catalog.SessionCatalog;
 import org.apache.spark.sql.internal.StaticSQLConf;
 
 @Slf4j
@@ -19,11 +24,28 @@ public class PathUtils {
 
   private static Optional<SparkConf> sparkConf = Optional.empty();
 
+  // memoized identifiers grouped by default scheme or metastore, so that lookups of locations
+  // seen before don't allocate a composite key
+  private static final Map<String, DatasetNaming.Memo<Path, DatasetIdentifier>> pathIdentifiers =
+      Collections.synchronizedMap(new HashMap<>());
+  private static final Map<String, DatasetNaming.Memo<URI, DatasetIdentifier>> uriIdentifiers =
+      Collections.synchronizedMap(new HashMap<>());
+  private static final Map<URI, DatasetNaming.Memo<String, DatasetIdentifier>> hiveIdentifiers =
+      Collections.synchronizedMap(new HashMap<>());
+
   public static DatasetIdentifier fromPath(Path path) {
     return PathUtils.fromPath(path, DEFAULT_SCHEME);
   }
 
   public static DatasetIdentifier fromPath(Path path, String defaultScheme) {
+    return pathIdentifiers
+        .computeIfAbsent(
+            defaultScheme,
+            scheme -> DatasetNaming.memoize(p -> DatasetNaming.identifier(identifierOf(p, scheme))))
+        .apply(path);
+  }
+
+  private static DatasetIdentifier identifierOf(Path path, String defaultScheme) {
     if (path.isAbsoluteAndSchemeAuthorityNull()) {
       return new DatasetIdentifier(path.toString(), defaultScheme);
     }
@@ -37,7 +59,10 @@ public class PathUtils {
   }
 
   public static DatasetIdentifier fromURI(URI location, String defaultScheme) {
-    return fromPath(new Path(location), defaultScheme);
+    return uriIdentifiers
+        .computeIfAbsent(
+            defaultScheme, scheme -> DatasetNaming.memoize(uri -> fromPath(new Path(uri), scheme)))
+        .apply(location);
   }
 
   public static DatasetIdentifier fromCatalogTable(CatalogTable catalogTable) {
@@ -75,14 +100,26 @@ public class PathUtils {
   @SneakyThrows
   private static DatasetIdentifier prepareDatasetIdentifierFromDefaultTablePath(
       CatalogTable catalogTable) {
-    String path =
-        SparkSession.active()
-            .sessionState()
-            .catalog()
-            .defaultTablePath(catalogTable.identifier())
-            .getPath();
-
-    return PathUtils.fromURI(new URI("file", null, path, null, null), "file");
+    SessionCatalog catalog = SparkSession.active().sessionState().catalog();
+    Supplier<DatasetIdentifier> loader =
+        () -> {
+          String path = catalog.defaultTablePath(catalogTable.identifier()).getPath();
+          return PathUtils.fromURI(toFileUri(path), "file");
+        };
+    if (catalogTable.identifier() == null) {
+      return loader.get();
+    }
+    return CatalogTableCache.getInstance()
+        .getIdentifier(
+            CatalogTableCache.qualifiedName(
+                catalogTable.identifier(), catalog.getCurrentDatabase()),
+            CatalogTableCache.ttl(loadSparkConf().orElse(null)),
+            loader);
+  }
+
+  @SneakyThrows
+  private static URI toFileUri(String path) {
+    return new URI("file", null, path, null, null);
   }
 
   @SneakyThrows
@@ -92,8 +129,13 @@ public class PathUtils {
     if (!qualifiedName.startsWith("/")) {
       qualifiedName = String.format("/%s", qualifiedName);
     }
-    return PathUtils.fromPath(
-        new Path(enrichHiveMetastoreURIWithTableName(metastoreUri, qualifiedName)));
+    return hiveIdentifiers
+        .computeIfAbsent(
+            metastoreUri,
+            uri ->
+                DatasetNaming.memoize(
+                    name -> fromPath(new Path(enrichHiveMetastoreURIWithTableName(uri, name)))))
+        .apply(qualifiedName);
   }
 
   @SneakyThrows
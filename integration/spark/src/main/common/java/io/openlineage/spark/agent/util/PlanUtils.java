@@ -4,9 +4,7 @@ package io.openlineage.spark.agent.util;
 
 import io.openlineage.client.OpenLineage;
 import io.openlineage.spark.agent.client.OpenLineageClient;
-import java.io.IOException;
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -15,7 +13,6 @@ import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
-import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
 import scala.PartialFunction;
 import scala.PartialFunction$;
@@ -32,6 +29,14 @@ public class PlanUtils {
   public static final String COLON_DELIMITER_USER_PASSWORD_REGEX =
       "([/|,])[A-Za-z0-9_%]+:?[A-Za-z0-9_%]*@";
 
+  private static final DatasetNaming.Memo<URI, String> namespaceUris =
+      DatasetNaming.memoize(
+          outputPath ->
+              DatasetNaming.namespace(
+                  Optional.ofNullable(outputPath.getAuthority())
+                      .map(a -> String.format("%s://%s", outputPath.getScheme(), a))
+                      .orElse(outputPath.getScheme())));
+
   /**
    * Merge a list of {@link PartialFunction}s and return the first value where the function is
    * defined or empty list if no function matches the input.
@@ -95,28 +100,12 @@ public class PlanUtils {
       OpenLineage openLineage, StructType structType) {
     return openLineage
         .newSchemaDatasetFacetBuilder()
-        .fields(transformFields(openLineage, structType.fields()))
+        .fields(SchemaFields.fields(structType))
         .build();
   }
 
-  private static List<OpenLineage.SchemaDatasetFacetFields> transformFields(
-      OpenLineage openLineage, StructField[] fields) {
-    List<OpenLineage.SchemaDatasetFacetFields> list = new ArrayList<>();
-    for (StructField field : fields) {
-      list.add(
-          openLineage
-              .newSchemaDatasetFacetFieldsBuilder()
-              .name(field.name())
-              .type(field.dataType().typeName())
-              .build());
-    }
-    return list;
-  }
-
   public static String namespaceUri(URI outputPath) {
-    return Optional.ofNullable(outputPath.getAuthority())
-        .map(a -> String.format("%s://%s", outputPath.getScheme(), a))
-        .orElse(outputPath.getScheme());
+    return namespaceUris.apply(outputPath);
   }
 
   /**
@@ -156,16 +145,26 @@ public class PlanUtils {
         .build();
   }
 
+  /**
+   * Returns the directory of a path: the parent if the path is a file or the path itself otherwise.
+   * File statuses are cached, see {@link DirectoryPathResolver}.
+   *
+   * @param p
+   * @param hadoopConf
+   * @return
+   */
   public static Path getDirectoryPath(Path p, Configuration hadoopConf) {
-    try {
-      if (p.getFileSystem(hadoopConf).getFileStatus(p).isFile()) {
-        return p.getParent();
-      } else {
-        return p;
-      }
-    } catch (IOException e) {
-      log.warn("Unable to get file system for path ", e);
-      return p;
-    }
+    return DirectoryPathResolver.getInstance().resolve(p, hadoopConf);
+  }
+
+  /**
+   * Returns the directories of all paths in order, looking up uncached file statuses in parallel.
+   *
+   * @param paths
+   * @param hadoopConf
+   * @return
+   */
+  public static List<Path> getDirectoryPaths(Collection<Path> paths, Configuration hadoopConf) {
+    return DirectoryPathResolver.getInstance().resolve(paths, hadoopConf);
   }
 }
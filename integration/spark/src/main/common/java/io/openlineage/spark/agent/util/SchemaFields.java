@@ -0,0 +1,194 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import io.openlineage.client.OpenLineage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkConf;
+import org.apache.spark.sql.types.ArrayType;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.MapType;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+
+/**
+ * Builds the fields of the {@link OpenLineage.SchemaDatasetFacet} of a {@link StructType}. The same
+ * schemas are reported by every event of an application, and wide tables have thousands of columns,
+ * so the fields are memoized by schema - {@link StructType} has structural equality - and shared by
+ * all facets. Hashing and comparing a {@link StructType} visits all of its fields, so schema
+ * instances seen before are looked up by identity first.
+ *
+ * <p>With {@link #NESTED_KEY} enabled, the fields of nested structs are added after their parent as
+ * dotted paths, e.g. {@code address.city}. Arrays are transparent, so the fields of an array of
+ * structs are reported the same way, and maps add {@code key} and {@code value} fields. Nesting is
+ * followed up to {@link #MAX_DEPTH_KEY} levels and at most {@link #MAX_FIELDS_KEY} nested fields
+ * are added to a schema.
+ */
+@Slf4j
+public final class SchemaFields {
+  public static final String NESTED_KEY = "openlineage.facets.schema.nested";
+  public static final String MAX_DEPTH_KEY = "openlineage.facets.schema.maxDepth";
+  public static final String MAX_FIELDS_KEY = "openlineage.facets.schema.maxFields";
+
+  static final int DEFAULT_MAX_DEPTH = 5;
+  static final int DEFAULT_MAX_FIELDS = 1000;
+  static final int MAX_CACHED_SCHEMAS = 1000;
+
+  private static volatile Settings settings = Settings.DEFAULT;
+  private static volatile IdentityCache identityCache = new IdentityCache(Settings.DEFAULT);
+
+  private static final DatasetNaming.Memo<Key, List<OpenLineage.SchemaDatasetFacetFields>> fields =
+      DatasetNaming.memoize(
+          key -> Collections.unmodifiableList(build(key.getSchema(), key.getSettings())),
+          MAX_CACHED_SCHEMAS);
+
+  private SchemaFields() {}
+
+  /**
+   * Reads the settings of nested fields. Called when the application starts.
+   *
+   * @param conf
+   */
+  public static void configure(SparkConf conf) {
+    settings = Settings.fromConf(conf);
+    identityCache = new IdentityCache(settings);
+  }
+
+  public static List<OpenLineage.SchemaDatasetFacetFields> fields(StructType schema) {
+    IdentityCache cache = identityCache;
+    List<OpenLineage.SchemaDatasetFacetFields> cached = cache.get(schema);
+    if (cached != null) {
+      return cached;
+    }
+    List<OpenLineage.SchemaDatasetFacetFields> result =
+        fields.apply(new Key(schema, cache.getSettings()));
+    cache.put(schema, result);
+    return result;
+  }
+
+  static List<OpenLineage.SchemaDatasetFacetFields> build(StructType schema, Settings settings) {
+    List<OpenLineage.SchemaDatasetFacetFields> list = new ArrayList<>(schema.fields().length);
+    int[] nestedBudget = {settings.getMaxFields()};
+    for (StructField field : schema.fields()) {
+      list.add(field(field.name(), field.dataType()));
+      if (settings.isNested()) {
+        addNested(list, field.name(), field.dataType(), 2, settings, nestedBudget);
+      }
+    }
+    return list;
+  }
+
+  private static void addNested(
+      List<OpenLineage.SchemaDatasetFacetFields> list,
+      String path,
+      DataType type,
+      int depth,
+      Settings settings,
+      int[] budget) {
+    if (depth > settings.getMaxDepth()) {
+      return;
+    }
+    if (type instanceof ArrayType) {
+      addNested(list, path, ((ArrayType) type).elementType(), depth, settings, budget);
+    } else if (type instanceof MapType) {
+      MapType mapType = (MapType) type;
+      addNestedField(list, path + ".key", mapType.keyType(), depth, settings, budget);
+      addNestedField(list, path + ".value", mapType.valueType(), depth, settings, budget);
+    } else if (type instanceof StructType) {
+      for (StructField field : ((StructType) type).fields()) {
+        addNestedField(list, path + "." + field.name(), field.dataType(), depth, settings, budget);
+      }
+    }
+  }
+
+  private static void addNestedField(
+      List<OpenLineage.SchemaDatasetFacetFields> list,
+      String path,
+      DataType type,
+      int depth,
+      Settings settings,
+      int[] budget) {
+    if (budget[0] <= 0) {
+      return;
+    }
+    budget[0]--;
+    list.add(field(path, type));
+    addNested(list, path, type, depth + 1, settings, budget);
+  }
+
+  private static OpenLineage.SchemaDatasetFacetFields field(String name, DataType type) {
+    return new OpenLineage.SchemaDatasetFacetFieldsBuilder()
+        .name(name)
+        .type(type.typeName())
+        .build();
+  }
+
+  @Value
+  static class Settings {
+    static final Settings DEFAULT = new Settings(false, DEFAULT_MAX_DEPTH, DEFAULT_MAX_FIELDS);
+
+    boolean nested;
+    int maxDepth;
+    int maxFields;
+
+    static Settings fromConf(SparkConf conf) {
+      if (conf == null) {
+        return DEFAULT;
+      }
+      boolean nested =
+          SparkConfUtils.findSparkConfigKey(conf, NESTED_KEY)
+              .map(v -> Boolean.parseBoolean(v.trim()))
+              .orElse(false);
+      return new Settings(
+          nested,
+          number(conf, MAX_DEPTH_KEY, DEFAULT_MAX_DEPTH),
+          number(conf, MAX_FIELDS_KEY, DEFAULT_MAX_FIELDS));
+    }
+
+    private static int number(SparkConf conf, String key, int defaultValue) {
+      Optional<String> value = SparkConfUtils.findSparkConfigKey(conf, key);
+      try {
+        return value.map(v -> Integer.parseInt(v.trim())).orElse(defaultValue);
+      } catch (NumberFormatException e) {
+        log.warn("Invalid value {} for {} - using {}", value.get(), key, defaultValue);
+        return defaultValue;
+      }
+    }
+  }
+
+  @Value
+  private static class Key {
+    StructType schema;
+    Settings settings;
+  }
+
+  /** Fields of schema instances built with the same settings, emptied when it grows too large. */
+  private static class IdentityCache {
+    @Getter private final Settings settings;
+    private final Map<StructType, List<OpenLineage.SchemaDatasetFacetFields>> entries =
+        new IdentityHashMap<>();
+
+    IdentityCache(Settings settings) {
+      this.settings = settings;
+    }
+
+    synchronized List<OpenLineage.SchemaDatasetFacetFields> get(StructType schema) {
+      return entries.get(schema);
+    }
+
+    synchronized void put(StructType schema, List<OpenLineage.SchemaDatasetFacetFields> fields) {
+      if (entries.size() >= MAX_CACHED_SCHEMAS) {
+        entries.clear();
+      }
+      entries.put(schema, fields);
+    }
+  }
+}
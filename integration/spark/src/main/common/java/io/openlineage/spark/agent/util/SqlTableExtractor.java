@@ -0,0 +1,314 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Extracts the names of the tables read by a SQL query, e.g. the {@code query} option of a JDBC
+ * relation, without a full SQL parser. The query is tokenized in a single pass - skipping comments
+ * and string literals, and unquoting {@code "quoted"}, {@code `backquoted`} and {@code [bracketed]}
+ * identifiers - and the table references following {@code FROM}, {@code JOIN} and the commas of a
+ * {@code FROM} list are collected at every level of nesting. Names of common table expressions
+ * defined by {@code WITH} are excluded.
+ *
+ * <p>Queries are usually pushed down the same way by every run of a job, so results are memoized by
+ * query text.
+ */
+@Slf4j
+public final class SqlTableExtractor {
+
+  private static final Set<String> CLAUSE_KEYWORDS =
+      new HashSet<>(
+          Arrays.asList(
+              "select",
+              "where",
+              "group",
+              "order",
+              "having",
+              "limit",
+              "offset",
+              "fetch",
+              "union",
+              "intersect",
+              "except",
+              "minus",
+              "on",
+              "using",
+              "window",
+              "qualify",
+              "into",
+              "values",
+              "natural",
+              "inner",
+              "left",
+              "right",
+              "full",
+              "outer",
+              "cross",
+              "join",
+              "lateral",
+              "pivot",
+              "unpivot",
+              "tablesample",
+              "for",
+              "with",
+              "as",
+              "set",
+              "returning"));
+
+  private static final DatasetNaming.Memo<String, List<String>> tables =
+      DatasetNaming.memoize(SqlTableExtractor::extract);
+
+  private SqlTableExtractor() {}
+
+  /**
+   * Returns the tables read by the query, in order of appearance, or an empty list if none could be
+   * found.
+   *
+   * @param sql
+   * @return
+   */
+  public static List<String> tables(String sql) {
+    return sql == null ? Collections.emptyList() : tables.apply(sql);
+  }
+
+  static List<String> extract(String sql) {
+    try {
+      return new Parser(tokenize(sql)).parse();
+    } catch (RuntimeException e) {
+      log.debug("Unable to extract tables from query {}", sql, e);
+      return Collections.emptyList();
+    }
+  }
+
+  private enum TokenType {
+    WORD,
+    QUOTED,
+    SYMBOL
+  }
+
+  private static class Token {
+    final TokenType type;
+    final String text;
+
+    Token(TokenType type, String text) {
+      this.type = type;
+      this.text = text;
+    }
+
+    boolean isKeyword(String keyword) {
+      return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+    }
+
+    boolean isSymbol(char symbol) {
+      return type == TokenType.SYMBOL && text.charAt(0) == symbol;
+    }
+
+    boolean isIdentifier() {
+      return type == TokenType.QUOTED
+          || (type == TokenType.WORD && !CLAUSE_KEYWORDS.contains(text.toLowerCase(Locale.ROOT)));
+    }
+  }
+
+  private static List<Token> tokenize(String sql) {
+    List<Token> tokens = new ArrayList<>();
+    int length = sql.length();
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+        int end = sql.indexOf('\n', i);
+        i = end < 0 ? length : end + 1;
+      } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+        int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? length : end + 2;
+      } else if (c == '\'') {
+        i = skipQuoted(sql, i, '\'');
+      } else if (c == '"' || c == '`' || c == '[') {
+        char close = c == '[' ? ']' : c;
+        int end = skipQuoted(sql, i, close);
+        tokens.add(
+            new Token(
+                TokenType.QUOTED,
+                sql.substring(i + 1, end - 1).replace(String.valueOf(close) + close, "" + close)));
+        i = end;
+      } else if (Character.isLetter(c) || c == '_') {
+        int start = i;
+        while (i < length && isWordPart(sql.charAt(i))) {
+          i++;
+        }
+        tokens.add(new Token(TokenType.WORD, sql.substring(start, i)));
+      } else if (Character.isDigit(c)) {
+        while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+          i++;
+        }
+      } else {
+        tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c)));
+        i++;
+      }
+    }
+    return tokens;
+  }
+
+  private static boolean isWordPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#' || c == '@';
+  }
+
+  /** Returns the index after the closing quote; a doubled quote is an escaped one. */
+  private static int skipQuoted(String sql, int start, char close) {
+    int i = start + 1;
+    while (i < sql.length()) {
+      if (sql.charAt(i) == close) {
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == close) {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    throw new IllegalArgumentException("Unterminated quoted text at " + start);
+  }
+
+  /** Walks the tokens keeping the clause state of every level of parentheses. */
+  private static class Parser {
+    private final List<Token> tokens;
+    private final Set<String> result = new LinkedHashSet<>();
+    private final Set<String> commonTableExpressions = new HashSet<>();
+    private final Deque<Level> levels = new ArrayDeque<>();
+    private int position;
+
+    Parser(List<Token> tokens) {
+      this.tokens = tokens;
+      this.levels.push(new Level(true, false));
+    }
+
+    List<String> parse() {
+      while (position < tokens.size()) {
+        Token token = tokens.get(position++);
+        Level level = levels.peek();
+        if (token.isSymbol('(')) {
+          boolean tablePosition = followsTablePosition(level);
+          levels.push(new Level(tablePosition || opensQuery(), tablePosition));
+          if (tablePosition && !opensQuery()) {
+            // parenthesized join, e.g. FROM a JOIN (b JOIN c ON b.id = c.id)
+            tableReference();
+          }
+        } else if (token.isSymbol(')')) {
+          if (levels.size() > 1) {
+            levels.pop();
+          }
+        } else if (token.isSymbol(',')) {
+          if (level.inFromList) {
+            tableReference();
+          } else if (level.inWithList) {
+            commonTableExpression();
+          }
+        } else if (!level.query) {
+          // arguments of a function call, e.g. EXTRACT(YEAR FROM ts)
+          continue;
+        } else if (token.isKeyword("from") || token.isKeyword("join")) {
+          level.inFromList = token.isKeyword("from");
+          tableReference();
+        } else if (token.isKeyword("with")) {
+          level.inWithList = true;
+          if (position < tokens.size() && tokens.get(position).isKeyword("recursive")) {
+            position++;
+          }
+          commonTableExpression();
+        } else if (token.type == TokenType.WORD
+            && CLAUSE_KEYWORDS.contains(token.text.toLowerCase(Locale.ROOT))
+            && !token.isKeyword("as")) {
+          level.inFromList = false;
+          if (token.isKeyword("select")) {
+            level.inWithList = false;
+          }
+        }
+      }
+      List<String> names = new ArrayList<>(result);
+      names.removeIf(name -> commonTableExpressions.contains(name.toLowerCase(Locale.ROOT)));
+      return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Whether the parenthesis at the previous position is where a table reference is expected, i.e.
+     * it follows {@code FROM}, {@code JOIN} or {@code LATERAL}, or it is the first token of a level
+     * opened there, as in {@code FROM ((a JOIN b ON ...) JOIN c ON ...)}.
+     *
+     * @param level the level enclosing the parenthesis
+     */
+    private boolean followsTablePosition(Level level) {
+      Token previous = position > 1 ? tokens.get(position - 2) : null;
+      return previous != null
+          && (previous.isKeyword("from")
+              || previous.isKeyword("join")
+              || previous.isKeyword("lateral")
+              || (previous.isSymbol('(') && level.tablePosition));
+    }
+
+    /**
+     * Whether the parenthesis at the previous position opens a subquery or another parenthesis, as
+     * opposed to an expression or the arguments of a function.
+     */
+    private boolean opensQuery() {
+      Token next = position < tokens.size() ? tokens.get(position) : null;
+      return next != null
+          && (next.isKeyword("select") || next.isKeyword("with") || next.isSymbol('('));
+    }
+
+    private void commonTableExpression() {
+      if (position < tokens.size() && tokens.get(position).isIdentifier()) {
+        commonTableExpressions.add(tokens.get(position++).text.toLowerCase(Locale.ROOT));
+      }
+    }
+
+    /** Reads a possibly qualified table name; subqueries and table functions are skipped. */
+    private void tableReference() {
+      while (position < tokens.size()
+          && (tokens.get(position).isKeyword("lateral")
+              || tokens.get(position).isKeyword("only"))) {
+        position++;
+      }
+      if (position >= tokens.size() || !tokens.get(position).isIdentifier()) {
+        return;
+      }
+      StringBuilder name = new StringBuilder(tokens.get(position++).text);
+      while (position + 1 < tokens.size()
+          && tokens.get(position).isSymbol('.')
+          && tokens.get(position + 1).isIdentifier()) {
+        name.append('.').append(tokens.get(position + 1).text);
+        position += 2;
+      }
+      if (position < tokens.size() && tokens.get(position).isSymbol('(')) {
+        // table valued function
+        return;
+      }
+      result.add(name.toString());
+    }
+  }
+
+  private static class Level {
+    final boolean query;
+    final boolean tablePosition;
+    boolean inFromList;
+    boolean inWithList;
+
+    Level(boolean query, boolean tablePosition) {
+      this.query = query;
+      this.tablePosition = tablePosition;
+    }
+  }
+}
@@ -4,6 +4,7 @@ package io.openlineage.spark.api;
 
 import io.openlineage.client.OpenLineage;
 import io.openlineage.spark.agent.lifecycle.plan.InsertIntoDirVisitor;
+import io.openlineage.spark.agent.util.CatalogTableCache;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Arrays;
@@ -14,6 +15,7 @@ import java.util.stream.Stream;
 import lombok.NonNull;
 import org.apache.spark.sql.catalyst.TableIdentifier;
 import org.apache.spark.sql.catalyst.catalog.CatalogTable;
+import org.apache.spark.sql.catalyst.catalog.SessionCatalog;
 import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -71,17 +73,62 @@ public abstract class QueryPlanVisitor<T extends LogicalPlan, D extends OpenLine
 
   private final Logger logger = LoggerFactory.getLogger(getClass());
 
+  /**
+   * Look up the table in the session catalog. Tables are cached in the {@link CatalogTableCache}
+   * for the application.
+   *
+   * @param tableId
+   * @return
+   */
   protected Optional<CatalogTable> catalogTableFor(TableIdentifier tableId) {
     return context
         .getSparkSession()
         .flatMap(
             session -> {
+              SessionCatalog catalog;
               try {
-                return Optional.of(session.sessionState().catalog().getTableMetadata(tableId));
+                catalog = session.sessionState().catalog();
               } catch (Exception e) {
                 logger.warn("Unable to find table by identifier {} - {}", tableId, e.getMessage());
                 return Optional.empty();
               }
+              return CatalogTableCache.getInstance()
+                  .getTable(
+                      CatalogTableCache.qualifiedName(tableId, catalog.getCurrentDatabase()),
+                      CatalogTableCache.ttl(context.getSparkContext().conf()),
+                      () -> {
+                        try {
+                          return Optional.of(catalog.getTableMetadata(tableId));
+                        } catch (Exception e) {
+                          logger.warn(
+                              "Unable to find table by identifier {} - {}",
+                              tableId,
+                              e.getMessage());
+                          return Optional.empty();
+                        }
+                      });
+            });
+  }
+
+  /**
+   * Drop the cached metadata of a table changed by the visited command, so it's read from the
+   * catalog again.
+   *
+   * @param tableId
+   */
+  protected void invalidateCatalogTable(TableIdentifier tableId) {
+    context
+        .getSparkSession()
+        .ifPresent(
+            session -> {
+              try {
+                CatalogTableCache.getInstance()
+                    .invalidate(
+                        CatalogTableCache.qualifiedName(
+                            tableId, session.sessionState().catalog().getCurrentDatabase()));
+              } catch (Exception e) {
+                logger.warn("Unable to invalidate cached table {} - {}", tableId, e.getMessage());
+              }
             });
   }
 
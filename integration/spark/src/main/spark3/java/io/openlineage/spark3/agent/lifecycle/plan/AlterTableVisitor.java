@@ -3,6 +3,7 @@
 package io.openlineage.spark3.agent.lifecycle.plan;
 
 import io.openlineage.client.OpenLineage;
+import io.openlineage.spark.agent.util.CatalogTableCache;
 import io.openlineage.spark.agent.util.DatasetIdentifier;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.QueryPlanVisitor;
@@ -27,6 +28,10 @@ public class AlterTableVisitor extends QueryPlanVisitor<AlterTable, OpenLineage.
     TableCatalog tableCatalog;
     AlterTable alterTable = ((AlterTable) x);
     tableCatalog = alterTable.catalog();
+    CatalogTableCache.getInstance()
+        .invalidate(
+            CatalogTableCache.qualifiedName(
+                alterTable.ident().namespace(), alterTable.ident().name()));
 
     Table table;
     try {
@@ -4,6 +4,7 @@ package io.openlineage.spark3.agent.lifecycle.plan;
 
 import io.openlineage.client.OpenLineage;
 import io.openlineage.spark.agent.facets.TableStateChangeFacet;
+import io.openlineage.spark.agent.util.CatalogTableCache;
 import io.openlineage.spark.agent.util.DatasetIdentifier;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.QueryPlanVisitor;
@@ -36,6 +37,8 @@ public class DropTableVisitor extends QueryPlanVisitor<DropTable, OpenLineage.Ou
     TableCatalog tableCatalog = resolvedTable.catalog();
     Map<String, String> tableProperties = resolvedTable.table().properties();
     Identifier identifier = resolvedTable.identifier();
+    CatalogTableCache.getInstance()
+        .invalidate(CatalogTableCache.qualifiedName(identifier.namespace(), identifier.name()));
     StructType schema = resolvedTable.schema();
 
     facetMap.put(
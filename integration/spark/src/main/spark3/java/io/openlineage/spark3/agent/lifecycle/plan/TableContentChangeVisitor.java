@@ -6,9 +6,10 @@ import static io.openlineage.spark.agent.facets.TableStateChangeFacet.StateChang
 
 import io.openlineage.client.OpenLineage;
 import io.openlineage.spark.agent.facets.TableStateChangeFacet;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
 import io.openlineage.spark.api.OpenLineageContext;
 import io.openlineage.spark.api.QueryPlanVisitor;
-import io.openlineage.spark3.agent.lifecycle.plan.catalog.IcebergHandler;
 import io.openlineage.spark3.agent.utils.PlanUtils3;
 import java.util.HashMap;
 import java.util.List;
@@ -39,7 +40,7 @@ public class TableContentChangeVisitor
         || (x instanceof OverwritePartitionsDynamic)
         || (x instanceof DeleteFromTable)
         || (x instanceof UpdateTable)
-        || (new IcebergHandler().hasClasses() && x instanceof ReplaceData)
+        || (ClasspathCapabilities.isAvailable(Integration.ICEBERG) && x instanceof ReplaceData)
         || (x instanceof MergeIntoTable)
         || (x instanceof InsertIntoStatement);
   }
@@ -58,7 +59,7 @@ public class TableContentChangeVisitor
       if (((InsertIntoStatement) x).overwrite()) {
         includeOverwriteFacet(facetMap);
       }
-    } else if (new IcebergHandler().hasClasses() && x instanceof ReplaceData) {
+    } else if (ClasspathCapabilities.isAvailable(Integration.ICEBERG) && x instanceof ReplaceData) {
       // DELETE FROM on ICEBERG HAS START ELEMENT WITH ReplaceData AND COMPLETE ONE WITH
       // DeleteFromTable
       table = ((ReplaceData) x).table();
@@ -0,0 +1,80 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark3.agent.lifecycle.plan.catalog;
+
+import io.openlineage.spark.agent.util.ScalaConversionUtils;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.SparkSession;
+
+/**
+ * Per-session index of catalog settings, i.e. the {@code spark.sql.catalog.<name>.<key>} entries of
+ * the session conf grouped by catalog name. The settings of a catalog are parsed from the session
+ * conf the first time they're needed and parsed again only when one of the settings used to resolve
+ * identifiers ({@code type}, {@code uri}, {@code warehouse}) changes.
+ *
+ * <p>Indexes are kept in a {@link WeakHashMap} keyed by session and must not reference the session
+ * themselves, otherwise sessions would never be collected.
+ */
+@Slf4j
+class CatalogIndex {
+  private static final String CATALOG_PREFIX = "spark.sql.catalog.";
+  private static final Map<SparkSession, CatalogIndex> indexes =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final Map<String, CatalogSettings> catalogs = new ConcurrentHashMap<>();
+
+  static CatalogIndex forSession(SparkSession session) {
+    return indexes.computeIfAbsent(session, s -> new CatalogIndex());
+  }
+
+  /**
+   * Returns the settings of the catalog with the prefix {@code spark.sql.catalog.<name>.} stripped,
+   * e.g. {@code type} or {@code warehouse}.
+   *
+   * @param session the session this index belongs to
+   * @param catalogName
+   * @return
+   */
+  Map<String, String> settings(SparkSession session, String catalogName) {
+    String fingerprint = fingerprint(session, catalogName);
+    CatalogSettings cached = catalogs.get(catalogName);
+    if (cached != null && Objects.equals(cached.getFingerprint(), fingerprint)) {
+      return cached.getSettings();
+    }
+    Map<String, String> settings = parse(session, catalogName);
+    log.debug("Indexed settings of catalog {}: {}", catalogName, settings.keySet());
+    catalogs.put(catalogName, new CatalogSettings(fingerprint, settings));
+    return settings;
+  }
+
+  private static String fingerprint(SparkSession session, String catalogName) {
+    String prefix = CATALOG_PREFIX + catalogName + ".";
+    return Arrays.asList("type", "uri", "warehouse").stream()
+        .map(key -> session.conf().get(prefix + key, null))
+        .map(String::valueOf)
+        .collect(Collectors.joining("|"));
+  }
+
+  private static Map<String, String> parse(SparkSession session, String catalogName) {
+    String prefix = CATALOG_PREFIX + catalogName + ".";
+    return Collections.unmodifiableMap(
+        ScalaConversionUtils.<String, String>fromMap(session.conf().getAll()).entrySet().stream()
+            .filter(e -> e.getKey().startsWith(prefix) && e.getKey().length() > prefix.length())
+            .collect(
+                Collectors.toMap(e -> e.getKey().substring(prefix.length()), Map.Entry::getValue)));
+  }
+
+  @Value
+  private static class CatalogSettings {
+    String fingerprint;
+    Map<String, String> settings;
+  }
+}
@@ -8,6 +8,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.connector.catalog.Identifier;
@@ -17,6 +18,10 @@ public class CatalogUtils3 {
 
   private static List<CatalogHandler> catalogHandlers = getHandlers();
 
+  // catalog handlers match on the class of the catalog, so resolve them once per class
+  private static final Map<Class<?>, Optional<CatalogHandler>> handlersByCatalogClass =
+      new ConcurrentHashMap<>();
+
   private static List<CatalogHandler> getHandlers() {
     List<CatalogHandler> handlers =
         Arrays.asList(
@@ -33,7 +38,9 @@ public class CatalogUtils3 {
       TableCatalog catalog,
       Identifier identifier,
       Map<String, String> properties) {
-    return getDatasetIdentifier(session, catalog, identifier, properties, catalogHandlers);
+    return getCatalogHandler(catalog)
+        .map(handler -> handler.getDatasetIdentifier(session, catalog, identifier, properties))
+        .orElseThrow(() -> new UnsupportedCatalogException(catalog.getClass().getCanonicalName()));
   }
 
   public static DatasetIdentifier getDatasetIdentifier(
@@ -51,7 +58,9 @@ public class CatalogUtils3 {
   }
 
   public static Optional<CatalogHandler> getCatalogHandler(TableCatalog catalog) {
-    return catalogHandlers.stream().filter(handler -> handler.isClass(catalog)).findAny();
+    return handlersByCatalogClass.computeIfAbsent(
+        catalog.getClass(),
+        c -> catalogHandlers.stream().filter(handler -> handler.isClass(catalog)).findAny());
   }
 
   public static Optional<TableProviderFacet> getTableProviderFacet(
@@ -1,6 +1,8 @@
 package io.openlineage.spark3.agent.lifecycle.plan.catalog;
 
 import io.openlineage.spark.agent.facets.TableProviderFacet;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
 import io.openlineage.spark.agent.util.DatasetIdentifier;
 import io.openlineage.spark.agent.util.PathUtils;
 import java.lang.reflect.InvocationTargetException;
@@ -25,15 +27,7 @@ import scala.Option;
 @Slf4j
 public class DatabricksDeltaHandler implements CatalogHandler {
   public boolean hasClasses() {
-    try {
-      DeltaHandler.class
-          .getClassLoader()
-          .loadClass("com.databricks.sql.transaction.tahoe.catalog.DeltaCatalog");
-      return true;
-    } catch (Exception e) {
-      // swallow- we don't care
-    }
-    return false;
+    return ClasspathCapabilities.isAvailable(Integration.DATABRICKS_DELTA);
   }
 
   @Override
@@ -3,6 +3,8 @@
 package io.openlineage.spark3.agent.lifecycle.plan.catalog;
 
 import io.openlineage.spark.agent.facets.TableProviderFacet;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
 import io.openlineage.spark.agent.util.DatasetIdentifier;
 import io.openlineage.spark.agent.util.PathUtils;
 import java.util.Arrays;
@@ -20,15 +22,7 @@ import scala.Option;
 @Slf4j
 public class DeltaHandler implements CatalogHandler {
   public boolean hasClasses() {
-    try {
-      DeltaHandler.class
-          .getClassLoader()
-          .loadClass("org.apache.spark.sql.delta.catalog.DeltaCatalog");
-      return true;
-    } catch (Exception e) {
-      // swallow- we don't care
-    }
-    return false;
+    return ClasspathCapabilities.isAvailable(Integration.DELTA);
   }
 
   @Override
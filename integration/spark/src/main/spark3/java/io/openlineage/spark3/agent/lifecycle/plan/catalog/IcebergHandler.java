@@ -3,14 +3,14 @@
 package io.openlineage.spark3.agent.lifecycle.plan.catalog;
 
 import io.openlineage.spark.agent.facets.TableProviderFacet;
+import io.openlineage.spark.agent.util.ClasspathCapabilities;
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
 import io.openlineage.spark.agent.util.DatasetIdentifier;
 import io.openlineage.spark.agent.util.PathUtils;
-import io.openlineage.spark.agent.util.ScalaConversionUtils;
 import io.openlineage.spark.agent.util.SparkConfUtils;
 import java.net.URI;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -25,13 +25,7 @@ import org.apache.spark.sql.connector.catalog.TableCatalog;
 public class IcebergHandler implements CatalogHandler {
   @Override
   public boolean hasClasses() {
-    try {
-      IcebergHandler.class.getClassLoader().loadClass("org.apache.iceberg.catalog.Catalog");
-      return true;
-    } catch (Exception e) {
-      // swallow- we don't care
-    }
-    return false;
+    return ClasspathCapabilities.isAvailable(Integration.ICEBERG);
   }
 
   @Override
@@ -46,24 +40,12 @@ public class IcebergHandler implements CatalogHandler {
       Identifier identifier,
       Map<String, String> properties) {
     String catalogName = ((SparkCatalog) tableCatalog).name();
-    String prefix = String.format("spark.sql.catalog.%s", catalogName);
-    Map<String, String> conf =
-        ScalaConversionUtils.<String, String>fromMap(session.conf().getAll());
-    log.info(conf.toString());
     Map<String, String> catalogConf =
-        conf.entrySet().stream()
-            .filter(x -> x.getKey().startsWith(prefix))
-            .filter(x -> x.getKey().length() > prefix.length())
-            .collect(
-                Collectors.toMap(
-                    x -> x.getKey().substring(prefix.length() + 1), // handle dot after prefix
-                    Map.Entry::getValue));
-
-    log.info(catalogConf.toString());
+        CatalogIndex.forSession(session).settings(session, catalogName);
     if (catalogConf.isEmpty() || !catalogConf.containsKey("type")) {
       throw new UnsupportedCatalogException(catalogName);
     }
-    log.info(catalogConf.get("type"));
+    log.debug("Iceberg catalog {} of type {}", catalogName, catalogConf.get("type"));
     switch (catalogConf.get("type")) {
       case "hadoop":
         return getHadoopIdentifier(catalogConf, identifier.toString());
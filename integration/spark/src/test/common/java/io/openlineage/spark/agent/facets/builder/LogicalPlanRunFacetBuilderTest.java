@@ -3,15 +3,29 @@
 package io.openlineage.spark.agent.facets.builder;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openlineage.client.OpenLineage;
 import io.openlineage.client.OpenLineage.RunFacet;
 import io.openlineage.spark.agent.client.OpenLineageClient;
+import io.openlineage.spark.agent.facets.LogicalPlanFacet;
+import io.openlineage.spark.agent.util.ScalaConversionUtils;
 import io.openlineage.spark.api.OpenLineageContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 import org.apache.spark.SparkConf;
 import org.apache.spark.SparkContext;
 import org.apache.spark.scheduler.JobSucceeded$;
@@ -19,7 +33,13 @@ import org.apache.spark.scheduler.SparkListenerJobEnd;
 import org.apache.spark.scheduler.SparkListenerJobStart;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.catalyst.expressions.GenericRow;
+import org.apache.spark.sql.catalyst.expressions.Literal$;
+import org.apache.spark.sql.catalyst.expressions.NamedExpression;
+import org.apache.spark.sql.catalyst.plans.logical.Filter;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.catalyst.plans.logical.Project;
 import org.apache.spark.sql.execution.QueryExecution;
+import org.apache.spark.sql.execution.command.ListFilesCommand;
 import org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionEnd;
 import org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionStart;
 import org.apache.spark.sql.types.IntegerType$;
@@ -27,9 +47,13 @@ import org.apache.spark.sql.types.Metadata;
 import org.apache.spark.sql.types.StringType$;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
+import org.json4s.JsonAST.JString;
+import org.json4s.JsonAST.JValue;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import scala.Tuple2;
+import scala.collection.JavaConverters;
 import scala.collection.Seq$;
 
 class LogicalPlanRunFacetBuilderTest {
@@ -132,4 +156,213 @@ class LogicalPlanRunFacetBuilderTest {
                 assertThat(facet)
                     .hasFieldOrPropertyWithValue("plan", queryExecution.optimizedPlan().toJSON()));
   }
+
+  @Test
+  public void testPlanIsSerializedOncePerExecution() {
+    LogicalPlanRunFacetBuilder builder =
+        new LogicalPlanRunFacetBuilder(
+            OpenLineageContext.builder()
+                .sparkContext(sparkContext)
+                .openLineage(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI))
+                .queryExecution(queryExecution)
+                .build());
+    Map<String, RunFacet> startFacets = new HashMap<>();
+    builder.build(new SparkListenerSQLExecutionStart(1L, "", "", "", null, 1L), startFacets::put);
+    Map<String, RunFacet> endFacets = new HashMap<>();
+    builder.build(new SparkListenerSQLExecutionEnd(1L, 1L), endFacets::put);
+
+    assertThat(endFacets.get("spark.logicalPlan")).isSameAs(startFacets.get("spark.logicalPlan"));
+  }
+
+  @Test
+  public void testPlanExceedingMaxBytesIsTruncated() {
+    SparkContext context = mock(SparkContext.class);
+    when(context.conf())
+        .thenReturn(new SparkConf().set(LogicalPlanRunFacetBuilder.MAX_BYTES_KEY, "10"));
+    LogicalPlanRunFacetBuilder builder =
+        new LogicalPlanRunFacetBuilder(
+            OpenLineageContext.builder()
+                .sparkContext(context)
+                .openLineage(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI))
+                .queryExecution(queryExecution)
+                .build());
+    Map<String, RunFacet> facetMap = new HashMap<>();
+    builder.build(new SparkListenerSQLExecutionEnd(1L, 1L), facetMap::put);
+
+    assertThat(facetMap)
+        .hasEntrySatisfying(
+            "spark.logicalPlan",
+            facet ->
+                assertThat(facet)
+                    .hasFieldOrPropertyWithValue(
+                        "plan", "{\"truncated\":true,\"nodes\":1,\"depth\":1}"));
+  }
+
+  @Test
+  public void testFullFormatMatchesToJson() {
+    QueryExecution qe = filteredQueryExecution();
+    LogicalPlanRunFacetBuilder builder =
+        new LogicalPlanRunFacetBuilder(
+            OpenLineageContext.builder()
+                .sparkContext(sparkContext)
+                .openLineage(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI))
+                .queryExecution(qe)
+                .build());
+    Map<String, RunFacet> facetMap = new HashMap<>();
+    builder.build(new SparkListenerSQLExecutionEnd(1L, 1L), facetMap::put);
+
+    assertThat(((LogicalPlanFacet) facetMap.get("spark.logicalPlan")).getPlan())
+        .isEqualTo(qe.optimizedPlan().toJSON());
+  }
+
+  @Test
+  public void testFacetBuiltFromPlanSerializesIt() {
+    LogicalPlan plan = queryExecution.optimizedPlan();
+    LogicalPlanFacet facet = LogicalPlanFacet.builder().plan(plan).build();
+
+    assertThat(facet.getPlan()).isEqualTo(plan.toJSON());
+  }
+
+  @Test
+  public void testSerializationStopsAtMaxBytes() {
+    SparkContext context = mock(SparkContext.class);
+    when(context.conf())
+        .thenReturn(new SparkConf().set(LogicalPlanRunFacetBuilder.MAX_BYTES_KEY, "1000"));
+    AtomicInteger serializedNodes = new AtomicInteger();
+    scala.collection.immutable.List<Tuple2<String, JValue>> fields =
+        JavaConverters.asScalaBuffer(
+                Collections.singletonList(
+                    new Tuple2<String, JValue>("condition", new JString("(a > 1)"))))
+            .toList();
+    LogicalPlan plan = mock(LogicalPlan.class);
+    when(plan.children()).thenReturn(Seq$.MODULE$.<LogicalPlan>empty());
+    for (int i = 0; i < 200; i++) {
+      LogicalPlan node = mock(LogicalPlan.class);
+      when(node.children())
+          .thenReturn(ScalaConversionUtils.fromList(Collections.singletonList(plan)));
+      when(node.jsonFields())
+          .thenAnswer(
+              invocation -> {
+                serializedNodes.incrementAndGet();
+                return fields;
+              });
+      plan = node;
+    }
+    QueryExecution qe = mock(QueryExecution.class);
+    when(qe.optimizedPlan()).thenReturn(plan);
+    LogicalPlanRunFacetBuilder builder =
+        new LogicalPlanRunFacetBuilder(
+            OpenLineageContext.builder()
+                .sparkContext(context)
+                .openLineage(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI))
+                .queryExecution(qe)
+                .build());
+    Map<String, RunFacet> facetMap = new HashMap<>();
+    builder.build(new SparkListenerSQLExecutionEnd(1L, 1L), facetMap::put);
+
+    assertThat(((LogicalPlanFacet) facetMap.get("spark.logicalPlan")).getPlan())
+        .isEqualTo("{\"truncated\":true,\"nodes\":201,\"depth\":201}");
+    assertThat(serializedNodes.get()).isLessThan(20);
+  }
+
+  @Test
+  public void testPlanExceedingMaxDepthIsTruncated() {
+    SparkContext context = mock(SparkContext.class);
+    when(context.conf())
+        .thenReturn(new SparkConf().set("spark." + LogicalPlanRunFacetBuilder.MAX_DEPTH_KEY, "1"));
+    QueryExecution qe = mock(QueryExecution.class);
+    when(qe.optimizedPlan())
+        .thenReturn(
+            new Project(
+                Seq$.MODULE$.<NamedExpression>empty(),
+                new ListFilesCommand(Seq$.MODULE$.<String>empty())));
+    LogicalPlanRunFacetBuilder builder =
+        new LogicalPlanRunFacetBuilder(
+            OpenLineageContext.builder()
+                .sparkContext(context)
+                .openLineage(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI))
+                .queryExecution(qe)
+                .build());
+    Map<String, RunFacet> facetMap = new HashMap<>();
+    builder.build(new SparkListenerSQLExecutionEnd(1L, 1L), facetMap::put);
+
+    assertThat(facetMap)
+        .hasEntrySatisfying(
+            "spark.logicalPlan",
+            facet ->
+                assertThat(((LogicalPlanFacet) facet).getPlan())
+                    .isEqualTo("{\"truncated\":true,\"nodes\":2,\"depth\":2}"));
+  }
+
+  @Test
+  public void testCompactFormat() {
+    SparkContext context = mock(SparkContext.class);
+    when(context.conf())
+        .thenReturn(new SparkConf().set(LogicalPlanRunFacetBuilder.FORMAT_KEY, "compact"));
+    LogicalPlanRunFacetBuilder builder =
+        new LogicalPlanRunFacetBuilder(
+            OpenLineageContext.builder()
+                .sparkContext(context)
+                .openLineage(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI))
+                .queryExecution(filteredQueryExecution())
+                .build());
+    Map<String, RunFacet> facetMap = new HashMap<>();
+    builder.build(new SparkListenerSQLExecutionEnd(1L, 1L), facetMap::put);
+
+    assertThat(((LogicalPlanFacet) facetMap.get("spark.logicalPlan")).getPlan())
+        .isEqualTo(COMPACT_PLAN);
+  }
+
+  @Test
+  public void testCompactFormatIsGzippedAboveThreshold() throws IOException {
+    SparkContext context = mock(SparkContext.class);
+    when(context.conf())
+        .thenReturn(
+            new SparkConf()
+                .set(LogicalPlanRunFacetBuilder.FORMAT_KEY, "compact")
+                .set(LogicalPlanRunFacetBuilder.GZIP_ABOVE_BYTES_KEY, "16"));
+    LogicalPlanRunFacetBuilder builder =
+        new LogicalPlanRunFacetBuilder(
+            OpenLineageContext.builder()
+                .sparkContext(context)
+                .openLineage(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI))
+                .queryExecution(filteredQueryExecution())
+                .build());
+    Map<String, RunFacet> facetMap = new HashMap<>();
+    builder.build(new SparkListenerSQLExecutionEnd(1L, 1L), facetMap::put);
+
+    JsonNode plan =
+        new ObjectMapper()
+            .readTree(((LogicalPlanFacet) facetMap.get("spark.logicalPlan")).getPlan());
+    assertThat(plan.get("format").asText()).isEqualTo("compact");
+    assertThat(plan.get("encoding").asText()).isEqualTo("gzip+base64");
+    byte[] data = Base64.getDecoder().decode(plan.get("data").asText());
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[1024];
+      for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+        out.write(buffer, 0, read);
+      }
+      assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(COMPACT_PLAN);
+    }
+  }
+
+  private static final String COMPACT_PLAN =
+      "{\"format\":\"compact\",\"nodes\":["
+          + "{\"class\":\"org.apache.spark.sql.catalyst.plans.logical.Filter\",\"args\":[\"true\"],"
+          + "\"children\":[1]},"
+          + "{\"class\":\"org.apache.spark.sql.catalyst.plans.logical.Project\",\"children\":[2]},"
+          + "{\"class\":\"org.apache.spark.sql.execution.command.ListFilesCommand\"}]}";
+
+  private static QueryExecution filteredQueryExecution() {
+    QueryExecution qe = mock(QueryExecution.class);
+    when(qe.optimizedPlan())
+        .thenReturn(
+            new Filter(
+                Literal$.MODULE$.apply(true),
+                new Project(
+                    Seq$.MODULE$.<NamedExpression>empty(),
+                    new ListFilesCommand(Seq$.MODULE$.<String>empty()))));
+    return qe;
+  }
 }
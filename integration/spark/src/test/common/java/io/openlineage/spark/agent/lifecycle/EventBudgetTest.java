@@ -0,0 +1,44 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.lifecycle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.openlineage.spark.agent.facets.DegradedFacet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.spark.SparkConf;
+import org.junit.jupiter.api.Test;
+
+class EventBudgetTest {
+
+  @Test
+  void testStepsAreSkippedOnceBudgetIsExceeded() {
+    AtomicLong clock = new AtomicLong();
+    EventBudget budget = new EventBudget(100, clock::get);
+
+    assertThat(budget.allows("spark.logicalPlan")).isTrue();
+    assertThat(budget.isDegraded()).isFalse();
+
+    clock.set(TimeUnit.MILLISECONDS.toNanos(150));
+    assertThat(budget.allows("spark.logicalPlan")).isFalse();
+    assertThat(budget.allows("schema")).isFalse();
+    assertThat(budget.allows("schema")).isFalse();
+    assertThat(budget.isDegraded()).isTrue();
+
+    DegradedFacet facet = budget.toFacet();
+    assertThat(facet.getBudgetMs()).isEqualTo(100);
+    assertThat(facet.getElapsedMs()).isEqualTo(150);
+    assertThat(facet.getSkipped()).containsExactly("spark.logicalPlan", "schema");
+  }
+
+  @Test
+  void testNoBudgetByDefault() {
+    EventBudget budget = EventBudget.fromConf(new SparkConf());
+    assertThat(budget.isExceeded()).isFalse();
+
+    budget =
+        EventBudget.fromConf(new SparkConf().set("spark." + EventBudget.TIME_BUDGET_KEY, "nope"));
+    assertThat(budget.isExceeded()).isFalse();
+  }
+}
@@ -319,4 +319,24 @@ class LogicalPlanSerializerTest {
       }
     }
   }
+
+  @Test
+  public void testSharedInstance() {
+    assertThat(LogicalPlanSerializer.getInstance()).isSameAs(LogicalPlanSerializer.getInstance());
+  }
+
+  @Test
+  public void testMixinResolution() {
+    LogicalPlanSerializer.LogicalPlanMixinResolver resolver =
+        new LogicalPlanSerializer.LogicalPlanMixinResolver();
+
+    assertThat(resolver.findMixInClassFor(Aggregate.class))
+        .isEqualTo(LogicalPlanSerializer.TypeInfoMixin.class);
+    assertThat(resolver.findMixInClassFor(JDBCRelation.class))
+        .isEqualTo(LogicalPlanSerializer.TypeInfoMixin.class);
+    assertThat(resolver.findMixInClassFor(ClassLoader.class))
+        .isEqualTo(LogicalPlanSerializer.IgnoredType.class);
+    assertThat(resolver.findMixInClassFor(String.class))
+        .isEqualTo(LogicalPlanSerializer.ChildMixIn.class);
+  }
 }
@@ -0,0 +1,276 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.lifecycle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.openlineage.client.OpenLineage;
+import io.openlineage.client.OpenLineage.InputDataset;
+import io.openlineage.client.OpenLineage.OutputDataset;
+import io.openlineage.spark.agent.lifecycle.LogicalPlanTraverser.TraversalResult;
+import io.openlineage.spark.agent.util.ScalaConversionUtils;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.spark.SparkConf;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.junit.jupiter.api.Test;
+import scala.Option;
+import scala.PartialFunction;
+import scala.runtime.AbstractPartialFunction;
+
+class LogicalPlanTraverserTest {
+
+  private final OpenLineage openLineage = new OpenLineage(URI.create("http://test.producer/"));
+
+  @Test
+  void testTraverseVisitsEachNodeOnceInPreOrder() {
+    LogicalPlan leftLeaf = node("leftLeaf");
+    LogicalPlan rightLeaf = node("rightLeaf");
+    LogicalPlan join = node("join", leftLeaf, rightLeaf);
+    LogicalPlan root = node("root", join);
+
+    List<LogicalPlan> seen = new ArrayList<>();
+    List<LogicalPlan> visited = new ArrayList<>();
+    LogicalPlanTraverser traverser =
+        new LogicalPlanTraverser(
+            visitor(
+                Arrays.asList(leftLeaf, rightLeaf),
+                n ->
+                    openLineage
+                        .newInputDatasetBuilder()
+                        .namespace("ns")
+                        .name(n.toString())
+                        .build()),
+            visitor(
+                Arrays.asList(root, join),
+                n ->
+                    openLineage
+                        .newOutputDatasetBuilder()
+                        .namespace("ns")
+                        .name(n.toString())
+                        .build()),
+            visited::add,
+            Collections.singletonList(seen::add),
+            Optional.empty(),
+            Integer.MAX_VALUE);
+
+    TraversalResult result = traverser.traverse(root);
+
+    assertThat(seen).containsExactly(root, join, leftLeaf, rightLeaf);
+    assertThat(result.getLeaves()).containsExactly(leftLeaf, rightLeaf);
+    assertThat(result.getInputs())
+        .extracting(InputDataset::getName)
+        .containsExactly("leftLeaf", "rightLeaf");
+    // output visitors are only applied to the root node
+    assertThat(result.getOutputs()).extracting(OutputDataset::getName).containsExactly("root");
+    assertThat(visited).containsExactly(root, leftLeaf, rightLeaf);
+  }
+
+  @Test
+  void testTraverseLeafRoot() {
+    LogicalPlan root = node("root");
+    LogicalPlanTraverser traverser =
+        new LogicalPlanTraverser(
+            visitor(Collections.emptyList(), n -> null),
+            visitor(Collections.emptyList(), n -> null),
+            n -> {});
+
+    TraversalResult result = traverser.traverse(root);
+
+    assertThat(result.getRoot()).isSameAs(root);
+    assertThat(result.getLeaves()).containsExactly(root);
+    assertThat(result.getInputs()).isEmpty();
+    assertThat(result.getOutputs()).isEmpty();
+  }
+
+  @Test
+  void testParallelTraverseMatchesSerialOrder() {
+    List<LogicalPlan> nodes = new ArrayList<>();
+    List<LogicalPlan> branches = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      LogicalPlan left = node("leaf" + i + "a");
+      LogicalPlan right = node("leaf" + i + "b");
+      LogicalPlan join = node("join" + i, left, node("filter" + i, right));
+      LogicalPlan project = node("project" + i, join);
+      nodes.addAll(Arrays.asList(project, join, left, right));
+      branches.add(project);
+    }
+    LogicalPlan root = node("union", branches.toArray(new LogicalPlan[0]));
+    nodes.add(root);
+    PartialFunction<LogicalPlan, List<InputDataset>> inputVisitor =
+        visitor(
+            nodes,
+            n -> openLineage.newInputDatasetBuilder().namespace("ns").name(n.toString()).build());
+    PartialFunction<LogicalPlan, List<OutputDataset>> outputVisitor =
+        visitor(Collections.emptyList(), n -> null);
+
+    List<LogicalPlan> serialVisited = new ArrayList<>();
+    List<LogicalPlan> serialNodes = new ArrayList<>();
+    TraversalResult serial =
+        new LogicalPlanTraverser(
+                inputVisitor,
+                outputVisitor,
+                serialVisited::add,
+                Collections.singletonList(serialNodes::add),
+                Optional.empty(),
+                Integer.MAX_VALUE)
+            .traverse(root);
+
+    List<LogicalPlan> visited = new ArrayList<>();
+    List<LogicalPlan> parallelNodes = new ArrayList<>();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      TraversalResult parallel =
+          new LogicalPlanTraverser(
+                  inputVisitor,
+                  outputVisitor,
+                  visited::add,
+                  Collections.singletonList(parallelNodes::add),
+                  Optional.of(pool),
+                  10)
+              .traverse(root);
+
+      assertThat(parallel.getInputs())
+          .extracting(InputDataset::getName)
+          .containsExactlyElementsOf(
+              serial.getInputs().stream().map(InputDataset::getName).collect(Collectors.toList()));
+      assertThat(parallel.getLeaves()).containsExactlyElementsOf(serial.getLeaves());
+      assertThat(visited).containsExactlyElementsOf(serialVisited).hasSize(nodes.size());
+      assertThat(parallelNodes).containsExactlyElementsOf(serialNodes).hasSize(101);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testParallelTraverseOfLeftDeepPlanDoesNotNestTasks() {
+    LogicalPlan plan = node("table0");
+    for (int i = 1; i < 500; i++) {
+      plan = node("join" + i, plan, node("table" + i));
+    }
+    AtomicInteger maxDepth = new AtomicInteger();
+    PartialFunction<LogicalPlan, List<InputDataset>> inputVisitor =
+        new AbstractPartialFunction<LogicalPlan, List<InputDataset>>() {
+          @Override
+          public boolean isDefinedAt(LogicalPlan x) {
+            maxDepth.accumulateAndGet(Thread.currentThread().getStackTrace().length, Math::max);
+            return false;
+          }
+        };
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      TraversalResult result =
+          new LogicalPlanTraverser(
+                  inputVisitor,
+                  visitor(Collections.emptyList(), n -> null),
+                  n -> {},
+                  Collections.emptyList(),
+                  Optional.of(pool),
+                  10)
+              .traverse(plan);
+
+      assertThat(result.getLeaves()).hasSize(500);
+      // a task per join would need several frames per level of the plan
+      assertThat(maxDepth.get()).isLessThan(100);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testParallelTraverseRestoresActiveSessionOfPoolThreads() throws Exception {
+    SparkSession session = mock(SparkSession.class);
+    LogicalPlan root = node("union", node("a"), node("b"), node("c"), node("d"));
+    List<Option<SparkSession>> sessions = Collections.synchronizedList(new ArrayList<>());
+    PartialFunction<LogicalPlan, List<InputDataset>> inputVisitor =
+        new AbstractPartialFunction<LogicalPlan, List<InputDataset>>() {
+          @Override
+          public boolean isDefinedAt(LogicalPlan x) {
+            sessions.add(SparkSession.getActiveSession());
+            return false;
+          }
+        };
+    ForkJoinPool pool = LogicalPlanTraverser.newPool(4);
+    SparkSession.setActiveSession(session);
+    try {
+      new LogicalPlanTraverser(
+              inputVisitor,
+              visitor(Collections.emptyList(), n -> null),
+              n -> {},
+              Collections.emptyList(),
+              Optional.of(pool),
+              1)
+          .traverse(root);
+
+      assertThat(sessions).hasSize(5).allMatch(s -> s.isDefined() && s.get() == session);
+      long poolThreadsWithSession =
+          pool.submit(
+                  () ->
+                      IntStream.range(0, 1000)
+                          .parallel()
+                          .filter(i -> SparkSession.getActiveSession().isDefined())
+                          .count())
+              .get();
+      assertThat(poolThreadsWithSession).isZero();
+      assertThat(SparkSession.getActiveSession().get()).isSameAs(session);
+    } finally {
+      SparkSession.clearActiveSession();
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testFromConfDisabledByDefault() {
+    SparkConf conf = new SparkConf().set(LogicalPlanTraverser.PARALLEL_THRESHOLD_KEY, "1");
+    LogicalPlan root = node("root", node("leaf"));
+    List<String> threads = new ArrayList<>();
+    LogicalPlanTraverser.fromConf(
+            conf,
+            new AbstractPartialFunction<LogicalPlan, List<InputDataset>>() {
+              @Override
+              public boolean isDefinedAt(LogicalPlan x) {
+                threads.add(Thread.currentThread().getName());
+                return false;
+              }
+            },
+            visitor(Collections.emptyList(), n -> null),
+            n -> {})
+        .traverse(root);
+
+    assertThat(threads).containsOnly(Thread.currentThread().getName());
+  }
+
+  private static LogicalPlan node(String name, LogicalPlan... children) {
+    LogicalPlan node = mock(LogicalPlan.class);
+    when(node.children()).thenReturn(ScalaConversionUtils.fromList(Arrays.asList(children)));
+    when(node.toString()).thenReturn(name);
+    return node;
+  }
+
+  private static <D> PartialFunction<LogicalPlan, List<D>> visitor(
+      List<LogicalPlan> definedFor, Function<LogicalPlan, D> fn) {
+    return new AbstractPartialFunction<LogicalPlan, List<D>>() {
+      @Override
+      public boolean isDefinedAt(LogicalPlan x) {
+        return definedFor.contains(x);
+      }
+
+      @Override
+      public List<D> apply(LogicalPlan x) {
+        return Collections.singletonList(fn.apply(x));
+      }
+    };
+  }
+}
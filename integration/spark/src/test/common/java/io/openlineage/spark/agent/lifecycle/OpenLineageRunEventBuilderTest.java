@@ -0,0 +1,313 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.lifecycle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.openlineage.client.OpenLineage;
+import io.openlineage.client.OpenLineage.InputDataset;
+import io.openlineage.client.OpenLineage.OutputDataset;
+import io.openlineage.client.OpenLineage.RunEvent;
+import io.openlineage.spark.agent.OpenLineageMetrics;
+import io.openlineage.spark.agent.client.OpenLineageClient;
+import io.openlineage.spark.agent.facets.builder.LogicalPlanRunFacetBuilder;
+import io.openlineage.spark.agent.util.ScalaConversionUtils;
+import io.openlineage.spark.api.OpenLineageContext;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.spark.SparkConf;
+import org.apache.spark.SparkContext;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.execution.QueryExecution;
+import org.apache.spark.sql.execution.SparkPlan;
+import org.apache.spark.sql.execution.SparkPlanInfo;
+import org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionEnd;
+import org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionStart;
+import org.junit.jupiter.api.Test;
+import scala.PartialFunction;
+import scala.collection.Map$;
+import scala.collection.Seq$;
+import scala.runtime.AbstractPartialFunction;
+
+class OpenLineageRunEventBuilderTest {
+
+  private final OpenLineage openLineage =
+      new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI);
+
+  @Test
+  void testTerminalEventReusesInputsVisitedAtStart() {
+    LogicalPlan leaf = node();
+    LogicalPlan root = node(leaf);
+    QueryExecution qe = mock(QueryExecution.class);
+    when(qe.optimizedPlan()).thenReturn(root);
+    when(qe.executedPlan()).thenReturn(mock(SparkPlan.class));
+
+    OpenLineageContext context =
+        OpenLineageContext.builder()
+            .sparkContext(mock(SparkContext.class))
+            .openLineage(openLineage)
+            .queryExecution(qe)
+            .build();
+
+    AtomicInteger inputVisits = new AtomicInteger();
+    AtomicInteger outputVisits = new AtomicInteger();
+    PartialFunction<LogicalPlan, List<InputDataset>> inputVisitor =
+        new AbstractPartialFunction<LogicalPlan, List<InputDataset>>() {
+          @Override
+          public boolean isDefinedAt(LogicalPlan x) {
+            return x == leaf;
+          }
+
+          @Override
+          public List<InputDataset> apply(LogicalPlan x) {
+            inputVisits.incrementAndGet();
+            return Collections.singletonList(
+                openLineage.newInputDatasetBuilder().namespace("ns").name("input").build());
+          }
+        };
+    PartialFunction<LogicalPlan, List<OutputDataset>> outputVisitor =
+        new AbstractPartialFunction<LogicalPlan, List<OutputDataset>>() {
+          @Override
+          public boolean isDefinedAt(LogicalPlan x) {
+            return x == root;
+          }
+
+          @Override
+          public List<OutputDataset> apply(LogicalPlan x) {
+            return Collections.singletonList(
+                openLineage
+                    .newOutputDatasetBuilder()
+                    .namespace("ns")
+                    .name("output" + outputVisits.incrementAndGet())
+                    .build());
+          }
+        };
+
+    OpenLineageRunEventBuilder builder =
+        new OpenLineageRunEventBuilder(
+            context,
+            Collections.emptyList(),
+            Collections.singletonList(inputVisitor),
+            Collections.emptyList(),
+            Collections.singletonList(outputVisitor),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList());
+
+    RunEvent start =
+        builder.buildRun(
+            Optional.empty(),
+            openLineage.newRunEventBuilder(),
+            openLineage.newJobBuilder().namespace("ns").name("job"),
+            new SparkListenerSQLExecutionStart(
+                1L,
+                "",
+                "",
+                "",
+                new SparkPlanInfo(
+                    "name",
+                    "string",
+                    Seq$.MODULE$.empty(),
+                    Map$.MODULE$.empty(),
+                    Seq$.MODULE$.empty()),
+                1L));
+    RunEvent complete =
+        builder.buildRun(
+            Optional.empty(),
+            openLineage.newRunEventBuilder(),
+            openLineage.newJobBuilder().namespace("ns").name("job"),
+            new SparkListenerSQLExecutionEnd(1L, 2L));
+
+    assertThat(inputVisits).hasValue(1);
+    assertThat(start.getInputs()).extracting(InputDataset::getName).containsExactly("input");
+    assertThat(complete.getInputs()).extracting(InputDataset::getName).containsExactly("input");
+
+    // outputs are re-visited, as they may reflect state changes made by the execution
+    assertThat(start.getOutputs()).extracting(OutputDataset::getName).containsExactly("output1");
+    assertThat(complete.getOutputs()).extracting(OutputDataset::getName).containsExactly("output2");
+  }
+
+  @Test
+  void testDuplicateInputsAreMerged() {
+    LogicalPlan left = node();
+    LogicalPlan right = node();
+    LogicalPlan other = node();
+    LogicalPlan root = node(left, right, other);
+    QueryExecution qe = mock(QueryExecution.class);
+    when(qe.optimizedPlan()).thenReturn(root);
+    when(qe.executedPlan()).thenReturn(mock(SparkPlan.class));
+
+    OpenLineageContext context =
+        OpenLineageContext.builder()
+            .sparkContext(mock(SparkContext.class))
+            .openLineage(openLineage)
+            .queryExecution(qe)
+            .build();
+
+    PartialFunction<LogicalPlan, List<InputDataset>> inputVisitor =
+        new AbstractPartialFunction<LogicalPlan, List<InputDataset>>() {
+          @Override
+          public boolean isDefinedAt(LogicalPlan x) {
+            return true;
+          }
+
+          @Override
+          public List<InputDataset> apply(LogicalPlan x) {
+            if (x == root) {
+              return Collections.emptyList();
+            }
+            OpenLineage.DatasetFacetsBuilder facets = openLineage.newDatasetFacetsBuilder();
+            if (x == left) {
+              facets.schema(
+                  openLineage.newSchemaDatasetFacet(
+                      Collections.singletonList(
+                          openLineage
+                              .newSchemaDatasetFacetFieldsBuilder()
+                              .name("a")
+                              .type("string")
+                              .build())));
+            } else if (x == right) {
+              facets
+                  .schema(openLineage.newSchemaDatasetFacet(Collections.emptyList()))
+                  .dataSource(
+                      openLineage.newDatasourceDatasetFacet("file", URI.create("file:///")));
+            }
+            return Collections.singletonList(
+                openLineage
+                    .newInputDatasetBuilder()
+                    .namespace("ns")
+                    .name(x == other ? "other" : "table")
+                    .facets(facets.build())
+                    .build());
+          }
+        };
+
+    OpenLineageRunEventBuilder builder =
+        new OpenLineageRunEventBuilder(
+            context,
+            Collections.emptyList(),
+            Collections.singletonList(inputVisitor),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList());
+
+    RunEvent event =
+        builder.buildRun(
+            Optional.empty(),
+            openLineage.newRunEventBuilder(),
+            openLineage.newJobBuilder().namespace("ns").name("job"),
+            new SparkListenerSQLExecutionEnd(1L, 2L));
+
+    assertThat(event.getInputs())
+        .extracting(InputDataset::getName)
+        .containsExactly("table", "other");
+    OpenLineage.DatasetFacets facets = event.getInputs().get(0).getFacets();
+    // the first dataset's facets take precedence
+    assertThat(facets.getSchema().getFields()).hasSize(1);
+    assertThat(facets.getDataSource().getName()).isEqualTo("file");
+  }
+
+  @Test
+  void testExpensiveFacetsAreSkippedWhenBudgetIsExceeded() {
+    LogicalPlan root = node();
+    QueryExecution qe = mock(QueryExecution.class);
+    when(qe.optimizedPlan()).thenReturn(root);
+    when(qe.executedPlan()).thenReturn(mock(SparkPlan.class));
+    SparkContext sparkContext = mock(SparkContext.class);
+    when(sparkContext.conf())
+        .thenReturn(new SparkConf().set("spark.openlineage.event.timeBudgetMs", "1"));
+
+    OpenLineageContext context =
+        OpenLineageContext.builder()
+            .sparkContext(sparkContext)
+            .openLineage(openLineage)
+            .queryExecution(qe)
+            .build();
+
+    PartialFunction<LogicalPlan, List<OutputDataset>> slowOutputVisitor =
+        new AbstractPartialFunction<LogicalPlan, List<OutputDataset>>() {
+          @Override
+          public boolean isDefinedAt(LogicalPlan x) {
+            return true;
+          }
+
+          @Override
+          public List<OutputDataset> apply(LogicalPlan x) {
+            try {
+              Thread.sleep(20);
+            } catch (InterruptedException e) {
+              throw new RuntimeException(e);
+            }
+            return Collections.singletonList(
+                openLineage
+                    .newOutputDatasetBuilder()
+                    .namespace("ns")
+                    .name("output")
+                    .facets(
+                        openLineage
+                            .newDatasetFacetsBuilder()
+                            .schema(openLineage.newSchemaDatasetFacet(Collections.emptyList()))
+                            .build())
+                    .build());
+          }
+        };
+
+    long degradedBefore = OpenLineageMetrics.getInstance().getDegradedEvents().getCount();
+    OpenLineageRunEventBuilder builder =
+        new OpenLineageRunEventBuilder(
+            context,
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.singletonList(slowOutputVisitor),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.singletonList(new LogicalPlanRunFacetBuilder(context)),
+            Collections.emptyList());
+
+    RunEvent event =
+        builder.buildRun(
+            Optional.empty(),
+            openLineage.newRunEventBuilder(),
+            openLineage.newJobBuilder().namespace("ns").name("job"),
+            new SparkListenerSQLExecutionEnd(1L, 2L));
+
+    assertThat(event.getOutputs()).hasSize(1);
+    // schema facets are built by the visitors, so there's nothing left to save by dropping them
+    assertThat(event.getOutputs().get(0).getFacets().getSchema()).isNotNull();
+    assertThat(event.getRun().getFacets().getAdditionalProperties())
+        .doesNotContainKey("spark.logicalPlan")
+        .containsKey("spark.degraded");
+    // facets are round-tripped through the facet containers, so only the serialized form remains
+    assertThat(
+            event
+                .getRun()
+                .getFacets()
+                .getAdditionalProperties()
+                .get("spark.degraded")
+                .getAdditionalProperties())
+        .containsEntry("skipped", Arrays.asList("spark_unknown", "spark.logicalPlan"))
+        .containsEntry("budgetMs", 1L);
+    assertThat(OpenLineageMetrics.getInstance().getDegradedEvents().getCount())
+        .isEqualTo(degradedBefore + 1);
+  }
+
+  private static LogicalPlan node(LogicalPlan... children) {
+    LogicalPlan node = mock(LogicalPlan.class);
+    when(node.children()).thenReturn(ScalaConversionUtils.fromList(Arrays.asList(children)));
+    return node;
+  }
+}
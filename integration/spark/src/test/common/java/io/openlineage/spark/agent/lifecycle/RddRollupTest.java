@@ -0,0 +1,117 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.lifecycle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.openlineage.client.OpenLineage;
+import io.openlineage.client.OpenLineage.RunEvent.EventType;
+import io.openlineage.spark.agent.EventEmitter;
+import io.openlineage.spark.agent.JobMetricsHolder.Metric;
+import io.openlineage.spark.agent.facets.RddRollupFacet;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.spark.SparkConf;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RddRollupTest {
+
+  private static final URI INPUT = URI.create("hdfs://namenode/data/input");
+  private static final URI OTHER_INPUT = URI.create("hdfs://namenode/data/other");
+  private static final URI OUTPUT = URI.create("hdfs://namenode/data/output");
+
+  private final EventEmitter emitter = mock(EventEmitter.class);
+  private final List<OpenLineage.RunEvent> events = new ArrayList<>();
+  private final AtomicLong clock = new AtomicLong();
+
+  @BeforeEach
+  public void setUp() {
+    when(emitter.getJobNamespace()).thenReturn("namespace");
+    when(emitter.getParentRunId()).thenReturn(Optional.empty());
+    doAnswer(invocation -> events.add(invocation.getArgument(0))).when(emitter).emit(any());
+  }
+
+  @Test
+  void testJobsAreRolledUpPerApplication() {
+    RddRollup rollup = new RddRollup(emitter, Optional.empty(), 1000, clock::get);
+
+    rollup.add("app.map_partitions", "app", list(INPUT), list(), true, metrics(10, 1), 1);
+    rollup.add("app.union", "app", list(INPUT, OTHER_INPUT), list(OUTPUT), true, metrics(5, 2), 2);
+    rollup.add("app.count", "app", list(INPUT), list(), false, metrics(0, 0), 3);
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getEventType()).isEqualTo(EventType.START);
+    assertThat(events.get(0).getJob().getName()).isEqualTo("app");
+
+    clock.set(1000);
+    rollup.add("app.count", "app", list(INPUT), list(), true, metrics(0, 0), 4);
+    rollup.complete(5);
+
+    assertThat(events).hasSize(3);
+    OpenLineage.RunEvent flush = events.get(1);
+    assertThat(flush.getEventType()).isEqualTo(EventType.OTHER);
+    assertThat(flush.getInputs()).hasSize(2);
+    assertThat(flush.getOutputs()).hasSize(1);
+    RddRollupFacet facet =
+        (RddRollupFacet)
+            flush.getRun().getFacets().getAdditionalProperties().get("spark.rddRollup");
+    assertThat(facet.getJobs()).isEqualTo(4);
+    assertThat(facet.getFailedJobs()).isEqualTo(1);
+    assertThat(facet.getWriteBytes()).isEqualTo(15);
+    assertThat(facet.getWriteRecords()).isEqualTo(3);
+
+    assertThat(events.get(2).getEventType()).isEqualTo(EventType.COMPLETE);
+    assertThat(
+            events.stream().map(e -> e.getRun().getRunId()).distinct().collect(Collectors.toList()))
+        .hasSize(1);
+  }
+
+  @Test
+  void testJobsAreGroupedByPattern() {
+    RddRollup rollup =
+        new RddRollup(
+            emitter, Optional.of(Pattern.compile("^app\\.(load_\\w+?)_")), 1000, clock::get);
+
+    rollup.add("app.load_users_map", "app", list(INPUT), list(), true, metrics(0, 0), 1);
+    rollup.add("app.load_users_filter", "app", list(INPUT), list(), true, metrics(0, 0), 2);
+    rollup.add("app.load_orders_map", "app", list(INPUT), list(), true, metrics(0, 0), 3);
+    rollup.add("app.count", "app", list(INPUT), list(), true, metrics(0, 0), 4);
+
+    assertThat(events.stream().map(e -> e.getJob().getName()))
+        .containsExactly("load_users", "load_orders", "app");
+  }
+
+  @Test
+  void testRollupIsDisabledByDefault() {
+    assertThat(RddRollup.fromConf(new SparkConf(), emitter)).isEmpty();
+    assertThat(
+            RddRollup.fromConf(
+                new SparkConf().set("spark." + RddRollup.ENABLED_KEY, "true"), emitter))
+        .isPresent();
+  }
+
+  private static List<URI> list(URI... uris) {
+    return uris.length == 0 ? Collections.emptyList() : Arrays.asList(uris);
+  }
+
+  private static Map<Metric, Number> metrics(long bytes, long records) {
+    Map<Metric, Number> metrics = new HashMap<>();
+    metrics.put(Metric.WRITE_BYTES, bytes);
+    metrics.put(Metric.WRITE_RECORDS, records);
+    return metrics;
+  }
+}
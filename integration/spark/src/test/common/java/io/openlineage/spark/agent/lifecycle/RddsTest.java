@@ -0,0 +1,69 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.lifecycle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Set;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.rdd.RDD;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.SparkSession$;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RddsTest {
+
+  private JavaSparkContext sc;
+
+  @BeforeEach
+  public void setUp() {
+    SparkSession session = SparkSession.builder().master("local").getOrCreate();
+    sc = JavaSparkContext.fromSparkContext(session.sparkContext());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SparkSession$.MODULE$.cleanupAnyExistingSession();
+  }
+
+  @Test
+  void testSharedParentsAreVisitedOnce() {
+    JavaRDD<Integer> numbers = sc.parallelize(Arrays.asList(1, 2, 3)).setName("numbers");
+    JavaRDD<Integer> doubled = numbers.map(i -> i * 2);
+    RDD<Integer> union = doubled.union(doubled).union(numbers).rdd();
+
+    Set<RDD<?>> rdds = Rdds.flattenRDDs(union);
+
+    assertThat(rdds).hasSize(4).contains(numbers.rdd(), doubled.rdd(), union);
+  }
+
+  @Test
+  void testDeepLineageIsTraversed() {
+    JavaRDD<Integer> rdd = sc.parallelize(Arrays.asList(1, 2, 3));
+    for (int i = 0; i < 5000; i++) {
+      rdd = rdd.map(x -> x + 1);
+    }
+
+    assertThat(Rdds.flattenRDDs(rdd.rdd())).hasSize(5001);
+    assertThat(Rdds.flattenRDDs(rdd.rdd(), 10)).hasSize(10);
+    assertThat(RddExecutionContext.nameRDD(rdd.rdd()))
+        .isEqualTo("map_partitions_parallel_collection");
+  }
+
+  @Test
+  void testJobNamesAreBounded() {
+    JavaRDD<Integer> rdd = sc.parallelize(Arrays.asList(1, 2, 3)).setName("numbers");
+    for (int i = 0; i < 100; i++) {
+      rdd = rdd.union(sc.parallelize(Arrays.asList(i)).setName("partition_" + i));
+    }
+
+    String name = RddExecutionContext.nameRDD(rdd.rdd());
+
+    assertThat(name).hasSize(RddExecutionContext.MAX_JOB_NAME_LENGTH).startsWith("union_numbers_");
+    assertThat(RddExecutionContext.nameRDD(rdd.rdd())).isEqualTo(name);
+  }
+}
@@ -5,7 +5,10 @@ package io.openlineage.spark.agent.lifecycle;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import io.openlineage.spark.agent.facets.UnknownEntryFacet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import org.apache.spark.SparkConf;
 import org.apache.spark.sql.catalyst.expressions.AttributeReference;
 import org.apache.spark.sql.catalyst.expressions.ExprId;
 import org.apache.spark.sql.catalyst.expressions.NamedExpression;
@@ -95,4 +98,68 @@ class UnknownEntryFacetListenerTest {
     Optional<UnknownEntryFacet> facet = underTest.build(project);
     assertThat(facet.isPresent()).isFalse();
   }
+
+  @Test
+  void testUnknownLeavesOfTheSameClassAreReportedOnce() {
+    UnknownEntryFacetListener underTest = new UnknownEntryFacetListener();
+    ListFilesCommand first =
+        new ListFilesCommand(Seq$.MODULE$.<String>newBuilder().$plus$eq("./first").result());
+    ListFilesCommand second =
+        new ListFilesCommand(Seq$.MODULE$.<String>newBuilder().$plus$eq("./second").result());
+    Project project = new Project(Seq$.MODULE$.<NamedExpression>empty(), first);
+    underTest.accept(project);
+
+    UnknownEntryFacet facet =
+        underTest
+            .build(project, Arrays.asList(first, second), UnknownEntryFacetListener.Limits.DEFAULT)
+            .get();
+
+    assertThat(facet.getOutput()).isNull();
+    assertThat(facet.getInputs()).hasSize(1).first().hasFieldOrPropertyWithValue("count", 2);
+  }
+
+  @Test
+  void testLimitsAreApplied() {
+    UnknownEntryFacetListener underTest = new UnknownEntryFacetListener();
+    ListFilesCommand logicalPlan =
+        new ListFilesCommand(Seq$.MODULE$.<String>newBuilder().$plus$eq("./test").result());
+    Project project = new Project(Seq$.MODULE$.<NamedExpression>empty(), logicalPlan);
+    underTest.accept(project);
+
+    UnknownEntryFacet facet =
+        underTest
+            .build(
+                project,
+                Collections.singletonList(logicalPlan),
+                new UnknownEntryFacetListener.Limits(true, 1, 10, 0))
+            .get();
+
+    assertThat(facet.getInputs())
+        .hasSize(1)
+        .first()
+        .hasFieldOrPropertyWithValue(
+            "description",
+            "{\"class\":\"org.apache.spark.sql.execution.command.ListFilesCommand\","
+                + "\"truncated\":true,\"maxSize\":10}")
+        .extracting("outputAttributes")
+        .asList()
+        .isEmpty();
+  }
+
+  @Test
+  void testDisabledByConf() {
+    UnknownEntryFacetListener underTest = new UnknownEntryFacetListener();
+    ListFilesCommand logicalPlan =
+        new ListFilesCommand(Seq$.MODULE$.<String>newBuilder().$plus$eq("./test").result());
+    UnknownEntryFacetListener.Limits limits =
+        UnknownEntryFacetListener.Limits.fromConf(
+            new SparkConf().set("spark." + UnknownEntryFacetListener.ENABLED_KEY, "false"));
+
+    assertThat(limits.isEnabled()).isFalse();
+    assertThat(
+            underTest
+                .build(logicalPlan, Collections.singletonList(logicalPlan), limits)
+                .isPresent())
+        .isFalse();
+  }
 }
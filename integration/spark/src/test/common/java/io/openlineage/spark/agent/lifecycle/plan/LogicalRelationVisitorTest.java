@@ -3,27 +3,46 @@
 package io.openlineage.spark.agent.lifecycle.plan;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import io.openlineage.client.OpenLineage;
 import io.openlineage.spark.agent.SparkAgentTestExtension;
 import io.openlineage.spark.agent.client.OpenLineageClient;
+import io.openlineage.spark.agent.facets.PartitionsFacet;
+import io.openlineage.spark.agent.util.DirectoryPathResolver;
+import io.openlineage.spark.agent.util.PartitionUtils;
+import io.openlineage.spark.agent.util.ScalaConversionUtils;
 import io.openlineage.spark.api.DatasetFactory;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.spark.Partition;
+import org.apache.spark.SparkConf;
 import org.apache.spark.SparkContext;
 import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalyst.InternalRow$;
 import org.apache.spark.sql.catalyst.expressions.AttributeReference;
 import org.apache.spark.sql.catalyst.expressions.ExprId;
+import org.apache.spark.sql.execution.datasources.HadoopFsRelation;
 import org.apache.spark.sql.execution.datasources.LogicalRelation;
+import org.apache.spark.sql.execution.datasources.PartitionPath;
+import org.apache.spark.sql.execution.datasources.PartitionSpec;
+import org.apache.spark.sql.execution.datasources.PartitioningAwareFileIndex;
 import org.apache.spark.sql.execution.datasources.jdbc.JDBCOptions;
 import org.apache.spark.sql.execution.datasources.jdbc.JDBCRelation;
+import org.apache.spark.sql.types.Metadata;
 import org.apache.spark.sql.types.StringType$;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.postgresql.Driver;
@@ -41,6 +60,11 @@ class LogicalRelationVisitorTest {
     when(session.sparkContext()).thenReturn(mock(SparkContext.class));
   }
 
+  @AfterEach
+  public void tearDown() {
+    DirectoryPathResolver.configure(new SparkConf());
+  }
+
   @ParameterizedTest
   @ValueSource(
       strings = {
@@ -93,4 +117,108 @@ class LogicalRelationVisitorTest {
     assertEquals(URI.create(connectionUri), ds.getFacets().getDataSource().getUri());
     assertEquals(connectionUri, ds.getFacets().getDataSource().getName());
   }
+
+  @Test
+  void testApplyJdbcQuery() {
+    LogicalRelationVisitor visitor =
+        new LogicalRelationVisitor(
+            SparkAgentTestExtension.newContext(session),
+            DatasetFactory.input(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI)));
+    String connectionUri = "postgresql://postgreshost:5432/sparkdata";
+    JDBCRelation relation =
+        new JDBCRelation(
+            new StructType(
+                new StructField[] {new StructField("name", StringType$.MODULE$, false, null)}),
+            new Partition[] {},
+            new JDBCOptions(
+                Map$.MODULE$
+                    .<String, String>newBuilder()
+                    .$plus$eq(Tuple2.apply("url", "jdbc:" + connectionUri))
+                    .$plus$eq(
+                        Tuple2.apply(
+                            "query",
+                            "SELECT u.name FROM public.users u JOIN public.orders o ON u.id = o.uid"))
+                    .$plus$eq(Tuple2.apply("driver", Driver.class.getName()))
+                    .result()),
+            session);
+
+    List<OpenLineage.Dataset> datasets =
+        visitor.apply(
+            new LogicalRelation(
+                relation, Seq$.MODULE$.<AttributeReference>empty(), Option.empty(), false));
+
+    assertEquals(2, datasets.size());
+    assertEquals("public.users", datasets.get(0).getName());
+    assertEquals("public.orders", datasets.get(1).getName());
+    assertEquals(connectionUri, datasets.get(1).getNamespace());
+    assertEquals(connectionUri, datasets.get(1).getFacets().getDataSource().getName());
+    assertNull(datasets.get(0).getFacets().getSchema());
+  }
+
+  @Test
+  void testPartitionDirectoriesAreCollapsed() {
+    DirectoryPathResolver.configure(
+        new SparkConf().set(DirectoryPathResolver.MODE_KEY, "heuristic"));
+    SparkContext sparkContext = mock(SparkContext.class);
+    when(sparkContext.hadoopConfiguration()).thenReturn(new Configuration());
+    when(sparkContext.conf())
+        .thenReturn(
+            new SparkConf()
+                .set(PartitionUtils.COLLAPSE_KEY, "true")
+                .set(PartitionUtils.MAX_LISTED_KEY, "2"));
+    when(session.sparkContext()).thenReturn(sparkContext);
+    LogicalRelationVisitor visitor =
+        new LogicalRelationVisitor(
+            SparkAgentTestExtension.newContext(session),
+            DatasetFactory.input(new OpenLineage(OpenLineageClient.OPEN_LINEAGE_CLIENT_URI)));
+
+    StructType partitionSchema =
+        new StructType(
+            new StructField[] {
+              new StructField("date", StringType$.MODULE$, false, Metadata.empty())
+            });
+    PartitioningAwareFileIndex fileIndex = mock(PartitioningAwareFileIndex.class);
+    when(fileIndex.rootPaths())
+        .thenReturn(
+            ScalaConversionUtils.fromList(
+                Arrays.asList(
+                    new Path("file:/warehouse/events/date=2022-01-02"),
+                    new Path("file:/warehouse/events/date=2022-01-01"),
+                    new Path("file:/warehouse/other"))));
+    when(fileIndex.partitionSpec())
+        .thenReturn(
+            new PartitionSpec(
+                partitionSchema,
+                ScalaConversionUtils.fromList(
+                    Arrays.asList(
+                        new PartitionPath(
+                            InternalRow$.MODULE$.empty(),
+                            new Path("file:/warehouse/events/date=2022-01-01")),
+                        new PartitionPath(
+                            InternalRow$.MODULE$.empty(),
+                            new Path("file:/warehouse/events/date=2022-01-03"))))));
+    HadoopFsRelation relation = mock(HadoopFsRelation.class);
+    when(relation.location()).thenReturn(fileIndex);
+    when(relation.partitionSchema()).thenReturn(partitionSchema);
+    when(relation.schema()).thenReturn(partitionSchema);
+
+    List<OpenLineage.Dataset> datasets =
+        visitor.apply(
+            new LogicalRelation(
+                relation, Seq$.MODULE$.<AttributeReference>empty(), Option.empty(), false));
+
+    assertEquals(2, datasets.size());
+    assertEquals("/warehouse/events", datasets.get(0).getName());
+    assertEquals("file", datasets.get(0).getNamespace());
+    PartitionsFacet facet =
+        (PartitionsFacet) datasets.get(0).getFacets().getAdditionalProperties().get("partitions");
+    assertEquals(3, facet.getCount());
+    assertEquals(Collections.singletonList("date"), facet.getColumns());
+    assertEquals("2022-01-01", facet.getMin().get("date"));
+    assertEquals("2022-01-03", facet.getMax().get("date"));
+    assertEquals(Arrays.asList("date=2022-01-02", "date=2022-01-01"), facet.getPartitions());
+
+    assertEquals("/warehouse/other", datasets.get(1).getName());
+    assertFalse(datasets.get(1).getFacets().getAdditionalProperties().containsKey("partitions"));
+  }
 }
@@ -0,0 +1,74 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.spark.SparkConf;
+import org.apache.spark.sql.catalyst.TableIdentifier;
+import org.apache.spark.sql.catalyst.catalog.CatalogTable;
+import org.junit.jupiter.api.Test;
+import scala.Option;
+
+class CatalogTableCacheTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final CatalogTableCache cache = new CatalogTableCache(clock::get);
+  private final AtomicInteger loads = new AtomicInteger();
+  private final CatalogTable table = mock(CatalogTable.class);
+
+  private Optional<CatalogTable> load() {
+    loads.incrementAndGet();
+    return Optional.of(table);
+  }
+
+  @Test
+  void testTablesAreCachedUntilTtlExpires() {
+    assertThat(cache.getTable("db.t", 1000, this::load)).contains(table);
+    clock.set(1000);
+    assertThat(cache.getTable("db.t", 1000, this::load)).contains(table);
+    assertThat(loads.get()).isEqualTo(1);
+
+    clock.set(1001);
+    assertThat(cache.getTable("db.t", 1000, this::load)).contains(table);
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testInvalidate() {
+    DatasetIdentifier identifier = new DatasetIdentifier("t", "file");
+    cache.getTable("db.t", 1000, this::load);
+    cache.getIdentifier("db.t", 1000, () -> identifier);
+
+    cache.invalidate("db.t");
+
+    cache.getTable("db.t", 1000, this::load);
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(cache.getIdentifier("db.t", 1000, () -> new DatasetIdentifier("t2", "file")))
+        .isNotSameAs(identifier);
+  }
+
+  @Test
+  void testMissingTablesAndDisabledCacheAreNotStored() {
+    cache.getTable("db.t", 1000, Optional::empty);
+    cache.getTable("db.t", 0, this::load);
+    cache.getTable("db.t", 1000, this::load);
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testQualifiedName() {
+    assertThat(CatalogTableCache.qualifiedName(new TableIdentifier("T", Option.empty()), "Db"))
+        .isEqualTo("db.t");
+    assertThat(CatalogTableCache.qualifiedName(new TableIdentifier("t", Option.apply("x")), "db"))
+        .isEqualTo("x.t");
+    assertThat(CatalogTableCache.qualifiedName(new String[] {"db"}, "t")).isEqualTo("db.t");
+    assertThat(
+            CatalogTableCache.ttl(new SparkConf().set("spark." + CatalogTableCache.TTL_KEY, "5")))
+        .isEqualTo(5);
+  }
+}
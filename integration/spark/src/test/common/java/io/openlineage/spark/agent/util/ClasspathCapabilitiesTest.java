@@ -0,0 +1,31 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.openlineage.spark.agent.util.ClasspathCapabilities.Integration;
+import java.net.URL;
+import java.net.URLClassLoader;
+import org.junit.jupiter.api.Test;
+
+class ClasspathCapabilitiesTest {
+
+  @Test
+  void testIntegrationsOnClasspathAreAvailable() {
+    assertThat(ClasspathCapabilities.available())
+        .contains(Integration.HIVE, Integration.KAFKA)
+        .doesNotContain(Integration.SQL_DW_DATABRICKS, Integration.DATABRICKS_DELTA);
+    assertThat(ClasspathCapabilities.isAvailable(Integration.KAFKA)).isTrue();
+    assertThat(ClasspathCapabilities.isAvailable(Integration.SQL_DW_DATABRICKS)).isFalse();
+  }
+
+  @Test
+  void testProbeUsesGivenClassLoader() {
+    ClassLoader empty = new URLClassLoader(new URL[0], null);
+
+    assertThat(ClasspathCapabilities.probe(empty)).isEmpty();
+    assertThat(ClasspathCapabilities.probe(getClass().getClassLoader()))
+        .isEqualTo(ClasspathCapabilities.available());
+  }
+}
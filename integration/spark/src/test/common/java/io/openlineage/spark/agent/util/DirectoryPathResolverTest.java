@@ -0,0 +1,123 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.spark.SparkConf;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectoryPathResolverTest {
+
+  @TempDir java.nio.file.Path tempDir;
+
+  private final Configuration hadoopConf = new Configuration();
+
+  @BeforeEach
+  void clearCache() {
+    DirectoryPathResolver.cache.clear();
+  }
+
+  @AfterEach
+  void resetConfiguration() {
+    DirectoryPathResolver.configure(new SparkConf());
+  }
+
+  @Test
+  void testFileStatusIsCachedUntilTtlExpires() throws IOException {
+    AtomicLong clock = new AtomicLong(0);
+    DirectoryPathResolver resolver = new DirectoryPathResolver(false, 1000, 1, clock::get);
+    java.nio.file.Path file = Files.createFile(tempDir.resolve("data"));
+    Path path = new Path(file.toUri());
+
+    assertThat(resolver.resolve(path, hadoopConf)).isEqualTo(path.getParent());
+
+    Files.delete(file);
+    Files.createDirectory(file);
+    assertThat(resolver.resolve(path, hadoopConf)).isEqualTo(path.getParent());
+
+    clock.set(1001);
+    assertThat(resolver.resolve(path, hadoopConf)).isEqualTo(path);
+  }
+
+  @Test
+  void testPathsAreResolvedInParallelKeepingOrder() throws IOException {
+    DirectoryPathResolver resolver =
+        new DirectoryPathResolver(false, 1000, 4, System::currentTimeMillis);
+    Path dir = new Path(Files.createDirectory(tempDir.resolve("dir")).toString());
+    Path first = new Path(Files.createFile(tempDir.resolve("first")).toString());
+    Path second = new Path(Files.createFile(tempDir.resolve("dir/second")).toString());
+
+    assertThat(resolver.resolve(Arrays.asList(first, dir, second), hadoopConf))
+        .containsExactly(first.getParent(), dir, dir);
+    assertThat(DirectoryPathResolver.cache.size()).isEqualTo(3);
+  }
+
+  @Test
+  void testFailedParallelLookupsAreNotRepeated() {
+    DirectoryPathResolver resolver =
+        new DirectoryPathResolver(false, 1000, 4, System::currentTimeMillis);
+    Configuration conf = new Configuration(hadoopConf);
+    conf.setClass("fs.failing.impl", FailingFileSystem.class, FileSystem.class);
+    conf.setBoolean("fs.failing.impl.disable.cache", true);
+    Path first = new Path("failing:///first");
+    Path second = new Path("failing:///second");
+    FailingFileSystem.calls.set(0);
+
+    assertThat(resolver.resolve(Arrays.asList(first, second, first), conf))
+        .containsExactly(first, second, first);
+    assertThat(FailingFileSystem.calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testHeuristicModeDoesNotTouchFileSystem() {
+    DirectoryPathResolver resolver =
+        new DirectoryPathResolver(true, 1000, 4, System::currentTimeMillis);
+
+    assertThat(
+            resolver.resolve(
+                Arrays.asList(
+                    new Path("s3a://bucket/table/part-00000-abc.snappy.parquet"),
+                    new Path("s3a://bucket/events/data.csv"),
+                    new Path("s3a://bucket/table/date=2022-01-01")),
+                hadoopConf))
+        .containsExactly(
+            new Path("s3a://bucket/table"),
+            new Path("s3a://bucket/events"),
+            new Path("s3a://bucket/table/date=2022-01-01"));
+    assertThat(DirectoryPathResolver.cache.size()).isZero();
+  }
+
+  @Test
+  void testConfiguredModeIsUsedForSinglePaths() {
+    DirectoryPathResolver.configure(
+        new SparkConf().set(DirectoryPathResolver.MODE_KEY, DirectoryPathResolver.HEURISTIC_MODE));
+
+    assertThat(PlanUtils.getDirectoryPath(new Path("s3a://bucket/events/data.csv"), hadoopConf))
+        .isEqualTo(new Path("s3a://bucket/events"));
+    assertThat(DirectoryPathResolver.cache.size()).isZero();
+  }
+
+  public static class FailingFileSystem extends RawLocalFileSystem {
+    static final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public FileStatus getFileStatus(Path path) throws IOException {
+      calls.incrementAndGet();
+      throw new IOException("unavailable");
+    }
+  }
+}
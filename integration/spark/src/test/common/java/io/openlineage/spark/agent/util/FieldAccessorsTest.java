@@ -0,0 +1,46 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class FieldAccessorsTest {
+
+  @SuppressWarnings("unused")
+  static class Holder {
+    private final String arg$1 = "value";
+    private final CharSequence org$example$Holder$$self = "self";
+    private final Integer self = 1;
+  }
+
+  @Test
+  void testReadFieldTriesNamesInOrder() {
+    Holder holder = new Holder();
+
+    assertThat(FieldAccessors.<String>readField(holder, "config$1", "arg$1")).contains("value");
+    assertThat(FieldAccessors.readField(holder, "missing")).isEmpty();
+  }
+
+  @Test
+  void testGettersAreResolvedOnce() {
+    Optional<MethodHandle> getter = FieldAccessors.getter(Holder.class, "arg$1");
+
+    assertThat(getter).isPresent();
+    assertThat(FieldAccessors.getter(Holder.class, "arg$1").get()).isSameAs(getter.get());
+    assertThat(FieldAccessors.getter(Holder.class, "config$1")).isEmpty();
+  }
+
+  @Test
+  void testGettersBySuffixAndType() {
+    List<MethodHandle> getters = FieldAccessors.getters(Holder.class, "self", CharSequence.class);
+
+    assertThat(getters).hasSize(1);
+    assertThat((Object) FieldAccessors.invoke(getters.get(0), new Holder())).isEqualTo("self");
+    assertThat(FieldAccessors.getters(Holder.class, "self", CharSequence.class)).isSameAs(getters);
+  }
+}
@@ -0,0 +1,50 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.spark.rdd.NewHadoopRDD;
+import org.apache.spark.rdd.RDD;
+import org.junit.jupiter.api.Test;
+
+class HadoopInputPathsTest {
+
+  @Test
+  void testPathsMatchFileInputFormat() throws IOException {
+    Job job = Job.getInstance(new Configuration(false));
+    job.getConfiguration()
+        .set(FileInputFormat.INPUT_DIR, "file:/tmp/a\\,b,s3a://bucket/table/dt=2022-01-01");
+
+    assertThat(HadoopInputPaths.read(job.getConfiguration()))
+        .containsExactly(FileInputFormat.getInputPaths(job))
+        .contains(new Path("file:/tmp/a,b"));
+    assertThat(HadoopInputPaths.read(new Configuration(false))).isEmpty();
+  }
+
+  @Test
+  void testPathsAreReadOncePerRdd() throws IOException {
+    Job job = Job.getInstance(new Configuration(false));
+    FileInputFormat.addInputPath(job, new Path("/tmp/input"));
+    NewHadoopRDD<?, ?> rdd = mock(NewHadoopRDD.class);
+    when(rdd.id()).thenReturn(7);
+    when(rdd.getConf()).thenReturn(job.getConfiguration());
+    HadoopInputPaths inputPaths = new HadoopInputPaths();
+
+    Path[] paths = inputPaths.of(rdd);
+
+    assertThat(paths).containsExactly(new Path("file:/tmp/input"));
+    assertThat(inputPaths.of(rdd)).isSameAs(paths);
+    verify(rdd, times(1)).getConf();
+    assertThat(inputPaths.of(mock(RDD.class))).isEmpty();
+  }
+}
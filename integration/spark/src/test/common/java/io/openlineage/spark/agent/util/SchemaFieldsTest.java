@@ -0,0 +1,102 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.openlineage.client.OpenLineage;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.spark.SparkConf;
+import org.apache.spark.sql.types.ArrayType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.MapType;
+import org.apache.spark.sql.types.StructType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SchemaFieldsTest {
+
+  private final StructType address =
+      new StructType()
+          .add("city", DataTypes.StringType)
+          .add("geo", new StructType().add("lat", DataTypes.DoubleType));
+
+  private final StructType schema =
+      new StructType()
+          .add("id", DataTypes.LongType)
+          .add("address", address)
+          .add("tags", new ArrayType(new StructType().add("name", DataTypes.StringType), true))
+          .add("attributes", new MapType(DataTypes.StringType, DataTypes.IntegerType, true), true);
+
+  @AfterEach
+  void resetSettings() {
+    SchemaFields.configure(null);
+  }
+
+  @Test
+  void testFieldsAreSharedForEqualSchemas() {
+    StructType copy = StructType.fromDDL(schema.toDDL());
+
+    List<OpenLineage.SchemaDatasetFacetFields> fields = SchemaFields.fields(schema);
+
+    assertThat(names(fields)).containsExactly("id", "address", "tags", "attributes");
+    assertThat(SchemaFields.fields(copy)).isSameAs(fields);
+  }
+
+  @Test
+  void testKnownSchemasFollowSettingChanges() {
+    assertThat(names(SchemaFields.fields(schema))).hasSize(4);
+
+    SchemaFields.configure(new SparkConf().set(SchemaFields.NESTED_KEY, "true"));
+
+    assertThat(names(SchemaFields.fields(schema))).hasSize(10);
+  }
+
+  @Test
+  void testNestedFieldsAreFlattened() {
+    SchemaFields.configure(new SparkConf().set(SchemaFields.NESTED_KEY, "true"));
+
+    List<OpenLineage.SchemaDatasetFacetFields> fields = SchemaFields.fields(schema);
+
+    assertThat(names(fields))
+        .containsExactly(
+            "id",
+            "address",
+            "address.city",
+            "address.geo",
+            "address.geo.lat",
+            "tags",
+            "tags.name",
+            "attributes",
+            "attributes.key",
+            "attributes.value");
+    assertThat(fields.get(4).getType()).isEqualTo("double");
+  }
+
+  @Test
+  void testNestedFieldsAreLimited() {
+    SchemaFields.Settings depth = new SchemaFields.Settings(true, 2, 100);
+    SchemaFields.Settings count = new SchemaFields.Settings(true, 5, 2);
+
+    assertThat(names(SchemaFields.build(schema, depth)))
+        .containsExactly(
+            "id",
+            "address",
+            "address.city",
+            "address.geo",
+            "tags",
+            "tags.name",
+            "attributes",
+            "attributes.key",
+            "attributes.value");
+    assertThat(names(SchemaFields.build(schema, count)))
+        .containsExactly("id", "address", "address.city", "address.geo", "tags", "attributes");
+  }
+
+  private static List<String> names(List<OpenLineage.SchemaDatasetFacetFields> fields) {
+    return fields.stream()
+        .map(OpenLineage.SchemaDatasetFacetFields::getName)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,68 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark.agent.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SqlTableExtractorTest {
+
+  @ParameterizedTest
+  @MethodSource("provideQueries")
+  void testExtractTables(String query, List<String> expected) {
+    assertThat(SqlTableExtractor.extract(query)).isEqualTo(expected);
+  }
+
+  private static Stream<Arguments> provideQueries() {
+    return Stream.of(
+        Arguments.of("SELECT * FROM orders", Arrays.asList("orders")),
+        Arguments.of(
+            "select o.id, c.name from sales.orders o join sales.customers c on o.cid = c.id",
+            Arrays.asList("sales.orders", "sales.customers")),
+        Arguments.of(
+            "SELECT a.x FROM a, b AS bb, \"My Schema\".\"My Table\" WHERE a.x = bb.x",
+            Arrays.asList("a", "b", "My Schema.My Table")),
+        Arguments.of(
+            "SELECT * FROM `db`.`events` LEFT OUTER JOIN [dbo].[users] ON 1 = 1",
+            Arrays.asList("db.events", "dbo.users")),
+        Arguments.of(
+            "SELECT * FROM (SELECT id FROM inner_table WHERE x IN (SELECT x FROM lookup)) t, other",
+            Arrays.asList("inner_table", "lookup", "other")),
+        Arguments.of(
+            "WITH recent AS (SELECT * FROM events WHERE ts > '2022-01-01'), "
+                + "totals (id, n) AS (SELECT id, count(*) FROM recent GROUP BY id) "
+                + "SELECT * FROM totals JOIN users ON totals.id = users.id",
+            Arrays.asList("events", "users")),
+        Arguments.of(
+            "SELECT EXTRACT(YEAR FROM created_at), 'FROM fake' -- FROM commented\n"
+                + "/* JOIN hidden */ FROM real_table",
+            Arrays.asList("real_table")),
+        Arguments.of(
+            "SELECT * FROM a JOIN (b JOIN c ON b.id = c.id) ON a.id = b.id",
+            Arrays.asList("a", "b", "c")),
+        Arguments.of("SELECT * FROM (a JOIN b ON a.id = b.id)", Arrays.asList("a", "b")),
+        Arguments.of(
+            "SELECT * FROM ((a JOIN b ON a.id = b.id) JOIN c ON b.id = c.id)",
+            Arrays.asList("a", "b", "c")),
+        Arguments.of("SELECT * FROM generate_series(1, 10)", Arrays.asList()),
+        Arguments.of("SELECT 1", Arrays.asList()),
+        Arguments.of("SELECT * FROM 'unterminated", Arrays.asList()));
+  }
+
+  @Test
+  void testResultsAreMemoizedByQuery() {
+    String query = "SELECT * FROM t1 JOIN t2 ON t1.id = t2.id";
+
+    List<String> tables = SqlTableExtractor.tables(query);
+
+    assertThat(tables).containsExactly("t1", "t2");
+    assertThat(SqlTableExtractor.tables(new String(query))).isSameAs(tables);
+  }
+}
@@ -0,0 +1,59 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+
+package io.openlineage.spark3.agent.lifecycle.plan.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import org.apache.spark.sql.RuntimeConfig;
+import org.apache.spark.sql.SparkSession;
+import org.junit.jupiter.api.Test;
+import scala.collection.immutable.Map;
+
+class CatalogIndexTest {
+
+  private final SparkSession session = mock(SparkSession.class);
+  private final RuntimeConfig runtimeConfig = mock(RuntimeConfig.class);
+
+  @Test
+  void testSettingsAreParsedOnceUntilConfChanges() {
+    when(session.conf()).thenReturn(runtimeConfig);
+    when(runtimeConfig.get("spark.sql.catalog.test.type", null)).thenReturn("hadoop");
+    when(runtimeConfig.getAll())
+        .thenReturn(
+            new Map.Map3<>(
+                "spark.sql.catalog.test.type",
+                "hadoop",
+                "spark.sql.catalog.test.warehouse",
+                "/tmp/warehouse",
+                "spark.sql.catalog.other.type",
+                "hive"));
+
+    CatalogIndex index = CatalogIndex.forSession(session);
+    assertThat(CatalogIndex.forSession(session)).isSameAs(index);
+    assertThat(index.settings(session, "test"))
+        .hasSize(2)
+        .containsEntry("type", "hadoop")
+        .containsEntry("warehouse", "/tmp/warehouse");
+    index.settings(session, "test");
+    verify(runtimeConfig, times(1)).getAll();
+
+    when(runtimeConfig.get("spark.sql.catalog.test.type", null)).thenReturn("hive");
+    index.settings(session, "test");
+    verify(runtimeConfig, times(2)).getAll();
+  }
+
+  @Test
+  void testIndexDoesNotReferenceSession() {
+    // indexes are values of a WeakHashMap keyed by session, a reference back would pin the session
+    assertThat(CatalogIndex.class.getDeclaredFields())
+        .filteredOn(field -> !Modifier.isStatic(field.getModifiers()))
+        .extracting(Field::getType)
+        .doesNotContain(SparkSession.class, Object.class);
+  }
+}
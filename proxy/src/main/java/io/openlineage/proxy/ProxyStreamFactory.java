@@ -36,6 +36,7 @@ public final class ProxyStreamFactory {
       Lists.newArrayList(new ConsoleConfig());
 
   @Getter @Setter private String source = DEFAULT_PROXY_LINEAGE_SOURCE;
+  @Getter @Setter private boolean validateEvents = true;
   @Getter @Setter private List<ProxyStreamConfig> streams = DEFAULT_STREAMS;
 
   public ImmutableSet<LineageStream> build() {
@@ -7,6 +7,8 @@ package io.openlineage.proxy.api;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
 import io.openlineage.proxy.service.ProxyService;
+import java.util.List;
+import java.util.Map;
 import javax.validation.Valid;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
@@ -30,6 +32,13 @@ public class ProxyResource {
   @Consumes(APPLICATION_JSON)
   public void proxyEvent(
       @Valid String eventAsString, @Suspended final AsyncResponse asyncResponse) {
+    final List<String> errors = service.validate(eventAsString);
+    if (!errors.isEmpty()) {
+      log.debug("Rejected invalid OpenLineage event: {}", errors);
+      asyncResponse.resume(
+          Response.status(400).type(APPLICATION_JSON).entity(Map.of("errors", errors)).build());
+      return;
+    }
     service
         .proxyEventAsync(eventAsString)
         .whenComplete(
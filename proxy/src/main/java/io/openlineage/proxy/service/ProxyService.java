@@ -6,8 +6,10 @@ package io.openlineage.proxy.service;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import io.openlineage.client.OpenLineageValidator;
 import io.openlineage.proxy.ProxyConfig;
 import io.openlineage.proxy.api.models.LineageStream;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import lombok.NonNull;
@@ -16,6 +18,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public final class ProxyService {
   private final ImmutableSet<LineageStream> lineageStreams;
+  private final OpenLineageValidator validator;
 
   /**
    * Constructor reviews the content of the config file and sets up the appropriate lineage streams.
@@ -24,6 +27,21 @@ public final class ProxyService {
    */
   public ProxyService(@NonNull final ProxyConfig config) {
     this.lineageStreams = config.getProxyStreamFactory().build();
+    this.validator =
+        config.getProxyStreamFactory().isValidateEvents() ? new OpenLineageValidator() : null;
+  }
+
+  /**
+   * validate an incoming event against the OpenLineage spec, in one pass over its JSON.
+   *
+   * @param eventAsString incoming event
+   * @return the errors found in the event, empty if it is valid or validation is disabled
+   */
+  public List<String> validate(@NonNull String eventAsString) {
+    if (validator == null) {
+      return Collections.emptyList();
+    }
+    return validator.validate(eventAsString);
   }
 
   /**